@@ -2,10 +2,16 @@ package egrep.main;
 
 import egrep.main.exceptions.AutomatonException;
 import egrep.main.exceptions.ParsingException;
+import egrep.main.search_engine.MultiSearchEngine;
 import egrep.main.search_engine.SearchEngine;
 import egrep.main.utils.Pair;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -25,10 +31,16 @@ public class Main {
 
     private static boolean helpFlag = false;
     private static boolean benchmarkFlag = false;
+    private static boolean onlyMatchingFlag = false;
+    private static boolean compileFlag = false;
     private static boolean validCall = true;
 
+    private static int threadNumber = SearchEngine.AUTO_THREAD_NUMBER;
+
     private static String regex = null;
     private static String fileRelativePath = null;
+    private static String patternFileRelativePath = null;
+    private static final List<String> regexes = new ArrayList<>();
 
     // ----- Utils functions -----
 
@@ -44,9 +56,16 @@ public class Main {
         System.out.println("Licence : MIT\n");
 
         System.out.println("Usage : egrep [options] \"<REGEX>\" \"<INPUT_FILE>\"");
+        System.out.println("        egrep [options] -f \"<PATTERN_FILE>\" \"<INPUT_FILE>\"");
+        System.out.println("        egrep [options] -e \"<REGEX>\" [-e \"<REGEX>\" ...] \"<INPUT_FILE>\"");
         System.out.println("Available options :");
         System.out.println("\t-b (--benchmark) = Run all benchmark tests. No need of regex or input file in this mode.");
+        System.out.println("\t-c (--compile) = Precompile the regex automaton in the cache directory ($" + SearchEngine.CACHE_DIRECTORY_VARIABLE + " or ~/" + SearchEngine.DEFAULT_CACHE_DIRECTORY + "). No need of input file in this mode.");
+        System.out.println("\t-e (--regexp) <REGEX> = Add a regex to search, all the regex are searched in a single pass and the matched lines are displayed for each regex.");
+        System.out.println("\t-f (--file) <PATTERN_FILE> = Search all the literal strings of the file, one per line, instead of a regex.");
         System.out.println("\t-h (--help) = Display this help message.");
+        System.out.println("\t-j (--jobs) <N> = Search the big input files with N threads. By default, all the available processors are used.");
+        System.out.println("\t-o (--only-matching) = Display only the matches, one per line. With -f, display the found literals.");
         System.out.println("\t-v (--verbose) = Display a lot of information about the regex and file processing.");
     }
 
@@ -121,6 +140,48 @@ public class Main {
 
         }
 
+        // Test the DFA strategy and show the result
+        System.out.println("\n== DFA strategy benchmark on file size\n");
+        for(int i = 0 ; i < testFiles.length ; i++) {
+            String testFile = testFiles[i];
+            int size = sizes[i];
+
+            try {
+
+                SearchEngine engine = new SearchEngine(regex, testFile, SearchEngine.Strategy.DFA);
+                long startTime = System.currentTimeMillis();
+                List<Pair<Integer, String>> res = engine.searchLines();
+                long endTime = System.currentTimeMillis();
+
+                System.out.println(testFile + " (" + size + " lines)  matched result=" + res.size() + "  |  search duration=" + (endTime - startTime) + " ms");
+
+            } catch (Exception e) {
+                e.printStackTrace();
+                return;
+            }
+        }
+
+        // Test the Shift-And strategy and show the result
+        System.out.println("\n== Shift-And strategy benchmark on file size\n");
+        for(int i = 0 ; i < testFiles.length ; i++) {
+            String testFile = testFiles[i];
+            int size = sizes[i];
+
+            try {
+
+                SearchEngine engine = new SearchEngine(regex, testFile, SearchEngine.Strategy.SHIFT_AND);
+                long startTime = System.currentTimeMillis();
+                List<Pair<Integer, String>> res = engine.searchLines();
+                long endTime = System.currentTimeMillis();
+
+                System.out.println(testFile + " (" + size + " lines)  matched result=" + res.size() + "  |  search duration=" + (endTime - startTime) + " ms");
+
+            } catch (Exception e) {
+                e.printStackTrace();
+                return;
+            }
+        }
+
         // Test the KMP strategy and show the result
         System.out.println("\n== KMP strategy benchmark on file size\n");
         for(int i = 0 ; i < testFiles.length ; i++) {
@@ -142,6 +203,48 @@ public class Main {
             }
         }
 
+        // Test the Horspool strategy and show the result
+        System.out.println("\n== Horspool strategy benchmark on file size\n");
+        for(int i = 0 ; i < testFiles.length ; i++) {
+            String testFile = testFiles[i];
+            int size = sizes[i];
+
+            try {
+
+                SearchEngine engine = new SearchEngine(regex, testFile, SearchEngine.Strategy.HORSPOOL);
+                long startTime = System.currentTimeMillis();
+                List<Pair<Integer, String>> res = engine.searchLines();
+                long endTime = System.currentTimeMillis();
+
+                System.out.println(testFile + " (" + size + " lines)  matched result=" + res.size() + "  |  search duration=" + (endTime - startTime) + " ms");
+
+            } catch (Exception e) {
+                e.printStackTrace();
+                return;
+            }
+        }
+
+        // Test the Two-Way strategy and show the result
+        System.out.println("\n== Two-Way strategy benchmark on file size\n");
+        for(int i = 0 ; i < testFiles.length ; i++) {
+            String testFile = testFiles[i];
+            int size = sizes[i];
+
+            try {
+
+                SearchEngine engine = new SearchEngine(regex, testFile, SearchEngine.Strategy.TWO_WAY);
+                long startTime = System.currentTimeMillis();
+                List<Pair<Integer, String>> res = engine.searchLines();
+                long endTime = System.currentTimeMillis();
+
+                System.out.println(testFile + " (" + size + " lines)  matched result=" + res.size() + "  |  search duration=" + (endTime - startTime) + " ms");
+
+            } catch (Exception e) {
+                e.printStackTrace();
+                return;
+            }
+        }
+
         // Test the java native strategy and show the result
         System.out.println("\n== Java Native strategy benchmark on file size\n");
         for(int i = 0 ; i < testFiles.length ; i++) {
@@ -164,6 +267,96 @@ public class Main {
         }
     }
 
+    private static void compile() {
+        // Verify that there is the regex
+        if(regex != null) {
+
+            try {
+                File file = SearchEngine.precompile(regex);
+                System.out.println("Automaton written to " + file);
+            } catch(ParsingException e) {
+                System.err.println("The regex cannot be parsed. Message : " + e.getMessage());
+                if(verboseFlag) e.printStackTrace();
+            } catch(AutomatonException e) {
+                System.err.println("The automaton cannot be compiled");
+                if(verboseFlag) e.printStackTrace();
+            } catch(IOException e) {
+                System.err.println("Error during the automaton file writing");
+                if(verboseFlag) e.printStackTrace();
+            }
+
+        } else {
+            System.out.println("Regex not provided !");
+            System.out.println("Cannot run the command, use -h to show help");
+        }
+    }
+
+    private static void runLiterals() {
+        // Verify that there is all needed arguments
+        if(fileRelativePath != null) {
+
+            try {
+
+                // Read the literals and do the research
+                List<String> literals = Files.readAllLines(Paths.get(patternFileRelativePath), StandardCharsets.UTF_8);
+                SearchEngine engine = new SearchEngine(literals, fileRelativePath);
+                engine.setThreadNumber(threadNumber);
+                List<Pair<Integer, String>> results = onlyMatchingFlag ? engine.searchMatches() : engine.searchLines();
+
+                // Presenting the result
+                for(Pair<Integer, String> line : results) {
+                    System.out.println(line.getKey() + " : " + line.getValue());
+                }
+
+            } catch(ParsingException | AutomatonException e) {
+                System.err.println("This CANNOT happen");
+                e.printStackTrace();
+            } catch(IOException e) {
+                System.err.println("Error during the pattern or input file reading");
+                if(verboseFlag) e.printStackTrace();
+            }
+
+        } else {
+            System.out.println("Input file note provided !");
+            System.out.println("Cannot run the command, use -h to show help");
+        }
+    }
+
+    private static void runMulti() {
+        // Verify that there is all needed arguments
+        if(fileRelativePath != null) {
+
+            try {
+
+                // Create the search engine and do the research
+                MultiSearchEngine engine = new MultiSearchEngine(regexes, fileRelativePath);
+                List<List<Pair<Integer, String>>> results = engine.searchLines();
+
+                // Presenting the result of each regex
+                for(int i = 0 ; i < regexes.size() ; i++) {
+                    System.out.println("== " + regexes.get(i));
+                    for(Pair<Integer, String> line : results.get(i)) {
+                        System.out.println(line.getKey() + " : " + line.getValue());
+                    }
+                }
+
+            } catch(ParsingException e) {
+                System.err.println("A regex cannot be parsed. Message : " + e.getMessage());
+                if(verboseFlag) e.printStackTrace();
+            } catch(AutomatonException e) {
+                System.err.println("The automaton is not deterministic");
+                if(verboseFlag) e.printStackTrace();
+            } catch(IOException e) {
+                System.err.println("Error during the input file reading");
+                if(verboseFlag) e.printStackTrace();
+            }
+
+        } else {
+            System.out.println("Input file note provided !");
+            System.out.println("Cannot run the command, use -h to show help");
+        }
+    }
+
     private static void run() {
         // Verify that there is all needed arguments
         if(regex != null && fileRelativePath != null) {
@@ -175,7 +368,8 @@ public class Main {
 
                 // Create the search engine and do the research
                 SearchEngine engine = new SearchEngine(regex, fileRelativePath);
-                results = engine.searchLines();
+                engine.setThreadNumber(threadNumber);
+                results = onlyMatchingFlag ? engine.searchMatches() : engine.searchLines();
 
                 // Presenting the result
                 for(Pair<Integer, String> line : results) {
@@ -204,7 +398,8 @@ public class Main {
 
     public static void main(String[] args) {
         // Parse the arguments
-        for(String arg : args) {
+        for(int i = 0 ; i < args.length ; i++) {
+            String arg = args[i];
             switch (arg) {
 
                 case "--help":
@@ -222,6 +417,34 @@ public class Main {
                     verboseFlag = true;
                     break;
 
+                case "--compile":
+                case "-c":
+                    compileFlag = true;
+                    break;
+
+                case "--only-matching":
+                case "-o":
+                    onlyMatchingFlag = true;
+                    break;
+
+                case "--regexp":
+                case "-e":
+                    if(i + 1 < args.length) regexes.add(args[++i]);
+                    else unknownArg(arg);
+                    break;
+
+                case "--jobs":
+                case "-j":
+                    if(i + 1 < args.length && args[i + 1].matches("[1-9][0-9]{0,3}")) threadNumber = Integer.parseInt(args[++i]);
+                    else unknownArg(arg);
+                    break;
+
+                case "--file":
+                case "-f":
+                    if(i + 1 < args.length) patternFileRelativePath = args[++i];
+                    else unknownArg(arg);
+                    break;
+
                 default:
                     if(regex == null) regex = arg;
                     else if(fileRelativePath == null) fileRelativePath = arg;
@@ -230,6 +453,13 @@ public class Main {
             }
         }
 
+        // With a pattern file or regex options, the only positional argument is the input file
+        if((patternFileRelativePath != null || !regexes.isEmpty()) && fileRelativePath == null) {
+            fileRelativePath = regex;
+            regex = null;
+        }
+        if(regexes.size() == 1) regex = regexes.remove(0);
+
         // If the help flag is here, just display the help message
         if(helpFlag) {
             displayHelp();
@@ -238,6 +468,9 @@ public class Main {
             // Verify that the call is valid
             if(validCall) {
                 if(benchmarkFlag) benchmark();
+                else if(compileFlag) compile();
+                else if(patternFileRelativePath != null) runLiterals();
+                else if(!regexes.isEmpty()) runMulti();
                 else run();
             }
         }
@@ -0,0 +1,184 @@
+package egrep.main.automaton;
+
+import egrep.main.parser.RegExTree;
+
+import java.util.Arrays;
+
+import static egrep.main.automaton.Automaton.CHAR_NUMBER;
+import static egrep.main.automaton.Automaton.WIDE_POS;
+import static egrep.main.parser.RegExParser.*;
+
+/**
+ * This class represents the alphabet equivalence classes of a regex
+ * Two characters are in the same class if no leaf of the regex tree can tell them apart,
+ * so the compiled automaton only needs one transition column per class.
+ * The Latin-1 characters are found in a direct class map, and the wider characters used by the
+ * regex by a binary search in their sorted array, so there is no 65536 wide table
+ *
+ * @author Emilie SIAU
+ * @author Hugo GUERRIER
+ */
+public class Alphabet {
+
+    // ----- Macros -----
+
+    public static final int OTHER_CLASS = 0;
+    public static final int NO_REPRESENTATIVE = -1;
+
+    // ----- Attributes -----
+
+    private final int[] classMap;
+    private final int[] representatives;
+    private final char[] wideChars;
+    private final int firstWideClass;
+
+    // ----- Constructors -----
+
+    /**
+     * Create the alphabet classes from a regex tree. Every character used by a leaf gets its own class
+     * and all the other characters (only matched by the dot) share the other class
+     *
+     * @param tree The regex tree
+     */
+    public Alphabet(RegExTree tree) {
+        // Collect the characters used by the tree leaves
+        boolean[] used = new boolean[Character.MAX_VALUE + 1];
+        collectChars(tree, used);
+
+        // Create a class for each used character, the wide characters come last in their order
+        classMap = new int[CHAR_NUMBER];
+        int[] reprs = new int[CHAR_NUMBER + 1];
+        reprs[OTHER_CLASS] = NO_REPRESENTATIVE;
+        int classNumber = OTHER_CLASS + 1;
+        for(int c = 0 ; c <= Character.MAX_VALUE ; c++) {
+            if(used[c]) {
+                if(classNumber == reprs.length) reprs = Arrays.copyOf(reprs, reprs.length * 2);
+                reprs[classNumber] = c;
+                if(c < CHAR_NUMBER) classMap[c] = classNumber;
+                classNumber++;
+            }
+        }
+        representatives = Arrays.copyOf(reprs, classNumber);
+        firstWideClass = getFirstWideClass(representatives);
+        wideChars = getWideChars(representatives, firstWideClass);
+    }
+
+    /**
+     * Create an alphabet from its raw components
+     *
+     * @param classMap The class of each Latin-1 character
+     * @param representatives The representative character of each class, the wide characters last and sorted
+     */
+    public Alphabet(int[] classMap, int[] representatives) {
+        this.classMap = classMap;
+        this.representatives = representatives;
+        firstWideClass = getFirstWideClass(representatives);
+        wideChars = getWideChars(representatives, firstWideClass);
+    }
+
+    // ----- Getters -----
+
+    public int[] getClassMap() {
+        return classMap;
+    }
+
+    public int getClassNumber() {
+        return representatives.length;
+    }
+
+    public int getWideNumber() {
+        return wideChars.length;
+    }
+
+    public char getWideChar(int index) {
+        return wideChars[index];
+    }
+
+    // ----- Class methods -----
+
+    /**
+     * Get the class of a character
+     *
+     * @param c The character
+     * @return The class of the character
+     */
+    public int classOf(char c) {
+        return c < CHAR_NUMBER ? classMap[c] : classOfWide(c);
+    }
+
+    /**
+     * Get the class of a character out of the Latin-1 range, by a binary search in the wide characters
+     *
+     * @param c The character, at least CHAR_NUMBER
+     * @return The class of the character
+     */
+    public int classOfWide(char c) {
+        int index = Arrays.binarySearch(wideChars, c);
+        return index >= 0 ? firstWideClass + index : OTHER_CLASS;
+    }
+
+    /**
+     * Get the position of a character in the automaton transition lists. The Latin-1 characters
+     * use their value and the wide characters of the regex use the positions after WIDE_POS
+     *
+     * @param c The character, used by the regex if it is a wide one
+     * @return The position of the character transitions
+     */
+    public int symbolOf(int c) {
+        return c < CHAR_NUMBER ? c : WIDE_POS + Arrays.binarySearch(wideChars, (char) c);
+    }
+
+    /**
+     * Get the representative character of a class
+     *
+     * @param cls The class
+     * @return The representative character or NO_REPRESENTATIVE for the other class
+     */
+    public int getRepresentative(int cls) {
+        return representatives[cls];
+    }
+
+    // ----- Internal methods -----
+
+    /**
+     * Get the first class of a wide character
+     *
+     * @param representatives The class representatives
+     * @return The first wide class, the class number if there is no wide character
+     */
+    private static int getFirstWideClass(int[] representatives) {
+        int res = representatives.length;
+        while(res > OTHER_CLASS + 1 && representatives[res - 1] >= CHAR_NUMBER) res--;
+        return res;
+    }
+
+    /**
+     * Get the sorted wide characters from the class representatives
+     *
+     * @param representatives The class representatives
+     * @param firstWideClass The first wide class
+     * @return The wide characters
+     */
+    private static char[] getWideChars(int[] representatives, int firstWideClass) {
+        char[] res = new char[representatives.length - firstWideClass];
+        for(int i = 0 ; i < res.length ; i++) res[i] = (char) representatives[firstWideClass + i];
+        return res;
+    }
+
+    /**
+     * Collect recursively the characters used by the leaves of a tree
+     *
+     * @param tree The tree to explore
+     * @param used The used characters array to fill
+     */
+    private static void collectChars(RegExTree tree, boolean[] used) {
+        int root = tree.getRoot();
+        if(tree.getSubTrees().isEmpty() && root != DOT && root <= Character.MAX_VALUE) {
+            used[root] = true;
+        }
+        for(RegExTree subTree : tree.getSubTrees()) {
+            collectChars(subTree, used);
+        }
+    }
+
+}
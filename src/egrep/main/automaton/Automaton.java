@@ -1,7 +1,6 @@
 package egrep.main.automaton;
 
 import egrep.main.exceptions.AutomatonException;
-import egrep.main.exceptions.RegexMatchingException;
 import egrep.main.parser.RegExTree;
 import egrep.main.utils.Pair;
 
@@ -11,7 +10,7 @@ import static egrep.main.parser.RegExParser.*;
 
 /**
  * This class is the regex searching automaton
- * An automaton is represented by a Map of keys:NodeId and values:[260 NodeId]
+ * An automaton is represented by a Map of keys:NodeId and values:[260 NodeId + 1 NodeId per wide character]
  *
  * @author Emilie SIAU
  * @author Hugo GUERRIER
@@ -26,21 +25,30 @@ public class Automaton {
     public static final int EPSILON_POS = 257;
     public static final int INIT_POS = 258;
     public static final int ACCEPT_POS = 259;
+    public static final int WIDE_POS = 260;
 
     // ----- Attributes -----
 
     // --- Data attributes
     private final RegExTree tree;
+    private final boolean unanchored;
+    private final Alphabet alphabet;
 
     // --- Attributes about the automaton
     private Map<NodeId, ArrayList<List<NodeId>>> automaton;
     private NodeId initNode;
     private NodeId ndfaFinalNode;
-    private NodeId currentNode;
+    private CompiledAutomaton compiled;
+    private CompiledAutomaton compiledUtf8;
+    private Prefilter utf8Prefilter;
+    private CompiledAutomaton utf8LineAutomaton;
+    private boolean minimized;
+    private int currentState;
+    private int stateLimit;
 
     // --- Utils attributes
     private int nextNodeId;
-    private final List<Pair<Set<NodeId>, NodeId>> nodeIdInstances;
+    private final Map<BitSet, NodeId> nodeIdInstances;
     private boolean determinist;
 
     // ----- Constructors -----
@@ -63,13 +71,34 @@ public class Automaton {
      * @throws AutomatonException if the passed tree is null
      */
     public Automaton(RegExTree t, boolean autoCreate) throws AutomatonException {
-        tree = t;
+        this(t, autoCreate, false);
+    }
+
+    /**
+     * Init an automaton with the wanted regex tree, anchored or not. An unanchored automaton
+     * recognizes every input containing a match, like if the regex was prefixed by ".*"
+     *
+     * @param t The regex tree
+     * @param autoCreate Create automatically the automaton or not (for benchmarking purpose)
+     * @param unanchored If the automaton should be unanchored
+     * @throws AutomatonException if the passed tree is null
+     */
+    public Automaton(RegExTree t, boolean autoCreate, boolean unanchored) throws AutomatonException {
+        tree = unanchored && t != null ? createUnanchoredTree(t) : t;
+        this.unanchored = unanchored;
+        alphabet = tree != null ? new Alphabet(tree) : null;
         automaton = null;
         initNode = null;
         ndfaFinalNode = null;
-        currentNode = null;
+        compiled = null;
+        compiledUtf8 = null;
+        utf8Prefilter = null;
+        utf8LineAutomaton = null;
+        minimized = false;
+        currentState = CompiledAutomaton.DEAD_STATE;
+        stateLimit = Integer.MAX_VALUE;
         nextNodeId = 0;
-        nodeIdInstances = new LinkedList<>();
+        nodeIdInstances = new HashMap<>();
         determinist = false;
 
         if(autoCreate) create();
@@ -85,6 +114,32 @@ public class Automaton {
         return initNode;
     }
 
+    public NodeId getFinalNode() {
+        return ndfaFinalNode;
+    }
+
+    public Alphabet getAlphabet() {
+        return alphabet;
+    }
+
+    public CompiledAutomaton getCompiled() {
+        return compiled;
+    }
+
+    public CompiledAutomaton getCompiledUtf8() {
+        return compiledUtf8;
+    }
+
+    public boolean isUnanchored() {
+        return unanchored;
+    }
+
+    // ----- Setters -----
+
+    public void setStateLimit(int stateLimit) {
+        this.stateLimit = stateLimit;
+    }
+
     // ----- Override methods -----
 
     @Override
@@ -97,7 +152,7 @@ public class Automaton {
 
         // For every node, display the transition
         for(NodeId currNode : automaton.keySet()) {
-            res.append(currNode.getKeys().toString()).append(" {");
+            res.append(currNode).append(" {");
 
             // Create the transitions string for all characters
             StringBuilder transitionString = new StringBuilder();
@@ -111,6 +166,16 @@ public class Automaton {
                 }
             }
 
+            // Process the wide character transitions
+            for(int i = 0 ; i < alphabet.getWideNumber() ; i++) {
+                List<NodeId> targets = automaton.get(currNode).get(WIDE_POS + i);
+                if(targets != null) {
+                    if(transCpt > 0) transitionString.append(", ");
+                    transitionString.append(alphabet.getWideChar(i)).append(" -> ").append(targets);
+                    transCpt++;
+                }
+            }
+
             // Process the dot transition
             List<NodeId> dotTargets = automaton.get(currNode).get(DOT_POS);
             if(dotTargets != null) {
@@ -162,6 +227,7 @@ public class Automaton {
     public void create() throws AutomatonException {
         createNDFA();
         createDFA();
+        compile();
     }
 
     /**
@@ -196,64 +262,129 @@ public class Automaton {
 
     /**
      * Determine if needed the non-deterministic automaton
+     *
+     * @throws AutomatonException If the DFA has more states than the state limit
      */
-    public void createDFA() {
+    public void createDFA() throws AutomatonException {
         if(!determinist) {
             // Reset the counter and process the automaton
             nextNodeId = 0;
             processDFA();
 
-            // Set the automaton determinist and init it for the input
+            // Set the automaton determinist
             determinist = true;
-            currentNode = initNode;
         }
     }
 
     /**
-     * Input a character in the automaton
+     * Compile if needed the deterministic automaton into a flat transition table
      *
-     * @param c The character to input
-     * @return True if the automaton is in a final state after the input
-     * @throws RegexMatchingException If the input cannot match the automaton
+     * @return The compiled automaton
      * @throws AutomatonException If the automaton is not deterministic
      */
-    public boolean input(char c) throws RegexMatchingException, AutomatonException {
-        // Test for the input in the automaton
+    public CompiledAutomaton compile() throws AutomatonException {
         if(determinist) {
-            if((int) c <= CHAR_NUMBER) {
-
-                List<NodeId> nextNode = automaton.get(currentNode).get(c);
-                List<NodeId> dotNode = automaton.get(currentNode).get(DOT_POS);
-                if(nextNode != null) {
-                    currentNode = nextNode.get(0);
-                } else if(dotNode != null) {
-                    currentNode = dotNode.get(0);
-                } else {
-                    throw new RegexMatchingException("Cannot match the input");
-                }
-
-            } else {
-                throw new RegexMatchingException("Unhandled character");
+            if(compiled == null) {
+                compiled = CompiledAutomaton.compile(automaton, initNode, alphabet);
+                currentState = compiled.getInitState();
             }
+            return compiled;
         } else {
             throw new AutomatonException("The automaton need to be deterministic");
         }
+    }
 
-        // Return if the automaton is in a final state
-        return automaton.get(currentNode).get(ACCEPT_POS) != null;
+    /**
+     * Compile if needed the automaton over the UTF-8 bytes of the input, see the Utf8Compiler class
+     *
+     * @return The compiled byte automaton
+     * @throws AutomatonException If the automaton is not deterministic
+     */
+    public CompiledAutomaton compileUtf8() throws AutomatonException {
+        if(compiledUtf8 == null) {
+            CompiledAutomaton res = Utf8Compiler.compile(compile());
+            if(unanchored) {
+                utf8Prefilter = Prefilter.create(res);
+                utf8LineAutomaton = res.resetOnLineBreak();
+            }
+            compiledUtf8 = res;
+        }
+        return compiledUtf8;
+    }
+
+    /**
+     * Get the prefilter of the UTF-8 byte automaton, see the Prefilter class
+     *
+     * @return The prefilter, null if the automaton is anchored or if its candidate bytes are not rare enough
+     * @throws AutomatonException If the automaton is not deterministic
+     */
+    public Prefilter getUtf8Prefilter() throws AutomatonException {
+        compileUtf8();
+        return utf8Prefilter;
+    }
+
+    /**
+     * Get the UTF-8 byte automaton where a line break leads back to the initial state, to search many lines at once
+     *
+     * @return The line automaton, null if the automaton is anchored
+     * @throws AutomatonException If the automaton is not deterministic
+     */
+    public CompiledAutomaton getUtf8LineAutomaton() throws AutomatonException {
+        compileUtf8();
+        return utf8LineAutomaton;
+    }
+
+    /**
+     * Minimize if needed the compiled automaton by merging all its equivalent states
+     *
+     * @return The minimal compiled automaton
+     * @throws AutomatonException If the automaton is not deterministic
+     */
+    public CompiledAutomaton minimize() throws AutomatonException {
+        if(!minimized) {
+            compiled = compile().minimize();
+            compiledUtf8 = null;
+            utf8Prefilter = null;
+            utf8LineAutomaton = null;
+            currentState = compiled.getInitState();
+            minimized = true;
+        }
+        return compiled;
+    }
+
+    /**
+     * Input a character in the automaton. A character without transition leads the automaton
+     * to the dead state, where it stays until the next reset
+     *
+     * @param c The character to input
+     * @return True if the automaton is in a final state after the input
+     * @throws AutomatonException If the automaton is not deterministic
+     */
+    public boolean input(char c) throws AutomatonException {
+        CompiledAutomaton current = compile();
+        currentState = current.next(currentState, c);
+        return current.isAccepting(currentState);
     }
 
     /**
      * Get if the automaton is currently in a final state
      *
      * @return True of the automaton is in a final state
+     * @throws AutomatonException If the automaton is not deterministic
      */
     public boolean isInFinalState() throws AutomatonException {
-        if(determinist) {
-            return automaton.get(currentNode).get(ACCEPT_POS) != null;
-        } else {
-            throw new AutomatonException("The automaton need to be deterministic");
-        }
+        return compile().isAccepting(currentState);
+    }
+
+    /**
+     * Get if the automaton is currently in the dead state, so no more input can lead to a final state
+     *
+     * @return True if the automaton is in the dead state
+     * @throws AutomatonException If the automaton is not deterministic
+     */
+    public boolean isDead() throws AutomatonException {
+        compile();
+        return currentState == CompiledAutomaton.DEAD_STATE;
     }
 
     /**
@@ -262,15 +393,40 @@ public class Automaton {
      * @throws AutomatonException If the automaton is not deterministic
      */
     public void reset() throws AutomatonException {
-        if(determinist) {
-            currentNode = initNode;
-        } else {
-            throw new AutomatonException("The automaton need to be deterministic");
-        }
+        currentState = compile().getInitState();
     }
 
     // ----- Internal methods -----
 
+    /**
+     * Create the unanchored version of a regex tree by prefixing it with a ".*" loop
+     *
+     * @param t The regex tree
+     * @return The unanchored regex tree
+     */
+    private static RegExTree createUnanchoredTree(RegExTree t) {
+        // Create the dot star loop
+        ArrayList<RegExTree> subTrees = new ArrayList<>();
+        subTrees.add(new RegExTree(DOT, new ArrayList<>()));
+        RegExTree dotStar = new RegExTree(STAR, subTrees);
+
+        // Concat the loop and the tree
+        subTrees = new ArrayList<>();
+        subTrees.add(dotStar);
+        subTrees.add(t);
+        return new RegExTree(CONCAT, subTrees);
+    }
+
+    /**
+     * Get if a transition list position is a character or dot transition
+     *
+     * @param position The position
+     * @return True if the position holds character or dot transitions
+     */
+    private static boolean isStepPosition(int position) {
+        return position <= DOT_POS || position >= WIDE_POS;
+    }
+
     /**
      * Get the next node id
      *
@@ -288,8 +444,9 @@ public class Automaton {
      * @return The trnasition list with every transition to null
      */
     private ArrayList<List<NodeId>> getNewTransitionList() {
-        ArrayList<List<NodeId>> res = new ArrayList<>();
-        for(int i = 0 ; i < AUTOMATON_TABLE_SIZE ; i++) {
+        int size = AUTOMATON_TABLE_SIZE + alphabet.getWideNumber();
+        ArrayList<List<NodeId>> res = new ArrayList<>(size);
+        for(int i = 0 ; i < size ; i++) {
             res.add(null);
         }
         return res;
@@ -428,8 +585,8 @@ public class Automaton {
                 break;
 
             default:
-                // Get the character value
-                int charIndex = currTree.getRoot();
+                // Get the character position
+                int charIndex = alphabet.symbolOf(currTree.getRoot());
 
                 // Create the out node
                 nextNode = getNextNodeId();
@@ -459,43 +616,66 @@ public class Automaton {
 
 
     /**
-     * Get the unique instance of node id for a given node id set
+     * Get the unique instance of node id for a given NDFA node set. If the set has no instance yet,
+     * a copy of the set is interned and added to the process list, so the given set can be reused
      *
-     * @param nodeIdSet The node id set
+     * @param nodeSet The NDFA node set, as a bit set of the node keys
+     * @param processList The list of the sets to process
      * @return The instance of node id
      */
-    private NodeId getNodeIdForSet(Set<NodeId> nodeIdSet) {
+    private NodeId getNodeIdForSet(BitSet nodeSet, List<Pair<BitSet, NodeId>> processList) {
         // Look for the node id instance
-        for(Pair<Set<NodeId>, NodeId> pair : nodeIdInstances) {
-            if(pair.getKey().equals(nodeIdSet)) return pair.getValue();
-        }
+        NodeId res = nodeIdInstances.get(nodeSet);
 
         // If nothing was found, create it
-        Pair<Set<NodeId>, NodeId> newPair = new Pair<>(nodeIdSet, getNextNodeId());
-        nodeIdInstances.add(newPair);
-        return newPair.getValue();
+        if(res == null) {
+            BitSet internedSet = (BitSet) nodeSet.clone();
+            res = getNextNodeId();
+            nodeIdInstances.put(internedSet, res);
+            processList.add(new Pair<>(internedSet, res));
+        }
+
+        // Return the result
+        return res;
     }
 
     /**
-     * Get the epsilon closure for a wanted node id list
+     * Compute once the epsilon closure of every NDFA node
      *
-     * @param nodeIdList The node id list to do the epsilon closure on
-     * @return The epsilon closure in a list
+     * @param ndfaNodes The NDFA nodes indexed by their key
+     * @return The epsilon closures as bit sets of the node keys, indexed by the node keys
      */
-    private Set<NodeId> getEpsilonClosure(List<NodeId> nodeIdList) {
-        // Prepare the result
-        Set<NodeId> res = new HashSet<>();
-
-        // Prepare the working list
-        List<NodeId> processList = new LinkedList<>(nodeIdList);
-
-        // Process the epsilon closure
-        while(!processList.isEmpty()) {
-            NodeId currentNode = processList.remove(0);
-            if(res.add(currentNode)) {
-                List<NodeId> epsilonTrans = automaton.get(currentNode).get(EPSILON_POS);
-                if(epsilonTrans != null) processList.addAll(epsilonTrans);
+    private BitSet[] getEpsilonClosures(NodeId[] ndfaNodes) {
+        // Prepare the result and the working stack, reused for every node
+        BitSet[] res = new BitSet[ndfaNodes.length];
+        int[] stack = new int[ndfaNodes.length];
+
+        for(int start = 0 ; start < ndfaNodes.length ; start++) {
+            if(ndfaNodes[start] == null) continue;
+            BitSet closure = new BitSet(ndfaNodes.length);
+            closure.set(start);
+            int stackSize = 0;
+            stack[stackSize++] = start;
+
+            // Process the closure, the already computed closures are merged directly
+            while(stackSize > 0) {
+                int node = stack[--stackSize];
+                if(node != start && res[node] != null) {
+                    closure.or(res[node]);
+                    continue;
+                }
+                List<NodeId> epsilonTargets = automaton.get(ndfaNodes[node]).get(EPSILON_POS);
+                if(epsilonTargets != null) {
+                    for(NodeId target : epsilonTargets) {
+                        int key = target.getFirstKey();
+                        if(!closure.get(key)) {
+                            closure.set(key);
+                            stack[stackSize++] = key;
+                        }
+                    }
+                }
             }
+            res[start] = closure;
         }
 
         // Return the result
@@ -504,100 +684,116 @@ public class Automaton {
 
     /**
      * Determine the current automaton using an alternate version of the sub-set method from Aho Ullman book
+     *
+     * @throws AutomatonException If the DFA has more states than the state limit
      */
-    private void processDFA() {
+    private void processDFA() throws AutomatonException {
         // Create the new map which contains the DFA
         Map<NodeId, ArrayList<List<NodeId>>> dfa = new HashMap<>();
 
-        // Create the working variables
-        List<Set<NodeId>> processList = new LinkedList<>();
+        // Index the NDFA nodes by their key
+        int ndfaSize = 0;
+        for(NodeId node : automaton.keySet()) ndfaSize = Math.max(ndfaSize, node.getFirstKey() + 1);
+        NodeId[] ndfaNodes = new NodeId[ndfaSize];
+        for(NodeId node : automaton.keySet()) ndfaNodes[node.getFirstKey()] = node;
+        int ndfaFinalKey = ndfaFinalNode.getFirstKey();
+
+        // Get the character and dot transitions of each NDFA node as arrays
+        int tableSize = AUTOMATON_TABLE_SIZE + alphabet.getWideNumber();
+        int[][] stepSymbols = new int[ndfaSize][];
+        int[][] stepTargets = new int[ndfaSize][];
+        for(int key = 0 ; key < ndfaSize ; key++) {
+            if(ndfaNodes[key] == null) continue;
+            ArrayList<List<NodeId>> transitions = automaton.get(ndfaNodes[key]);
+            int stepNumber = 0;
+            for(int i = 0 ; i < tableSize ; i++) {
+                if(isStepPosition(i) && transitions.get(i) != null) stepNumber += transitions.get(i).size();
+            }
+            stepSymbols[key] = new int[stepNumber];
+            stepTargets[key] = new int[stepNumber];
+            stepNumber = 0;
+            for(int i = 0 ; i < tableSize ; i++) {
+                if(!isStepPosition(i) || transitions.get(i) == null) continue;
+                for(NodeId target : transitions.get(i)) {
+                    stepSymbols[key][stepNumber] = i;
+                    stepTargets[key][stepNumber++] = target.getFirstKey();
+                }
+            }
+        }
 
-        // Init process list by entering the ndfa from the epsilon closure of the init node
-        List<NodeId> initList = new LinkedList<>();
-        initList.add(initNode);
-        Set<NodeId> initSet = getEpsilonClosure(initList);
+        // Compute the epsilon closures once
+        BitSet[] closures = getEpsilonClosures(ndfaNodes);
+
+        // Create the working variables, reused for every sub-set
+        List<Pair<BitSet, NodeId>> processList = new LinkedList<>();
+        BitSet[] symbolSets = new BitSet[tableSize];
+        boolean[] symbolUsed = new boolean[tableSize];
+        int[] usedSymbols = new int[tableSize];
+        for(int i = 0 ; i < tableSize ; i++) symbolSets[i] = new BitSet(ndfaSize);
+        nodeIdInstances.clear();
 
-        // Add the init list in the process list
-        processList.add(initSet);
+        // Init process list by entering the ndfa from the epsilon closure of the init node
+        NodeId dfaInitNode = getNodeIdForSet(closures[initNode.getFirstKey()], processList);
 
         // While the process list is not empty, do the process
         while(!processList.isEmpty()) {
-            // Get the current list
-            Set<NodeId> currentSet = processList.remove(0);
-            NodeId currentNode = getNodeIdForSet(currentSet);
-
-            // If the node already exists in the dfa, pass the current list
-            if(dfa.getOrDefault(currentNode, null) == null) {
-
-                // Create the new transition list
-                ArrayList<List<NodeId>> newTransitions = getNewTransitionList();
-
-                // Add all targets from the sub nodes
-                for(NodeId subNode : currentSet) {
-                    for(int i = 0 ; i < CHAR_NUMBER ; i++) {
-                        List<NodeId> targets = automaton.get(subNode).get(i);
-                        if(targets != null) {
-                            if(newTransitions.get(i) == null) newTransitions.set(i, new LinkedList<>());
-                            newTransitions.get(i).addAll(targets);
-                        }
-                    }
-
-                    // Process dot targets
-                    List<NodeId> dotTargets = automaton.get(subNode).get(DOT_POS);
-                    if(dotTargets != null) {
-                        if(newTransitions.get(DOT_POS) == null) newTransitions.set(DOT_POS, new LinkedList<>());
-                        newTransitions.get(DOT_POS).addAll(dotTargets);
-                    }
-                }
-
-                // Do the epsilon closure for each char transition
-                for(int i = 0 ; i < CHAR_NUMBER ; i++) {
-                    List<NodeId> newTargets = newTransitions.get(i);
-                    if(newTargets != null) {
-                        // Get the epsilon closure
-                        Set<NodeId> epsilon = getEpsilonClosure(newTargets);
-
-                        // Add the set to the process list
-                        processList.add(epsilon);
-
-                        // Set the transition
-                        newTargets.clear();
-                        newTargets.add(getNodeIdForSet(epsilon));
+            // Get the current set, every set in the process list is a new node
+            Pair<BitSet, NodeId> current = processList.remove(0);
+            BitSet currentSet = current.getKey();
+            NodeId currentNode = current.getValue();
+
+            // Merge the closures of the sub nodes targets for each symbol
+            int usedNumber = 0;
+            for(int key = currentSet.nextSetBit(0) ; key >= 0 ; key = currentSet.nextSetBit(key + 1)) {
+                int[] symbols = stepSymbols[key];
+                int[] targets = stepTargets[key];
+                for(int j = 0 ; j < symbols.length ; j++) {
+                    int symbol = symbols[j];
+                    if(!symbolUsed[symbol]) {
+                        symbolUsed[symbol] = true;
+                        usedSymbols[usedNumber++] = symbol;
+                        symbolSets[symbol].clear();
                     }
+                    symbolSets[symbol].or(closures[targets[j]]);
                 }
+            }
 
-                // Do the epsilon closure for the dot
-                List<NodeId> newDotTargets = newTransitions.get(DOT_POS);
-                if(newDotTargets != null) {
-                    // Get the epsilon closure
-                    Set<NodeId> epsilon = getEpsilonClosure(newDotTargets);
-
-                    // Add the set to the process list
-                    processList.add(epsilon);
-
-                    // Set the transition
-                    newDotTargets.clear();
-                    newDotTargets.add(getNodeIdForSet(epsilon));
+            // A character transition also follows the dot transitions
+            if(symbolUsed[DOT_POS]) {
+                for(int j = 0 ; j < usedNumber ; j++) {
+                    if(usedSymbols[j] != DOT_POS) symbolSets[usedSymbols[j]].or(symbolSets[DOT_POS]);
                 }
+            }
 
-                // If the new node contains the init node, make it init
-                if(currentSet.contains(initNode)) {
-                    newTransitions.set(INIT_POS, new LinkedList<>());
-                    initNode = currentNode;
-                }
+            // Create the new transition list
+            ArrayList<List<NodeId>> newTransitions = getNewTransitionList();
+            for(int j = 0 ; j < usedNumber ; j++) {
+                int symbol = usedSymbols[j];
+                symbolUsed[symbol] = false;
+                List<NodeId> target = new LinkedList<>();
+                target.add(getNodeIdForSet(symbolSets[symbol], processList));
+                newTransitions.set(symbol, target);
+            }
 
-                // If the new node contains the NDFA finale node, make it final
-                if(currentSet.contains(ndfaFinalNode)) {
-                    newTransitions.set(ACCEPT_POS, new LinkedList<>());
-                }
+            // If the new node is the init node, make it init
+            if(currentNode == dfaInitNode) {
+                newTransitions.set(INIT_POS, new LinkedList<>());
+            }
 
-                // Add the new node and transitions to the dfa
-                dfa.put(currentNode, newTransitions);
+            // If the new node contains the NDFA finale node, make it final
+            if(currentSet.get(ndfaFinalKey)) {
+                newTransitions.set(ACCEPT_POS, new LinkedList<>());
+            }
 
+            // Add the new node and transitions to the dfa
+            dfa.put(currentNode, newTransitions);
+            if(dfa.size() > stateLimit) {
+                throw new AutomatonException("The DFA exceeds the limit of " + stateLimit + " states");
             }
         }
 
         // Affect the DFA to the automaton
+        initNode = dfaInitNode;
         automaton = dfa;
     }
 
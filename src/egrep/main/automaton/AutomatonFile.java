@@ -0,0 +1,219 @@
+package egrep.main.automaton;
+
+import egrep.main.exceptions.AutomatonException;
+
+import java.io.*;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import static egrep.main.automaton.Alphabet.NO_REPRESENTATIVE;
+import static egrep.main.automaton.Alphabet.OTHER_CLASS;
+
+/**
+ * This class reads and writes the binary format of the compiled automata.
+ * A file holds an unanchored automaton in two sections : the character automaton and the UTF-8 byte automaton
+ * where a line break leads back to the initial state.
+ * All the values are big endian ints :
+ *
+ * MAGIC, VERSION, flags, then for each section :
+ * state number, class number, initial state, first accepting state,
+ * the class of the 256 first characters, the representative of each class, the transition table
+ *
+ * @author Emilie SIAU
+ * @author Hugo GUERRIER
+ */
+public class AutomatonFile {
+
+    // ----- Macros -----
+
+    public static final int MAGIC = 0x45475245; // "EGRE"
+    public static final int VERSION = 2;
+    public static final String EXTENSION = ".dfa";
+
+    private static final int UNANCHORED_FLAG = 1;
+    private static final int CLASS_MAP_SIZE = 256;
+
+    // ----- Class methods -----
+
+    /**
+     * Write a minimal unanchored automaton to a file
+     *
+     * @param automaton The unanchored automaton
+     * @param file The file to write
+     * @throws AutomatonException If the automaton is not deterministic or not unanchored
+     * @throws IOException If the file cannot be written
+     */
+    public static void write(Automaton automaton, File file) throws AutomatonException, IOException {
+        if(!automaton.isUnanchored()) {
+            throw new AutomatonException("The automaton need to be unanchored");
+        }
+
+        // Write in a temporary file then rename it, so a reader never sees a partial file
+        File tmpFile = new File(file.getPath() + ".tmp");
+        try(DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(UNANCHORED_FLAG);
+            writeSection(output, automaton.minimize());
+            writeSection(output, automaton.getUtf8LineAutomaton());
+        }
+        if(!tmpFile.renameTo(file)) {
+            file.delete();
+            if(!tmpFile.renameTo(file)) throw new IOException("Cannot move the automaton file to " + file);
+        }
+    }
+
+    /**
+     * Map an automaton file in memory
+     *
+     * @param file The file to load
+     * @return The mapped automaton
+     * @throws AutomatonException If the file is not a valid automaton file of the current version
+     * @throws IOException If the file cannot be read
+     */
+    public static MappedAutomaton load(File file) throws AutomatonException, IOException {
+        // Map the file, the mapping stays valid after the channel is closed
+        MappedByteBuffer buffer;
+        try(RandomAccessFile input = new RandomAccessFile(file, "r")) {
+            FileChannel channel = input.getChannel();
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        try {
+            // Verify the header
+            IntBuffer ints = buffer.asIntBuffer();
+            if(ints.get() != MAGIC) throw new AutomatonException("The file " + file + " is not an automaton file");
+            int version = ints.get();
+            if(version != VERSION) {
+                throw new AutomatonException("The automaton file version " + version + " is not supported, expected " + VERSION);
+            }
+            if((ints.get() & UNANCHORED_FLAG) == 0) throw new AutomatonException("The automaton need to be unanchored");
+
+            // Read the sections
+            MappedAutomaton.MappedTable chars = readSection(ints, false);
+            MappedAutomaton.MappedTable bytes = readSection(ints, true);
+            return new MappedAutomaton(chars, bytes);
+        } catch(RuntimeException e) {
+            throw new AutomatonException("The automaton file " + file + " is corrupted");
+        }
+    }
+
+    /**
+     * Get the automaton file of a regex in a cache directory, its name is the SHA-256 hash of the regex
+     *
+     * @param cacheDirectory The cache directory
+     * @param regex The regex
+     * @return The automaton file
+     */
+    public static File getCacheFile(File cacheDirectory, String regex) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            StringBuilder name = new StringBuilder();
+            for(byte b : digest.digest(regex.getBytes(StandardCharsets.UTF_8))) name.append(String.format("%02x", b));
+            return new File(cacheDirectory, name.append(EXTENSION).toString());
+        } catch(NoSuchAlgorithmException e) {
+            // Every Java platform has SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // ----- Internal methods -----
+
+    /**
+     * Write a compiled automaton section
+     *
+     * @param output The output stream
+     * @param compiled The compiled automaton
+     * @throws IOException If the section cannot be written
+     */
+    private static void writeSection(DataOutputStream output, CompiledAutomaton compiled) throws IOException {
+        Alphabet alphabet = compiled.getAlphabet();
+        output.writeInt(compiled.getStateNumber());
+        output.writeInt(compiled.getAlphabetSize());
+        output.writeInt(compiled.getInitState());
+        output.writeInt(compiled.getFirstAcceptState());
+        for(int cls : alphabet.getClassMap()) output.writeInt(cls);
+        for(int cls = 0 ; cls < compiled.getAlphabetSize() ; cls++) output.writeInt(alphabet.getRepresentative(cls));
+        for(int target : compiled.getTable()) output.writeInt(target);
+    }
+
+    /**
+     * Read a compiled automaton section, the transition table stays in the mapped buffer.
+     * Every value is checked here, so a corrupted file cannot fail later during a search
+     *
+     * @param ints The int view of the mapped file, at the section start
+     * @param byteSection If the section is the byte automaton, whose classes are all represented by a byte
+     * @return The mapped table
+     * @throws AutomatonException If the section is not valid
+     */
+    private static MappedAutomaton.MappedTable readSection(IntBuffer ints, boolean byteSection) throws AutomatonException {
+        // Read the sizes
+        int stateNumber = ints.get();
+        int classNumber = ints.get();
+        int initState = ints.get();
+        int firstAcceptState = ints.get();
+        if(stateNumber <= 0 || classNumber <= 0 || initState < 0 || initState >= stateNumber
+                || firstAcceptState < 0 || firstAcceptState > stateNumber) {
+            throw new AutomatonException("The automaton section is not valid");
+        }
+        long tableSize = (long) stateNumber * classNumber;
+        if(CLASS_MAP_SIZE + classNumber + tableSize > ints.remaining()) {
+            throw new AutomatonException("The automaton section is truncated");
+        }
+
+        // Read the alphabet
+        int[] classMap = new int[CLASS_MAP_SIZE];
+        int[] representatives = new int[classNumber];
+        ints.get(classMap);
+        ints.get(representatives);
+        for(int cls : classMap) {
+            if(cls < 0 || cls >= classNumber) throw new AutomatonException("The automaton section is not valid");
+        }
+        if(!areValidRepresentatives(classMap, representatives, byteSection)) {
+            throw new AutomatonException("The automaton section is not valid");
+        }
+
+        // Slice the transition table and check its targets
+        IntBuffer table = ints.slice();
+        table.limit((int) tableSize);
+        ints.position(ints.position() + (int) tableSize);
+        for(int i = 0 ; i < tableSize ; i++) {
+            int target = table.get(i);
+            if(target < 0 || target >= stateNumber) throw new AutomatonException("The automaton section is not valid");
+        }
+
+        // Return the section
+        return new MappedAutomaton.MappedTable(new Alphabet(classMap, representatives), initState, firstAcceptState, table);
+    }
+
+    /**
+     * Get if the class representatives can build an alphabet : the other class of a character automaton has
+     * no representative, each Latin-1 representative is in its class, and the wide representatives come last,
+     * strictly increasing, since the wide characters are found by a binary search
+     *
+     * @param classMap The class of the 256 first characters
+     * @param representatives The representative of each class
+     * @param byteSection If the section is the byte automaton, without wide representatives
+     * @return True if the representatives are valid
+     */
+    private static boolean areValidRepresentatives(int[] classMap, int[] representatives, boolean byteSection) {
+        int previous = NO_REPRESENTATIVE;
+        for(int cls = 0 ; cls < representatives.length ; cls++) {
+            int representative = representatives[cls];
+            if(cls == OTHER_CLASS && !byteSection) {
+                if(representative != NO_REPRESENTATIVE) return false;
+            } else if(representative >= 0 && representative < CLASS_MAP_SIZE) {
+                if(classMap[representative] != cls || previous >= CLASS_MAP_SIZE) return false;
+            } else if(byteSection || representative <= previous || representative < CLASS_MAP_SIZE || representative > Character.MAX_VALUE) {
+                return false;
+            }
+            previous = Math.max(previous, representative);
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,359 @@
+package egrep.main.automaton;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static egrep.main.automaton.Automaton.*;
+
+/**
+ * This class represents the compiled form of a deterministic automaton
+ * States are numbered from 0 to n-1 and the transitions are stored in a flat int array
+ * indexed by (state * class number + character class), see the Alphabet class
+ *
+ * The state 0 is always the dead state (no way to reach an accepting state), and accepting states
+ * are numbered last so a single comparison tells if a state is accepting
+ *
+ * @author Emilie SIAU
+ * @author Hugo GUERRIER
+ */
+public class CompiledAutomaton {
+
+    // ----- Macros -----
+
+    public static final int DEAD_STATE = 0;
+
+    // ----- Attributes -----
+
+    private final int stateNumber;
+    private final Alphabet alphabet;
+    private final int alphabetSize;
+    private final int initState;
+    private final int firstAcceptState;
+    private final int[] table;
+
+    // ----- Constructors -----
+
+    /**
+     * Create a new compiled automaton from its raw components
+     *
+     * @param stateNumber The number of states (dead state included)
+     * @param alphabet The alphabet classes, one column of the transition table per class
+     * @param initState The initial state
+     * @param firstAcceptState The first accepting state, every state after it is accepting too
+     * @param table The flat transition table
+     */
+    public CompiledAutomaton(int stateNumber, Alphabet alphabet, int initState, int firstAcceptState, int[] table) {
+        this.stateNumber = stateNumber;
+        this.alphabet = alphabet;
+        this.alphabetSize = alphabet.getClassNumber();
+        this.initState = initState;
+        this.firstAcceptState = firstAcceptState;
+        this.table = table;
+    }
+
+    // ----- Getters -----
+
+    public int getStateNumber() {
+        return stateNumber;
+    }
+
+    public Alphabet getAlphabet() {
+        return alphabet;
+    }
+
+    public int getAlphabetSize() {
+        return alphabetSize;
+    }
+
+    public int getInitState() {
+        return initState;
+    }
+
+    public int getFirstAcceptState() {
+        return firstAcceptState;
+    }
+
+    public int[] getTable() {
+        return table;
+    }
+
+    // ----- Override methods -----
+
+    @Override
+    public String toString() {
+        // Prepare the string builder
+        StringBuilder res = new StringBuilder();
+
+        // For every state, display the non dead transitions
+        for(int state = 0 ; state < stateNumber ; state++) {
+            res.append(state).append(" {");
+            int transCpt = 0;
+            for(int c = 0 ; c < alphabetSize ; c++) {
+                int target = table[state * alphabetSize + c];
+                if(target != DEAD_STATE) {
+                    if(transCpt > 0) res.append(", ");
+                    int representative = alphabet.getRepresentative(c);
+                    if(representative == Alphabet.NO_REPRESENTATIVE) res.append("OTHER");
+                    else res.append((char) representative);
+                    res.append(" -> ").append(target);
+                    transCpt++;
+                }
+            }
+            if(state == initState) res.append(transCpt > 0 ? ", " : "").append("INIT = 1");
+            if(isAccepting(state)) res.append(transCpt > 0 || state == initState ? ", " : "").append("ACCEPT = 1");
+            res.append("}");
+            if(state < stateNumber - 1) res.append('\n');
+        }
+
+        // Return the result
+        return res.toString();
+    }
+
+    // ----- Class methods -----
+
+    /**
+     * Get the next state from a state and an input character
+     *
+     * @param state The current state
+     * @param c The input character
+     * @return The next state, DEAD_STATE if there is no transition
+     */
+    public int next(int state, char c) {
+        return table[state * alphabetSize + alphabet.classOf(c)];
+    }
+
+    /**
+     * Get if a state is accepting
+     *
+     * @param state The state to test
+     * @return True if the state is accepting
+     */
+    public boolean isAccepting(int state) {
+        return state >= firstAcceptState;
+    }
+
+    /**
+     * Create the byte automaton where a line break always leads back to the initial state, so it can run over
+     * many lines at once without a match spanning a line break. The line break gets its own class, the last one
+     *
+     * @return The line automaton
+     */
+    public CompiledAutomaton resetOnLineBreak() {
+        // Move the line break in a new class
+        int lineBreakClass = alphabetSize;
+        int[] classMap = alphabet.getClassMap().clone();
+        classMap['\n'] = lineBreakClass;
+        int[] representatives = new int[alphabetSize + 1];
+        for(int cls = 0 ; cls < alphabetSize ; cls++) representatives[cls] = alphabet.getRepresentative(cls);
+        representatives[lineBreakClass] = '\n';
+
+        // Copy the transitions, the new class leads to the initial state
+        int[] newTable = new int[stateNumber * (alphabetSize + 1)];
+        for(int state = 0 ; state < stateNumber ; state++) {
+            System.arraycopy(table, state * alphabetSize, newTable, state * (alphabetSize + 1), alphabetSize);
+            newTable[state * (alphabetSize + 1) + lineBreakClass] = initState;
+        }
+
+        // Return the result
+        return new CompiledAutomaton(stateNumber, new Alphabet(classMap, representatives), initState, firstAcceptState, newTable);
+    }
+
+    /**
+     * Minimize the automaton with the Hopcroft partition refinement algorithm
+     * The result has the same language with the least possible number of states
+     *
+     * @return The minimal compiled automaton
+     */
+    public CompiledAutomaton minimize() {
+        // Build the inverse transitions for each column : sources of (column, target) are stored
+        // in inverseSources[inverseStart[column * (n + 1) + target] ... inverseStart[column * (n + 1) + target + 1]]
+        int n = stateNumber;
+        int[] inverseStart = new int[alphabetSize * (n + 1) + 1];
+        for(int state = 0 ; state < n ; state++) {
+            for(int c = 0 ; c < alphabetSize ; c++) {
+                inverseStart[c * (n + 1) + table[state * alphabetSize + c] + 1]++;
+            }
+        }
+        for(int i = 1 ; i < inverseStart.length ; i++) inverseStart[i] += inverseStart[i - 1];
+        int[] inverseSources = new int[n * alphabetSize];
+        int[] fill = inverseStart.clone();
+        for(int state = 0 ; state < n ; state++) {
+            for(int c = 0 ; c < alphabetSize ; c++) {
+                inverseSources[fill[c * (n + 1) + table[state * alphabetSize + c]]++] = state;
+            }
+        }
+
+        // Create the refinable partition : the elements of a block b are elements[first[b] ... end[b]]
+        // and the marked ones are elements[first[b] ... mid[b]]
+        int[] elements = new int[n];
+        int[] location = new int[n];
+        int[] blockOf = new int[n];
+        int[] first = new int[n];
+        int[] mid = new int[n];
+        int[] end = new int[n];
+        int blockNumber = 0;
+
+        // The initial partition is made of the non accepting states and the accepting states
+        int pos = 0;
+        for(int accepting = 0 ; accepting < 2 ; accepting++) {
+            int blockStart = pos;
+            for(int state = 0 ; state < n ; state++) {
+                if(isAccepting(state) == (accepting == 1)) {
+                    elements[pos] = state;
+                    location[state] = pos;
+                    blockOf[state] = blockNumber;
+                    pos++;
+                }
+            }
+            if(pos > blockStart) {
+                first[blockNumber] = blockStart;
+                mid[blockNumber] = blockStart;
+                end[blockNumber] = pos;
+                blockNumber++;
+            }
+        }
+
+        // Prepare the waiting list with all the initial blocks
+        boolean[] waiting = new boolean[n];
+        int[] waitingList = new int[n];
+        int waitingSize = 0;
+        for(int b = 0 ; b < blockNumber ; b++) {
+            waiting[b] = true;
+            waitingList[waitingSize++] = b;
+        }
+
+        // Prepare the working arrays
+        int[] splitter = new int[n];
+        int[] touched = new int[n];
+
+        // Refine the partition until there is no more splitter
+        while(waitingSize > 0) {
+            // Get a snapshot of the splitter block
+            int splitterBlock = waitingList[--waitingSize];
+            waiting[splitterBlock] = false;
+            int splitterSize = end[splitterBlock] - first[splitterBlock];
+            System.arraycopy(elements, first[splitterBlock], splitter, 0, splitterSize);
+
+            for(int c = 0 ; c < alphabetSize ; c++) {
+                // Mark all the predecessors of the splitter by the current column
+                int touchedSize = 0;
+                for(int i = 0 ; i < splitterSize ; i++) {
+                    int column = c * (n + 1) + splitter[i];
+                    for(int j = inverseStart[column] ; j < inverseStart[column + 1] ; j++) {
+                        int source = inverseSources[j];
+                        int b = blockOf[source];
+                        int sourcePos = location[source];
+                        if(sourcePos >= mid[b]) {
+                            // Swap the source with the first unmarked element
+                            int swapped = elements[mid[b]];
+                            elements[sourcePos] = swapped;
+                            location[swapped] = sourcePos;
+                            elements[mid[b]] = source;
+                            location[source] = mid[b];
+                            if(mid[b] == first[b]) touched[touchedSize++] = b;
+                            mid[b]++;
+                        }
+                    }
+                }
+
+                // Split the touched blocks
+                for(int t = 0 ; t < touchedSize ; t++) {
+                    int b = touched[t];
+                    if(mid[b] == end[b]) {
+                        // All the block is marked, nothing to split
+                        mid[b] = first[b];
+                    } else {
+                        // The marked part becomes a new block
+                        int newBlock = blockNumber++;
+                        first[newBlock] = first[b];
+                        mid[newBlock] = first[b];
+                        end[newBlock] = mid[b];
+                        first[b] = mid[b];
+                        for(int i = first[newBlock] ; i < end[newBlock] ; i++) blockOf[elements[i]] = newBlock;
+
+                        // Add the new splitter in the waiting list
+                        if(waiting[b] || end[newBlock] - first[newBlock] <= end[b] - first[b]) {
+                            waiting[newBlock] = true;
+                            waitingList[waitingSize++] = newBlock;
+                        } else {
+                            waiting[b] = true;
+                            waitingList[waitingSize++] = b;
+                        }
+                    }
+                }
+            }
+        }
+
+        // Number the new states : the dead state block first, then the non accepting blocks, then the accepting blocks
+        int[] newStateOf = new int[blockNumber];
+        Arrays.fill(newStateOf, -1);
+        newStateOf[blockOf[DEAD_STATE]] = DEAD_STATE;
+        int nextState = DEAD_STATE + 1;
+        int firstAccept = nextState;
+        for(int accepting = 0 ; accepting < 2 ; accepting++) {
+            if(accepting == 1) firstAccept = nextState;
+            for(int b = 0 ; b < blockNumber ; b++) {
+                if(newStateOf[b] == -1 && isAccepting(elements[first[b]]) == (accepting == 1)) newStateOf[b] = nextState++;
+            }
+        }
+
+        // Fill the new transition table from a representative of each block
+        int[] newTable = new int[nextState * alphabetSize];
+        for(int b = 0 ; b < blockNumber ; b++) {
+            int representative = elements[first[b]];
+            int rowStart = newStateOf[b] * alphabetSize;
+            for(int c = 0 ; c < alphabetSize ; c++) {
+                newTable[rowStart + c] = newStateOf[blockOf[table[representative * alphabetSize + c]]];
+            }
+        }
+
+        // Return the minimal automaton
+        return new CompiledAutomaton(nextState, alphabet, newStateOf[blockOf[initState]], firstAccept, newTable);
+    }
+
+    /**
+     * Compile a deterministic automaton map into a flat transition table
+     *
+     * @param dfa The deterministic automaton map
+     * @param dfaInitNode The initial node of the deterministic automaton
+     * @param alphabet The alphabet classes of the automaton
+     * @return The compiled automaton
+     */
+    public static CompiledAutomaton compile(Map<NodeId, ArrayList<List<NodeId>>> dfa, NodeId dfaInitNode, Alphabet alphabet) {
+        // Number the states : dead state first, then non accepting states, then accepting states
+        Map<NodeId, Integer> stateIds = new HashMap<>();
+        int nextState = DEAD_STATE + 1;
+        for(Map.Entry<NodeId, ArrayList<List<NodeId>>> entry : dfa.entrySet()) {
+            if(entry.getValue().get(ACCEPT_POS) == null) stateIds.put(entry.getKey(), nextState++);
+        }
+        int firstAcceptState = nextState;
+        for(Map.Entry<NodeId, ArrayList<List<NodeId>>> entry : dfa.entrySet()) {
+            if(entry.getValue().get(ACCEPT_POS) != null) stateIds.put(entry.getKey(), nextState++);
+        }
+
+        // Fill the transition table with the representative of each class, the dead state row stays full of DEAD_STATE
+        int alphabetSize = alphabet.getClassNumber();
+        int[] table = new int[nextState * alphabetSize];
+        for(Map.Entry<NodeId, ArrayList<List<NodeId>>> entry : dfa.entrySet()) {
+            int rowStart = stateIds.get(entry.getKey()) * alphabetSize;
+            ArrayList<List<NodeId>> transitions = entry.getValue();
+
+            // Get the dot target which is used for all characters without explicit transition
+            List<NodeId> dotTargets = transitions.get(DOT_POS);
+            int dotState = dotTargets != null ? stateIds.get(dotTargets.get(0)) : DEAD_STATE;
+
+            for(int cls = 0 ; cls < alphabetSize ; cls++) {
+                int representative = alphabet.getRepresentative(cls);
+                List<NodeId> targets = representative != Alphabet.NO_REPRESENTATIVE ? transitions.get(alphabet.symbolOf(representative)) : null;
+                table[rowStart + cls] = targets != null ? stateIds.get(targets.get(0)) : dotState;
+            }
+        }
+
+        // Return the compiled automaton
+        return new CompiledAutomaton(nextState, alphabet, stateIds.get(dfaInitNode), firstAcceptState, table);
+    }
+
+}
@@ -0,0 +1,374 @@
+package egrep.main.automaton;
+
+import egrep.main.exceptions.AutomatonException;
+import egrep.main.parser.RegExTree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static egrep.main.automaton.Automaton.*;
+
+/**
+ * This class represents a lazy deterministic automaton : it keeps the NDFA and only builds
+ * the DFA states when the input reaches them. The built states live in a cache bounded in memory,
+ * which is flushed when it is full
+ *
+ * @author Emilie SIAU
+ * @author Hugo GUERRIER
+ */
+public class LazyAutomaton {
+
+    // ----- Macros -----
+
+    public static final long DEFAULT_CACHE_SIZE = 2 * 1024 * 1024;
+    public static final int UNKNOWN_STATE = -1;
+
+    private static final int NO_STEP = -1;
+    private static final int DOT_STEP = -2;
+    private static final int STATE_OVERHEAD = 64;
+
+    // ----- Attributes -----
+
+    // --- The NDFA
+    private final Alphabet alphabet;
+    private final int alphabetSize;
+    private final int[] stepClass;
+    private final int[] stepTarget;
+    private final int[][] epsilon;
+    private final int ndfaInit;
+    private final int ndfaFinal;
+
+    // --- The DFA states cache
+    private final long cacheSize;
+    private final Map<StateKey, Integer> stateIds;
+    private int[][] stateSets;
+    private int[] transitions;
+    private boolean[] accepting;
+    private int stateNumber;
+    private long usedMemory;
+
+    // --- The statistics
+    private long hits;
+    private long misses;
+    private long flushes;
+
+    // --- Utils attributes
+    private final int[] closureStack;
+    private final int[] visitedMarks;
+    private int visitedMark;
+
+    // ----- Constructors -----
+
+    /**
+     * Create a new lazy automaton with the default cache size
+     *
+     * @param tree The regex tree
+     * @param unanchored If the automaton should be unanchored
+     * @throws AutomatonException If there is an exception during the NDFA creation
+     */
+    public LazyAutomaton(RegExTree tree, boolean unanchored) throws AutomatonException {
+        this(tree, unanchored, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Create a new lazy automaton for a regex tree
+     *
+     * @param tree The regex tree
+     * @param unanchored If the automaton should be unanchored
+     * @param cacheSize The maximal memory in bytes used by the DFA states cache
+     * @throws AutomatonException If there is an exception during the NDFA creation
+     */
+    public LazyAutomaton(RegExTree tree, boolean unanchored, long cacheSize) throws AutomatonException {
+        // Create the NDFA
+        Automaton ndfa = new Automaton(tree, false, unanchored);
+        ndfa.createNDFA();
+        alphabet = ndfa.getAlphabet();
+        alphabetSize = alphabet.getClassNumber();
+
+        // Convert the NDFA map into arrays indexed by the node keys
+        Map<NodeId, ArrayList<List<NodeId>>> map = ndfa.getAutomaton();
+        int nodeNumber = 0;
+        for(NodeId node : map.keySet()) nodeNumber = Math.max(nodeNumber, keyOf(node) + 1);
+        stepClass = new int[nodeNumber];
+        stepTarget = new int[nodeNumber];
+        epsilon = new int[nodeNumber][];
+        Arrays.fill(stepClass, NO_STEP);
+        for(Map.Entry<NodeId, ArrayList<List<NodeId>>> entry : map.entrySet()) {
+            int node = keyOf(entry.getKey());
+            ArrayList<List<NodeId>> nodeTransitions = entry.getValue();
+
+            // A Thompson node has at most one character or dot transition
+            for(int cls = 0 ; cls < alphabetSize ; cls++) {
+                int representative = alphabet.getRepresentative(cls);
+                int symbol = representative != Alphabet.NO_REPRESENTATIVE ? alphabet.symbolOf(representative) : NO_STEP;
+                if(symbol != NO_STEP && nodeTransitions.get(symbol) != null) {
+                    stepClass[node] = cls;
+                    stepTarget[node] = keyOf(nodeTransitions.get(symbol).get(0));
+                }
+            }
+            if(nodeTransitions.get(DOT_POS) != null) {
+                stepClass[node] = DOT_STEP;
+                stepTarget[node] = keyOf(nodeTransitions.get(DOT_POS).get(0));
+            }
+
+            // Get the epsilon transitions
+            List<NodeId> epsilonTargets = nodeTransitions.get(EPSILON_POS);
+            epsilon[node] = new int[epsilonTargets != null ? epsilonTargets.size() : 0];
+            for(int i = 0 ; i < epsilon[node].length ; i++) epsilon[node][i] = keyOf(epsilonTargets.get(i));
+        }
+        ndfaInit = keyOf(ndfa.getInitNode());
+        ndfaFinal = keyOf(ndfa.getFinalNode());
+
+        // Prepare the cache
+        this.cacheSize = cacheSize;
+        stateIds = new HashMap<>();
+        closureStack = new int[nodeNumber];
+        visitedMarks = new int[nodeNumber];
+        visitedMark = 0;
+        hits = 0;
+        misses = 0;
+        flushes = 0;
+        clearCache();
+    }
+
+    // ----- Getters -----
+
+    public Alphabet getAlphabet() {
+        return alphabet;
+    }
+
+    public int getAlphabetSize() {
+        return alphabetSize;
+    }
+
+    public int getInitState() {
+        return 0;
+    }
+
+    public int getStateNumber() {
+        return stateNumber;
+    }
+
+    public int[] getTransitions() {
+        return transitions;
+    }
+
+    public boolean[] getAccepting() {
+        return accepting;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getFlushes() {
+        return flushes;
+    }
+
+    // ----- Class methods -----
+
+    /**
+     * Count transitions that were found in the cache. It is called by the matching loops
+     * once per input, to keep the per character work minimal
+     *
+     * @param number The number of transitions taken from the cache
+     */
+    public void addHits(long number) {
+        hits += number;
+    }
+
+    /**
+     * Compute a transition missing from the cache and store it. If the cache is full, it is flushed
+     * first so every previously returned state is invalidated, except the returned one and the initial one.
+     * The transitions and accepting arrays may be replaced, callers must get them again after a call
+     *
+     * @param state The source state
+     * @param cls The input character class
+     * @return The target state
+     */
+    public int computeTransition(int state, int cls) {
+        misses++;
+
+        // Get the NDFA targets of the source state for the class
+        int[] sourceSet = stateSets[state];
+        int[] targets = new int[sourceSet.length];
+        int targetNumber = 0;
+        for(int node : sourceSet) {
+            if(stepClass[node] == cls || stepClass[node] == DOT_STEP) targets[targetNumber++] = stepTarget[node];
+        }
+
+        // Get the target state
+        int[] targetSet = getEpsilonClosure(targets, targetNumber);
+        StateKey key = new StateKey(targetSet);
+        Integer target = stateIds.get(key);
+        if(target == null) {
+            // Flush the cache if there is no more room for the state
+            if(usedMemory + stateMemory(targetSet) > cacheSize && stateNumber > 1) {
+                flush();
+                target = stateIds.get(key);
+                return target != null ? target : addState(targetSet, key);
+            }
+            target = addState(targetSet, key);
+        }
+
+        // Store the transition and return the target
+        transitions[state * alphabetSize + cls] = target;
+        return target;
+    }
+
+    /**
+     * Get if a state is dead : it has no NDFA node, so no input leads it to an accepting state
+     *
+     * @param state The state
+     * @return True if the state is dead
+     */
+    public boolean isDead(int state) {
+        return stateSets[state].length == 0;
+    }
+
+    /**
+     * Flush the cache, only the initial state is kept
+     */
+    public void flush() {
+        flushes++;
+        clearCache();
+    }
+
+    // ----- Internal methods -----
+
+    /**
+     * Clear the cache and add the initial state back to it
+     */
+    private void clearCache() {
+        stateIds.clear();
+        stateSets = new int[16][];
+        transitions = new int[16 * alphabetSize];
+        accepting = new boolean[16];
+        stateNumber = 0;
+        usedMemory = 0;
+        Arrays.fill(transitions, UNKNOWN_STATE);
+        int[] initSet = getEpsilonClosure(new int[]{ndfaInit}, 1);
+        addState(initSet, new StateKey(initSet));
+    }
+
+    /**
+     * Get the node key of a NDFA node id
+     *
+     * @param node The node id
+     * @return Its key
+     */
+    private static int keyOf(NodeId node) {
+        return node.getFirstKey();
+    }
+
+    /**
+     * Get the estimated memory used by a DFA state in the cache
+     *
+     * @param set The NDFA nodes of the state
+     * @return The memory in bytes
+     */
+    private long stateMemory(int[] set) {
+        return STATE_OVERHEAD + 4L * set.length + 4L * alphabetSize;
+    }
+
+    /**
+     * Add a new state to the cache
+     *
+     * @param set The NDFA nodes of the state
+     * @param key The key of the state in the id map
+     * @return The new state
+     */
+    private int addState(int[] set, StateKey key) {
+        // Grow the arrays if needed
+        if(stateNumber == stateSets.length) {
+            int capacity = stateSets.length * 2;
+            stateSets = Arrays.copyOf(stateSets, capacity);
+            accepting = Arrays.copyOf(accepting, capacity);
+            int oldSize = transitions.length;
+            transitions = Arrays.copyOf(transitions, capacity * alphabetSize);
+            Arrays.fill(transitions, oldSize, transitions.length, UNKNOWN_STATE);
+        }
+
+        // Add the state
+        int state = stateNumber++;
+        stateSets[state] = set;
+        accepting[state] = Arrays.binarySearch(set, ndfaFinal) >= 0;
+        stateIds.put(key, state);
+        usedMemory += stateMemory(set);
+        return state;
+    }
+
+    /**
+     * Get the sorted epsilon closure of NDFA nodes
+     *
+     * @param nodes The nodes array
+     * @param nodeNumber The number of nodes in the array
+     * @return The sorted epsilon closure
+     */
+    private int[] getEpsilonClosure(int[] nodes, int nodeNumber) {
+        // Use a new mark to avoid clearing the visited array
+        visitedMark++;
+        int stackSize = 0;
+        int resSize = 0;
+        int[] res = new int[visitedMarks.length];
+
+        for(int i = 0 ; i < nodeNumber ; i++) {
+            if(visitedMarks[nodes[i]] != visitedMark) {
+                visitedMarks[nodes[i]] = visitedMark;
+                closureStack[stackSize++] = nodes[i];
+            }
+        }
+
+        // Process the closure
+        while(stackSize > 0) {
+            int node = closureStack[--stackSize];
+            res[resSize++] = node;
+            for(int target : epsilon[node]) {
+                if(visitedMarks[target] != visitedMark) {
+                    visitedMarks[target] = visitedMark;
+                    closureStack[stackSize++] = target;
+                }
+            }
+        }
+
+        // Return the sorted result
+        res = Arrays.copyOf(res, resSize);
+        Arrays.sort(res);
+        return res;
+    }
+
+    // ----- Internal classes -----
+
+    /**
+     * This class is the key of a DFA state in the cache : its sorted NDFA nodes
+     */
+    private static class StateKey {
+
+        private final int[] set;
+        private final int hash;
+
+        StateKey(int[] set) {
+            this.set = set;
+            this.hash = Arrays.hashCode(set);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof StateKey && Arrays.equals(set, ((StateKey) o).set);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+    }
+
+}
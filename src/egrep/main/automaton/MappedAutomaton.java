@@ -0,0 +1,177 @@
+package egrep.main.automaton;
+
+import java.nio.IntBuffer;
+
+import static egrep.main.automaton.Automaton.CHAR_NUMBER;
+
+/**
+ * This class represents an unanchored automaton loaded from a file by the AutomatonFile class
+ * The transition tables are read directly from the memory mapped file. The byte automaton goes back to its
+ * initial state at each line break, so it can search a buffer of many lines with its prefilter
+ *
+ * @author Emilie SIAU
+ * @author Hugo GUERRIER
+ */
+public class MappedAutomaton {
+
+    // ----- Attributes -----
+
+    private final MappedTable chars;
+    private final MappedTable bytes;
+    private final Prefilter prefilter;
+
+    // ----- Constructors -----
+
+    /**
+     * Create a new mapped automaton from its tables
+     *
+     * @param chars The character automaton table
+     * @param bytes The UTF-8 byte automaton table, a line break leading back to the initial state
+     */
+    public MappedAutomaton(MappedTable chars, MappedTable bytes) {
+        this.chars = chars;
+        this.bytes = bytes;
+
+        // Create the prefilter from the transitions of the initial state
+        if(bytes.initState < bytes.firstAcceptState) {
+            int alphabetSize = bytes.alphabet.getClassNumber();
+            int[] initTransitions = new int[alphabetSize];
+            for(int cls = 0 ; cls < alphabetSize ; cls++) initTransitions[cls] = bytes.table.get(bytes.initState * alphabetSize + cls);
+            prefilter = Prefilter.create(bytes.alphabet.getClassMap(), bytes.initState, initTransitions);
+        } else {
+            prefilter = null;
+        }
+    }
+
+    // ----- Getters -----
+
+    public Prefilter getPrefilter() {
+        return prefilter;
+    }
+
+    // ----- Class methods -----
+
+    /**
+     * Tell if the input contains a match in a single pass
+     *
+     * @param input The input string
+     * @return true if the input contains a match, false otherwise
+     */
+    public boolean isMatching(String input) {
+        // Cache the table components in local variables
+        IntBuffer table = chars.table;
+        Alphabet alphabet = chars.alphabet;
+        int[] classMap = alphabet.getClassMap();
+        int alphabetSize = alphabet.getClassNumber();
+        int firstAcceptState = chars.firstAcceptState;
+        int state = chars.initState;
+
+        // If the initial state is accepting, every input is matching
+        if(state >= firstAcceptState) return true;
+
+        // Input all the characters until an accepting state is reached
+        int length = input.length();
+        for(int i = 0 ; i < length ; i++) {
+            char c = input.charAt(i);
+            state = table.get(state * alphabetSize + (c < CHAR_NUMBER ? classMap[c] : alphabet.classOfWide(c)));
+            if(state >= firstAcceptState) return true;
+        }
+
+        // The default result, if the input cannot match
+        return false;
+    }
+
+    /**
+     * Tell if the UTF-8 input contains a match in a single pass over its bytes
+     *
+     * @param input The input buffer
+     * @param start The start of the input in the buffer
+     * @param end The end of the input in the buffer (excluded)
+     * @return true if the input contains a match, false otherwise
+     */
+    public boolean isMatching(byte[] input, int start, int end) {
+        // Cache the table components in local variables
+        IntBuffer table = bytes.table;
+        int[] classMap = bytes.alphabet.getClassMap();
+        int alphabetSize = bytes.alphabet.getClassNumber();
+        int firstAcceptState = bytes.firstAcceptState;
+        int state = bytes.initState;
+
+        // If the initial state is accepting, every input is matching
+        if(state >= firstAcceptState) return true;
+
+        // Input all the bytes until an accepting state is reached
+        for(int i = start ; i < end ; i++) {
+            state = table.get(state * alphabetSize + classMap[input[i] & 0xFF]);
+            if(state >= firstAcceptState) return true;
+        }
+
+        // The default result, if the input cannot match
+        return false;
+    }
+
+    /**
+     * Find the first match in a part of an UTF-8 buffer holding many lines, in a single pass over the lines.
+     * The prefilter jumps to the next candidate byte each time the automaton is back in its initial state
+     *
+     * @param input The input buffer
+     * @param start The start of the input in the buffer, at a line start
+     * @param end The end of the input in the buffer (excluded)
+     * @return The position of the byte where the automaton accepts, -1 if no line matches
+     */
+    public int find(byte[] input, int start, int end) {
+        // Cache the table components in local variables
+        IntBuffer table = bytes.table;
+        int[] classMap = bytes.alphabet.getClassMap();
+        int alphabetSize = bytes.alphabet.getClassNumber();
+        int firstAcceptState = bytes.firstAcceptState;
+        int initState = bytes.initState;
+        int state = initState;
+
+        // If the initial state is accepting, every input is matching
+        if(state >= firstAcceptState) return start;
+
+        // Without prefilter, input all the bytes until an accepting state is reached
+        if(prefilter == null) {
+            for(int i = start ; i < end ; i++) {
+                state = table.get(state * alphabetSize + classMap[input[i] & 0xFF]);
+                if(state >= firstAcceptState) return i;
+            }
+            return -1;
+        }
+
+        // With the prefilter, only run the automaton from the candidate bytes
+        int i = start;
+        while(true) {
+            i = prefilter.next(input, i, end);
+            if(i == end) return -1;
+            do {
+                state = table.get(state * alphabetSize + classMap[input[i++] & 0xFF]);
+                if(state >= firstAcceptState) return i - 1;
+            } while(state != initState && i < end);
+            if(state != initState) return -1;
+        }
+    }
+
+    // ----- Internal classes -----
+
+    /**
+     * This class holds a compiled automaton whose transition table is in a mapped buffer
+     */
+    public static class MappedTable {
+
+        private final Alphabet alphabet;
+        private final int initState;
+        private final int firstAcceptState;
+        private final IntBuffer table;
+
+        public MappedTable(Alphabet alphabet, int initState, int firstAcceptState, IntBuffer table) {
+            this.alphabet = alphabet;
+            this.initState = initState;
+            this.firstAcceptState = firstAcceptState;
+            this.table = table;
+        }
+
+    }
+
+}
@@ -1,11 +1,11 @@
 package egrep.main.automaton;
 
+import java.util.BitSet;
 import java.util.Collection;
-import java.util.HashSet;
-import java.util.Set;
 
 /**
  * This class represent a node id for the regex automaton
+ * The keys are stored in a bit set, so node ids can be compared and hashed quickly
  *
  * @author Emilie SIAU
  * @author Hugo GUERRIER
@@ -14,28 +14,37 @@ public class NodeId {
 
     // ----- Attributes -----
 
-    private final Set<Integer> keys;
+    private final BitSet keys;
 
     // ----- Constructors -----
 
     public NodeId() {
-        this.keys = new HashSet<>();
+        this.keys = new BitSet();
     }
 
     // ----- Getters -----
 
-    public Set<Integer> getKeys() {
+    public BitSet getKeys() {
         return keys;
     }
 
+    /**
+     * Get the smallest key of the node id
+     *
+     * @return The first key, -1 if the node id is empty
+     */
+    public int getFirstKey() {
+        return keys.nextSetBit(0);
+    }
+
     // ----- Setters -----
 
     public void addKey(int key) {
-        keys.add(key);
+        keys.set(key);
     }
 
     public void removeKey(int key) {
-        keys.remove(key);
+        keys.clear(key);
     }
 
     // ----- Override methods -----
@@ -48,6 +57,11 @@ public class NodeId {
         return keys.equals(node.keys);
     }
 
+    @Override
+    public int hashCode() {
+        return keys.hashCode();
+    }
+
     @Override
     public String toString() {
         // Prepare the working vars
@@ -55,7 +69,7 @@ public class NodeId {
         StringBuilder res = new StringBuilder();
 
         // For each element, add it to the result
-        for(Integer id : keys) {
+        for(int id = keys.nextSetBit(0) ; id >= 0 ; id = keys.nextSetBit(id + 1)) {
             if(cpt > 0) res.append(", ");
             res.append(id);
             cpt++;
@@ -79,7 +93,9 @@ public class NodeId {
      * @return True if the node id is contained
      */
     public boolean contains(NodeId id) {
-        return keys.containsAll(id.keys);
+        BitSet missing = (BitSet) id.keys.clone();
+        missing.andNot(keys);
+        return missing.isEmpty();
     }
 
     /**
@@ -94,7 +110,7 @@ public class NodeId {
 
         // For each node id, add all keys to the result
         for(NodeId id : col) {
-            res.keys.addAll(id.keys);
+            res.keys.or(id.keys);
         }
 
         // Return the result
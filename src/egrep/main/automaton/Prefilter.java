@@ -0,0 +1,150 @@
+package egrep.main.automaton;
+
+import egrep.main.utils.ByteScanner;
+
+/**
+ * This class finds the candidate positions of a match before running a byte automaton (see the Utf8Compiler class)
+ * The candidates are the bytes leaving the initial state of the unanchored automaton : from the initial state,
+ * every other byte loops back to it, so the automaton can jump directly to the next candidate byte.
+ * A prefilter is only worth it when the candidate bytes are rare, following a built-in byte frequency table
+ *
+ * @author Emilie SIAU
+ * @author Hugo GUERRIER
+ */
+public class Prefilter {
+
+    // ----- Macros -----
+
+    public static final int BYTE_NUMBER = 256;
+    public static final int MAX_CANDIDATE_FREQUENCY = 250; // The candidates must be less than 25% of a text
+
+    // The approximate frequency of each byte in a text, per thousand bytes
+    private static final int[] BYTE_FREQUENCIES = new int[BYTE_NUMBER];
+    private static final String LETTERS = "abcdefghijklmnopqrstuvwxyz";
+    private static final int[] LETTER_FREQUENCIES = {
+            64, 12, 22, 34, 100, 18, 16, 48, 56, 1, 6, 32, 20, 54, 60, 15, 1, 48, 50, 72, 22, 8, 19, 1, 16, 1
+    };
+
+    static {
+        for(int b = 0 ; b < BYTE_NUMBER ; b++) BYTE_FREQUENCIES[b] = b < 0x80 ? 1 : 2;
+        for(int i = 0 ; i < LETTERS.length() ; i++) {
+            BYTE_FREQUENCIES[LETTERS.charAt(i)] = LETTER_FREQUENCIES[i];
+            BYTE_FREQUENCIES[Character.toUpperCase(LETTERS.charAt(i))] = Math.max(1, LETTER_FREQUENCIES[i] / 8);
+        }
+        for(char c = '0' ; c <= '9' ; c++) BYTE_FREQUENCIES[c] = 4;
+        BYTE_FREQUENCIES[' '] = 160;
+        BYTE_FREQUENCIES[','] = 10;
+        BYTE_FREQUENCIES['.'] = 10;
+    }
+
+    // ----- Attributes -----
+
+    private final byte[] candidates;
+    private final boolean[] candidateTable;
+    private final ByteScanner scanner;
+
+    // ----- Constructors -----
+
+    /**
+     * Create a new prefilter
+     *
+     * @param candidates The candidate bytes
+     */
+    public Prefilter(byte[] candidates) {
+        this.candidates = candidates;
+        candidateTable = new boolean[BYTE_NUMBER];
+        for(byte b : candidates) candidateTable[b & 0xFF] = true;
+        scanner = ByteScanner.getInstance();
+    }
+
+    // ----- Getters -----
+
+    public byte[] getCandidates() {
+        return candidates;
+    }
+
+    /**
+     * Get the approximate frequency of a byte in a text
+     *
+     * @param b The byte value, from 0 to 255
+     * @return The frequency per thousand bytes
+     */
+    public static int getFrequency(int b) {
+        return BYTE_FREQUENCIES[b];
+    }
+
+    // ----- Class methods -----
+
+    /**
+     * Create the prefilter of an unanchored byte automaton, if its candidate bytes are rare enough
+     *
+     * @param compiled The unanchored byte automaton
+     * @return The prefilter, null if it is not worth it
+     */
+    public static Prefilter create(CompiledAutomaton compiled) {
+        // Every input matches if the initial state is accepting
+        int initState = compiled.getInitState();
+        if(compiled.isAccepting(initState)) return null;
+
+        // Get the transitions of the initial state
+        int alphabetSize = compiled.getAlphabetSize();
+        int[] initTransitions = new int[alphabetSize];
+        System.arraycopy(compiled.getTable(), initState * alphabetSize, initTransitions, 0, alphabetSize);
+        return create(compiled.getAlphabet().getClassMap(), initState, initTransitions);
+    }
+
+    /**
+     * Create the prefilter of an unanchored byte automaton from the transitions of its initial state,
+     * if its candidate bytes are rare enough
+     *
+     * @param classMap The class of each byte
+     * @param initState The initial state, not accepting
+     * @param initTransitions The target of the initial state for each class
+     * @return The prefilter, null if it is not worth it
+     */
+    public static Prefilter create(int[] classMap, int initState, int[] initTransitions) {
+        // Get the bytes leaving the initial state and their total frequency
+        byte[] candidates = new byte[BYTE_NUMBER];
+        int candidateNumber = 0;
+        int frequency = 0;
+        for(int b = 0 ; b < BYTE_NUMBER ; b++) {
+            if(initTransitions[classMap[b]] != initState) {
+                candidates[candidateNumber++] = (byte) b;
+                frequency += BYTE_FREQUENCIES[b];
+            }
+        }
+
+        // Return the prefilter if the candidates are rare
+        if(frequency > MAX_CANDIDATE_FREQUENCY) return null;
+        byte[] res = new byte[candidateNumber];
+        System.arraycopy(candidates, 0, res, 0, candidateNumber);
+        return new Prefilter(res);
+    }
+
+    /**
+     * Get the position of the next candidate byte
+     *
+     * @param input The input buffer
+     * @param from The position to start from
+     * @param end The end of the input in the buffer (excluded)
+     * @return The position of the next candidate, or the end if there is none
+     */
+    public int next(byte[] input, int from, int end) {
+        switch (candidates.length) {
+
+            case 0:
+                return end;
+
+            case 1:
+                return scanner.indexOf(input, from, end, candidates[0]);
+
+            case 2:
+                return scanner.indexOfEither(input, from, end, candidates[0], candidates[1]);
+
+            default:
+                return scanner.indexOfAny(input, from, end, candidates, candidateTable);
+
+        }
+    }
+
+}
@@ -0,0 +1,197 @@
+package egrep.main.automaton;
+
+import egrep.main.exceptions.AutomatonException;
+
+import java.util.*;
+
+/**
+ * This class represents the union of several unanchored byte automata (see the Utf8Compiler class), searched in one pass
+ * A union state is the tuple of the component states, where a component that already matched stays in a special
+ * matched state. So each union state carries the set of the pattern ids that matched since the input start
+ *
+ * @author Emilie SIAU
+ * @author Hugo GUERRIER
+ */
+public class UnionAutomaton {
+
+    // ----- Macros -----
+
+    public static final int INIT_STATE = 0;
+
+    private static final int BYTE_NUMBER = 256;
+    private static final int MATCHED = -1;
+
+    // ----- Attributes -----
+
+    private final int[] classMap;
+    private final int classNumber;
+    private final int[] table;
+    private final int[][] matchedPatterns;
+    private final boolean[] finished;
+
+    // ----- Constructors -----
+
+    /**
+     * Create the union of byte automata
+     *
+     * @param components The unanchored byte automata
+     * @param patternIds The pattern id of each component
+     * @param stateLimit The maximal number of union states
+     * @throws AutomatonException If the union has more states than the state limit
+     */
+    public UnionAutomaton(CompiledAutomaton[] components, int[] patternIds, int stateLimit) throws AutomatonException {
+        // Number the bytes by the tuple of their component classes
+        classMap = new int[BYTE_NUMBER];
+        Map<List<Integer>, Integer> classInstances = new HashMap<>();
+        List<int[]> componentClasses = new ArrayList<>();
+        for(int b = 0 ; b < BYTE_NUMBER ; b++) {
+            List<Integer> signature = new ArrayList<>(components.length);
+            for(CompiledAutomaton component : components) signature.add(component.getAlphabet().getClassMap()[b]);
+            Integer cls = classInstances.get(signature);
+            if(cls == null) {
+                cls = classInstances.size();
+                classInstances.put(signature, cls);
+                componentClasses.add(signature.stream().mapToInt(Integer::intValue).toArray());
+            }
+            classMap[b] = cls;
+        }
+        classNumber = classInstances.size();
+
+        // Explore the reachable union states from the initial tuple
+        int[] initTuple = new int[components.length];
+        for(int i = 0 ; i < components.length ; i++) initTuple[i] = step(components[i], components[i].getInitState());
+        Map<StateKey, Integer> stateInstances = new HashMap<>();
+        List<int[]> tuples = new ArrayList<>();
+        stateInstances.put(new StateKey(initTuple), INIT_STATE);
+        tuples.add(initTuple);
+
+        int[] transitions = new int[classNumber * 16];
+        for(int state = 0 ; state < tuples.size() ; state++) {
+            int[] tuple = tuples.get(state);
+            for(int cls = 0 ; cls < classNumber ; cls++) {
+                // Compute the target tuple
+                int[] classes = componentClasses.get(cls);
+                int[] target = new int[components.length];
+                for(int i = 0 ; i < components.length ; i++) {
+                    if(tuple[i] == MATCHED) {
+                        target[i] = MATCHED;
+                    } else {
+                        CompiledAutomaton component = components[i];
+                        target[i] = step(component, component.getTable()[tuple[i] * component.getAlphabetSize() + classes[i]]);
+                    }
+                }
+
+                // Get the target state, or create it
+                StateKey key = new StateKey(target);
+                Integer targetState = stateInstances.get(key);
+                if(targetState == null) {
+                    targetState = tuples.size();
+                    if(targetState >= stateLimit) {
+                        throw new AutomatonException("The union DFA exceeds the limit of " + stateLimit + " states");
+                    }
+                    stateInstances.put(key, targetState);
+                    tuples.add(target);
+                }
+
+                // Add the transition
+                int index = state * classNumber + cls;
+                if(index >= transitions.length) transitions = Arrays.copyOf(transitions, transitions.length * 2);
+                transitions[index] = targetState;
+            }
+        }
+        table = Arrays.copyOf(transitions, tuples.size() * classNumber);
+
+        // Get the matched patterns of each state, the search is finished when no other pattern can match
+        matchedPatterns = new int[tuples.size()][];
+        finished = new boolean[tuples.size()];
+        for(int state = 0 ; state < tuples.size() ; state++) {
+            int[] tuple = tuples.get(state);
+            int matchedNumber = 0;
+            boolean alive = false;
+            for(int value : tuple) {
+                if(value == MATCHED) matchedNumber++;
+                else if(value != CompiledAutomaton.DEAD_STATE) alive = true;
+            }
+            matchedPatterns[state] = new int[matchedNumber];
+            matchedNumber = 0;
+            for(int i = 0 ; i < tuple.length ; i++) {
+                if(tuple[i] == MATCHED) matchedPatterns[state][matchedNumber++] = patternIds[i];
+            }
+            finished[state] = !alive;
+        }
+    }
+
+    // ----- Getters -----
+
+    public int getStateNumber() {
+        return finished.length;
+    }
+
+    // ----- Class methods -----
+
+    /**
+     * Get the patterns matching in the UTF-8 input, in a single pass over its bytes
+     *
+     * @param input The input buffer
+     * @param start The start of the input in the buffer
+     * @param end The end of the input in the buffer (excluded)
+     * @return The ids of the matching patterns, in the component order
+     */
+    public int[] findPatterns(byte[] input, int start, int end) {
+        // Cache the attributes in local variables
+        int[] table = this.table;
+        int[] classMap = this.classMap;
+        boolean[] finished = this.finished;
+        int classNumber = this.classNumber;
+
+        // Input the bytes until no other pattern can match
+        int state = INIT_STATE;
+        for(int i = start ; i < end && !finished[state] ; i++) {
+            state = table[state * classNumber + classMap[input[i] & 0xFF]];
+        }
+
+        // Return the patterns matched in the reached state
+        return matchedPatterns[state];
+    }
+
+    // ----- Internal methods -----
+
+    /**
+     * Get the tuple value of a component state, the accepting states are all replaced by the matched state
+     *
+     * @param component The component automaton
+     * @param state The component state
+     * @return The tuple value
+     */
+    private static int step(CompiledAutomaton component, int state) {
+        return component.isAccepting(state) ? MATCHED : state;
+    }
+
+    // ----- Internal classes -----
+
+    /**
+     * This class is the hashable key of a union state tuple
+     */
+    private static class StateKey {
+
+        private final int[] tuple;
+        private final int hash;
+
+        public StateKey(int[] tuple) {
+            this.tuple = tuple;
+            this.hash = Arrays.hashCode(tuple);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof StateKey && Arrays.equals(tuple, ((StateKey) o).tuple);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+    }
+
+}
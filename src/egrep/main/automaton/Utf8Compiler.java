@@ -0,0 +1,304 @@
+package egrep.main.automaton;
+
+import egrep.main.utils.Utf8;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static egrep.main.automaton.Alphabet.OTHER_CLASS;
+import static egrep.main.automaton.CompiledAutomaton.DEAD_STATE;
+import static egrep.main.utils.Utf8.INVALID_LEAD;
+
+/**
+ * This class compiles a character automaton into an automaton over the UTF-8 bytes of the input.
+ * The bytes are decoded by a small trie holding the UTF-8 sequences of the wide characters of the regex :
+ * a byte state is a pair (character state, trie node), and a character transition is taken
+ * when the trie completes a character. The UTF-16 characters are rebuilt, so a supplementary
+ * code point still makes two character transitions, unless the first one already reaches an accepting state
+ *
+ * A malformed sequence is read as one unknown character, then the unexpected byte is read again
+ *
+ * @author Emilie SIAU
+ * @author Hugo GUERRIER
+ */
+public class Utf8Compiler {
+
+    // ----- Macros -----
+
+    public static final int BYTE_NUMBER = 256;
+
+    private static final int ROOT = 0;
+    private static final int NO_NODE = -1;
+
+    // ----- Attributes -----
+
+    private final CompiledAutomaton charAutomaton;
+    private final Alphabet charAlphabet;
+
+    // --- The decoding trie
+    private final List<int[]> children;
+    private final List<Integer> remaining;
+    private final List<Integer> units;
+    private final List<int[]> emitted;
+    private final int[][] pendingNodes;
+
+    // ----- Constructors -----
+
+    /**
+     * Create a new UTF-8 compiler for a character automaton
+     *
+     * @param charAutomaton The compiled character automaton
+     */
+    private Utf8Compiler(CompiledAutomaton charAutomaton) {
+        this.charAutomaton = charAutomaton;
+        charAlphabet = charAutomaton.getAlphabet();
+        children = new ArrayList<>();
+        remaining = new ArrayList<>();
+        units = new ArrayList<>();
+        emitted = new ArrayList<>();
+
+        // Create the root and the nodes of the unknown sequences
+        addNode(0, 0, null);
+        pendingNodes = new int[4][3];
+        for(int rem = 0 ; rem < 4 ; rem++) {
+            for(int unit = 1 ; unit < 3 ; unit++) {
+                int[] emit = new int[unit];
+                Arrays.fill(emit, OTHER_CLASS);
+                pendingNodes[rem][unit] = addNode(rem, unit, rem == 0 ? emit : null);
+            }
+        }
+
+        // Add the sequences of the characters that are not ASCII
+        for(int codePoint : getWideCodePoints()) addSequence(codePoint);
+    }
+
+    // ----- Class methods -----
+
+    /**
+     * Compile a character automaton into a minimal automaton over the UTF-8 bytes.
+     * The alphabet classes of the result partition the byte values
+     *
+     * @param charAutomaton The compiled character automaton
+     * @return The byte automaton
+     */
+    public static CompiledAutomaton compile(CompiledAutomaton charAutomaton) {
+        return new Utf8Compiler(charAutomaton).compile().minimize();
+    }
+
+    // ----- Internal methods -----
+
+    /**
+     * Build the reachable (character state, trie node) pairs and their transitions
+     *
+     * @return The byte automaton
+     */
+    private CompiledAutomaton compile() {
+        // Group the bytes that behave the same in every state
+        Alphabet byteAlphabet = createByteAlphabet();
+        int alphabetSize = byteAlphabet.getClassNumber();
+
+        // Explore the pairs from the initial one, the pairs with the dead state are all the dead state
+        int nodeNumber = children.size();
+        long deadPair = (long) DEAD_STATE * nodeNumber + ROOT;
+        long initPair = (long) charAutomaton.getInitState() * nodeNumber + ROOT;
+        Map<Long, Integer> pairIds = new HashMap<>();
+        List<Long> pairs = new ArrayList<>();
+        for(long pair : new long[]{deadPair, initPair}) {
+            if(!pairIds.containsKey(pair)) {
+                pairIds.put(pair, pairs.size());
+                pairs.add(pair);
+            }
+        }
+        int[] transitions = new int[16 * alphabetSize];
+        for(int id = 1 ; id < pairs.size() ; id++) {
+            int state = (int) (pairs.get(id) / nodeNumber);
+            int node = (int) (pairs.get(id) % nodeNumber);
+            if(transitions.length < (id + 1) * alphabetSize) transitions = Arrays.copyOf(transitions, transitions.length * 2);
+
+            for(int cls = 0 ; cls < alphabetSize ; cls++) {
+                long target = step(state, node, byteAlphabet.getRepresentative(cls));
+                if(target / nodeNumber == DEAD_STATE) target = deadPair;
+                Integer targetId = pairIds.get(target);
+                if(targetId == null) {
+                    targetId = pairs.size();
+                    pairIds.put(target, targetId);
+                    pairs.add(target);
+                }
+                transitions[id * alphabetSize + cls] = targetId;
+            }
+        }
+
+        // Number the states : dead state first, then non accepting states, then accepting states
+        int[] stateOf = new int[pairs.size()];
+        int nextState = DEAD_STATE + 1;
+        for(int id = 1 ; id < pairs.size() ; id++) {
+            if(!charAutomaton.isAccepting((int) (pairs.get(id) / nodeNumber))) stateOf[id] = nextState++;
+        }
+        int firstAcceptState = nextState;
+        for(int id = 1 ; id < pairs.size() ; id++) {
+            if(charAutomaton.isAccepting((int) (pairs.get(id) / nodeNumber))) stateOf[id] = nextState++;
+        }
+
+        // Fill the transition table, the dead state row stays full of DEAD_STATE
+        int[] table = new int[nextState * alphabetSize];
+        for(int id = 1 ; id < pairs.size() ; id++) {
+            for(int cls = 0 ; cls < alphabetSize ; cls++) {
+                table[stateOf[id] * alphabetSize + cls] = stateOf[transitions[id * alphabetSize + cls]];
+            }
+        }
+
+        // Return the compiled automaton
+        return new CompiledAutomaton(nextState, byteAlphabet, stateOf[pairIds.get(initPair)], firstAcceptState, table);
+    }
+
+    /**
+     * Get the target pair of a byte from a pair
+     *
+     * @param state The character state
+     * @param node The trie node
+     * @param b The byte value
+     * @return The target pair as (state * node number + node)
+     */
+    private long step(int state, int node, int b) {
+        int nodeNumber = children.size();
+
+        // Start a new character
+        if(node == ROOT) {
+            if(b < 0x80) return (long) next(state, charAlphabet.classOf((char) b)) * nodeNumber + ROOT;
+            int lead = Utf8.leadRemaining(b);
+            if(lead == INVALID_LEAD) return (long) next(state, OTHER_CLASS) * nodeNumber + ROOT;
+            int child = children.get(ROOT) != null ? children.get(ROOT)[b] : NO_NODE;
+            return (long) state * nodeNumber + (child != NO_NODE ? child : pendingNodes[lead][lead == 3 ? 2 : 1]);
+        }
+
+        // A byte which does not continue the sequence ends it, and is read again
+        if((b & 0xC0) != 0x80) return step(next(state, OTHER_CLASS), ROOT, b);
+
+        // Continue the sequence and emit the characters if it is complete
+        int child = children.get(node) != null ? children.get(node)[b] : NO_NODE;
+        if(child == NO_NODE) child = pendingNodes[remaining.get(node) - 1][units.get(node)];
+        int[] emit = emitted.get(child);
+        if(emit == null) return (long) state * nodeNumber + child;
+        for(int i = 0 ; i < emit.length && !charAutomaton.isAccepting(state) ; i++) state = next(state, emit[i]);
+        return (long) state * nodeNumber + ROOT;
+    }
+
+    /**
+     * Get the next character state, the dead state stays dead
+     *
+     * @param state The character state
+     * @param cls The character class
+     * @return The next character state
+     */
+    private int next(int state, int cls) {
+        return charAutomaton.getTable()[state * charAutomaton.getAlphabetSize() + cls];
+    }
+
+    /**
+     * Get the byte alphabet : two bytes are in the same class if they have the same character class,
+     * the same sequence length and the same children in the trie
+     *
+     * @return The byte alphabet
+     */
+    private Alphabet createByteAlphabet() {
+        Map<List<Integer>, Integer> classes = new HashMap<>();
+        int[] classMap = new int[BYTE_NUMBER];
+        int[] representatives = new int[BYTE_NUMBER];
+        for(int b = 0 ; b < BYTE_NUMBER ; b++) {
+            // Compute the byte signature
+            List<Integer> signature = new ArrayList<>();
+            if(b < 0x80) {
+                signature.add(-1);
+                signature.add(charAlphabet.classOf((char) b));
+            } else {
+                signature.add(Utf8.leadRemaining(b));
+                signature.add((b & 0xC0) == 0x80 ? 1 : 0);
+                for(int[] nodeChildren : children) signature.add(nodeChildren != null ? nodeChildren[b] : NO_NODE);
+            }
+
+            // Get the class of the signature
+            Integer cls = classes.get(signature);
+            if(cls == null) {
+                cls = classes.size();
+                classes.put(signature, cls);
+                representatives[cls] = b;
+            }
+            classMap[b] = cls;
+        }
+        return new Alphabet(classMap, Arrays.copyOf(representatives, classes.size()));
+    }
+
+    /**
+     * Get the code points that are not ASCII and can be read by the character automaton
+     * A supplementary code point is read if both of its surrogates are in the alphabet
+     *
+     * @return The code points
+     */
+    private List<Integer> getWideCodePoints() {
+        List<Integer> res = new ArrayList<>();
+        List<Character> highSurrogates = new ArrayList<>();
+        List<Character> lowSurrogates = new ArrayList<>();
+        for(int cls = OTHER_CLASS + 1 ; cls < charAlphabet.getClassNumber() ; cls++) {
+            char c = (char) charAlphabet.getRepresentative(cls);
+            if(Character.isHighSurrogate(c)) highSurrogates.add(c);
+            else if(Character.isLowSurrogate(c)) lowSurrogates.add(c);
+            else if(c >= 0x80) res.add((int) c);
+        }
+        for(char high : highSurrogates) {
+            for(char low : lowSurrogates) res.add(Character.toCodePoint(high, low));
+        }
+        return res;
+    }
+
+    /**
+     * Add the UTF-8 sequence of a code point to the trie
+     *
+     * @param codePoint The code point
+     */
+    private void addSequence(int codePoint) {
+        // Get the bytes and the characters
+        byte[] bytes = new String(Character.toChars(codePoint)).getBytes(StandardCharsets.UTF_8);
+        char[] chars = Character.toChars(codePoint);
+        int[] emit = new int[chars.length];
+        for(int i = 0 ; i < chars.length ; i++) emit[i] = charAlphabet.classOf(chars[i]);
+
+        // Follow and create the path
+        int node = ROOT;
+        for(int i = 0 ; i < bytes.length ; i++) {
+            int b = bytes[i] & 0xFF;
+            if(children.get(node) == null) {
+                int[] nodeChildren = new int[BYTE_NUMBER];
+                Arrays.fill(nodeChildren, NO_NODE);
+                children.set(node, nodeChildren);
+            }
+            int child = children.get(node)[b];
+            if(child == NO_NODE) {
+                boolean last = i == bytes.length - 1;
+                child = addNode(bytes.length - 1 - i, chars.length, last ? emit : null);
+                children.get(node)[b] = child;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Add a node to the trie
+     *
+     * @param rem The number of bytes remaining in the sequence
+     * @param unit The number of characters of the sequence
+     * @param emit The classes of the characters read at the end of the sequence, null if not ended
+     * @return The new node
+     */
+    private int addNode(int rem, int unit, int[] emit) {
+        children.add(null);
+        remaining.add(rem);
+        units.add(unit);
+        emitted.add(emit);
+        return children.size() - 1;
+    }
+
+}
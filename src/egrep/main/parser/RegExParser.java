@@ -17,15 +17,16 @@ public class RegExParser {
     // - Special characters -
 
     public static final char[] HANDLED_OPERATORS = {'*', '|'};
-    public static final int STAR = 0xFF2;   // ex: "a*", 'a' as many times as we can have it (0 or more)
-    public static final int ALTERN = 0xFF3; // ex: "a|b", 'a' or 'b'
-    public static final int CONCAT = 0xFF1; // The concatenation is not visible. "ab" is read as 'a' then 'b'
+    // The operators are above the code points, so they never collide with a character
+    public static final int STAR = 0x110002;   // ex: "a*", 'a' as many times as we can have it (0 or more)
+    public static final int ALTERN = 0x110003; // ex: "a|b", 'a' or 'b'
+    public static final int CONCAT = 0x110001; // The concatenation is not visible. "ab" is read as 'a' then 'b'
 
-    public static final int DOT = 0xFF7;    // Universal character
+    public static final int DOT = 0x110007;    // Universal character
 
-    public static final int L_PAREN = 0xFF5;    // Left parenthesis, acts on the operators priorities
-    public static final int R_PAREN = 0xFF6;    // Right parenthesis, completing the left one
-    public static final int PROTECTION = 0xFF4; // Protecting/escaping a special character: "\*" corresponds to the simple star char
+    public static final int L_PAREN = 0x110005;    // Left parenthesis, acts on the operators priorities
+    public static final int R_PAREN = 0x110006;    // Right parenthesis, completing the left one
+    public static final int PROTECTION = 0x110004; // Protecting/escaping a special character: "\*" corresponds to the simple star char
 
     // ----- Attributes -----
 
@@ -86,8 +87,8 @@ public class RegExParser {
 
         // Prepare the result
         ArrayList<RegExTree> result = new ArrayList<>();
-        for (int i=0 ; i<regEx.length() ; i++) {
-            result.add(new RegExTree(charToRoot(regEx.charAt(i)), new ArrayList<>()));
+        for (int i=0 ; i<regEx.length() ; i += Character.charCount(regEx.codePointAt(i))) {
+            result.add(codePointToTree(regEx.codePointAt(i)));
         }
 
         // Parse the regex
@@ -97,6 +98,27 @@ public class RegExParser {
         return parseResult;
     }
 
+    /**
+     * Get the leaf tree of a regex code point. The input is searched by UTF-16 characters, so a
+     * supplementary code point becomes the protected concatenation of its two surrogate characters
+     *
+     * @param codePoint The code point
+     * @return The tree for the code point
+     */
+    private RegExTree codePointToTree(int codePoint) {
+        if (!Character.isSupplementaryCodePoint(codePoint)) {
+            return new RegExTree(charToRoot((char) codePoint), new ArrayList<>());
+        }
+
+        // Create the surrogates concatenation
+        ArrayList<RegExTree> surrogates = new ArrayList<>();
+        surrogates.add(new RegExTree(Character.highSurrogate(codePoint), new ArrayList<>()));
+        surrogates.add(new RegExTree(Character.lowSurrogate(codePoint), new ArrayList<>()));
+        ArrayList<RegExTree> subTrees = new ArrayList<>();
+        subTrees.add(new RegExTree(CONCAT, surrogates));
+        return new RegExTree(PROTECTION, subTrees);
+    }
+
     private int charToRoot(char c) {
         if (c=='.') return DOT;
         if (c=='*') return STAR;
@@ -1,6 +1,7 @@
 package egrep.main.parser;
 
 import java.util.ArrayList;
+import java.util.Collections;
 
 /**
  * This class represent a regular expression tree
@@ -80,6 +81,23 @@ public class RegExTree {
 
     // ----- Class methods -----
 
+    /**
+     * Get the reversed tree, which matches the reversed strings matched by this tree
+     *
+     * @return The reversed tree
+     */
+    public RegExTree reverse() {
+        // Reverse the sub trees
+        ArrayList<RegExTree> reversedSubTrees = new ArrayList<>();
+        for(RegExTree subTree : subTrees) reversedSubTrees.add(subTree.reverse());
+
+        // Only the concatenation order changes
+        if(root == RegExParser.CONCAT) {
+            Collections.reverse(reversedSubTrees);
+        }
+        return new RegExTree(root, reversedSubTrees);
+    }
+
     /**
      * Get the string from the root
      *
@@ -0,0 +1,280 @@
+package egrep.main.parser;
+
+import java.util.*;
+
+import static egrep.main.parser.RegExParser.*;
+
+/**
+ * This class computes from a regex tree the literal factors that every match must contain, and the minimal match length
+ * Each sub tree gets its exact strings when it only matches a few strings, or else a set of factors where a match
+ * of the sub tree contains at least one of them. A concatenation joins its consecutive exact parts and keeps its best
+ * factor set (the prefix, an inner part or the suffix), and an alternation joins the factor sets of its branches
+ *
+ * @author Emilie SIAU
+ * @author Hugo GUERRIER
+ */
+public class RequiredLiterals {
+
+    // ----- Macros -----
+
+    public static final int MAX_LITERAL_NUMBER = 16;
+
+    // ----- Attributes -----
+
+    private final List<String> literals;
+    private final int minLength;
+
+    // ----- Constructors -----
+
+    /**
+     * Create a new required literals result
+     *
+     * @param literals The literals, a match contains at least one of them. Null if there is none
+     * @param minLength The minimal match length in UTF-16 characters
+     */
+    private RequiredLiterals(List<String> literals, int minLength) {
+        this.literals = literals;
+        this.minLength = minLength;
+    }
+
+    // ----- Getters -----
+
+    public List<String> getLiterals() {
+        return literals;
+    }
+
+    public int getMinLength() {
+        return minLength;
+    }
+
+    /**
+     * Get the length of the shortest required literal
+     *
+     * @return The shortest literal length, 0 if there is no required literal
+     */
+    public int getShortestLength() {
+        return literals != null ? shortest(literals) : 0;
+    }
+
+    // ----- Override methods -----
+
+    @Override
+    public String toString() {
+        return "Required literals : " + (literals != null ? literals : "none") + ", minimal length : " + minLength;
+    }
+
+    // ----- Class methods -----
+
+    /**
+     * Compute the required literals of a regex tree
+     *
+     * @param tree The regex tree
+     * @return The required literals
+     */
+    public static RequiredLiterals analyze(RegExTree tree) {
+        Info info = analyzeTree(tree);
+        Set<String> factors = info.getFactors();
+
+        // The factors are useless if one is empty, and cannot be searched if they cut a surrogate pair
+        if(factors == null || factors.contains("")) return new RequiredLiterals(null, info.minLength);
+        for(String factor : factors) {
+            if(Character.isLowSurrogate(factor.charAt(0)) || Character.isHighSurrogate(factor.charAt(factor.length() - 1))) {
+                return new RequiredLiterals(null, info.minLength);
+            }
+        }
+
+        // Return the result
+        return new RequiredLiterals(Collections.unmodifiableList(new ArrayList<>(factors)), info.minLength);
+    }
+
+    // ----- Internal methods -----
+
+    /**
+     * Compute the analysis information of a tree recursively
+     *
+     * @param tree The tree
+     * @return The tree information
+     */
+    private static Info analyzeTree(RegExTree tree) {
+        switch (tree.getRoot()) {
+
+            case CONCAT:
+                return analyzeConcat(flatten(tree, CONCAT, new ArrayList<>()));
+
+            case ALTERN:
+                return analyzeAltern(flatten(tree, ALTERN, new ArrayList<>()));
+
+            case STAR:
+                return new Info(null, null, 0);
+
+            case DOT:
+                return new Info(null, null, 1);
+
+            case PROTECTION:
+                return analyzeTree(tree.getSubTrees().get(0));
+
+            default:
+                Set<String> exact = new TreeSet<>();
+                exact.add(Character.toString((char) tree.getRoot()));
+                return new Info(exact, null, 1);
+
+        }
+    }
+
+    /**
+     * Compute the information of a concatenation, from the information of its parts
+     *
+     * @param parts The concatenated trees
+     * @return The concatenation information
+     */
+    private static Info analyzeConcat(List<RegExTree> parts) {
+        // Join the consecutive exact parts while the product is small, and keep the best factors
+        Set<String> best = null;
+        Set<String> run = emptyRun();
+        boolean exact = true;
+        int minLength = 0;
+        for(RegExTree part : parts) {
+            Info info = analyzeTree(part);
+            minLength += info.minLength;
+
+            if(info.exact != null && run.size() * info.exact.size() <= MAX_LITERAL_NUMBER) {
+                run = product(run, info.exact);
+            } else {
+                // Close the current run
+                exact = false;
+                best = best(best, run);
+                if(info.exact != null) {
+                    run = info.exact;
+                } else {
+                    best = best(best, info.required);
+                    run = emptyRun();
+                }
+            }
+        }
+
+        // Return the concatenation information
+        if(exact) return new Info(run, null, minLength);
+        return new Info(null, best(best, run), minLength);
+    }
+
+    /**
+     * Compute the information of an alternation, from the information of its branches
+     *
+     * @param branches The alternative trees
+     * @return The alternation information
+     */
+    private static Info analyzeAltern(List<RegExTree> branches) {
+        // Join the exact strings or the factors of all the branches
+        Set<String> exact = new TreeSet<>();
+        Set<String> factors = new TreeSet<>();
+        int minLength = Integer.MAX_VALUE;
+        for(RegExTree branch : branches) {
+            Info info = analyzeTree(branch);
+            minLength = Math.min(minLength, info.minLength);
+            if(exact != null && info.exact != null) exact.addAll(info.exact);
+            else exact = null;
+            if(factors != null && info.getFactors() != null) factors.addAll(info.getFactors());
+            else factors = null;
+        }
+
+        // Return the alternation information, the too big sets are dropped
+        if(exact != null && exact.size() <= MAX_LITERAL_NUMBER) return new Info(exact, null, minLength);
+        if(factors != null && factors.size() <= MAX_LITERAL_NUMBER) return new Info(null, factors, minLength);
+        return new Info(null, null, minLength);
+    }
+
+    /**
+     * Get the operands of nested operators of the same kind
+     *
+     * @param tree The tree
+     * @param operator The operator
+     * @param res The list where to add the operands
+     * @return The operand list
+     */
+    private static List<RegExTree> flatten(RegExTree tree, int operator, List<RegExTree> res) {
+        if(tree.getRoot() == operator) {
+            for(RegExTree subTree : tree.getSubTrees()) flatten(subTree, operator, res);
+        } else {
+            res.add(tree);
+        }
+        return res;
+    }
+
+    /**
+     * Get a new run of exact strings, only holding the empty string
+     *
+     * @return The empty run
+     */
+    private static Set<String> emptyRun() {
+        Set<String> res = new TreeSet<>();
+        res.add("");
+        return res;
+    }
+
+    /**
+     * Get all the concatenations of a string of the first set and a string of the second set
+     *
+     * @param first The first set
+     * @param second The second set
+     * @return The product set
+     */
+    private static Set<String> product(Set<String> first, Set<String> second) {
+        Set<String> res = new TreeSet<>();
+        for(String a : first) {
+            for(String b : second) res.add(a + b);
+        }
+        return res;
+    }
+
+    /**
+     * Get the best factor set to search : the one with the longest shortest factor, then the smallest one
+     *
+     * @param first The first factor set, can be null
+     * @param second The second factor set, can be null
+     * @return The best factor set
+     */
+    private static Set<String> best(Set<String> first, Set<String> second) {
+        if(first == null || shortest(first) == 0) return second;
+        if(second == null || shortest(second) == 0) return first;
+        int firstLength = shortest(first);
+        int secondLength = shortest(second);
+        if(firstLength != secondLength) return firstLength > secondLength ? first : second;
+        return first.size() <= second.size() ? first : second;
+    }
+
+    /**
+     * Get the length of the shortest string of a collection
+     *
+     * @param strings The strings
+     * @return The shortest length
+     */
+    private static int shortest(Collection<String> strings) {
+        int res = Integer.MAX_VALUE;
+        for(String string : strings) res = Math.min(res, string.length());
+        return res;
+    }
+
+    // ----- Internal classes -----
+
+    /**
+     * This class holds the analysis information of a tree
+     */
+    private static class Info {
+
+        private final Set<String> exact;    // All the matched strings, null if there are too many
+        private final Set<String> required; // The factors when the exact strings are unknown, null if there is none
+        private final int minLength;
+
+        public Info(Set<String> exact, Set<String> required, int minLength) {
+            this.exact = exact;
+            this.required = required;
+            this.minLength = minLength;
+        }
+
+        public Set<String> getFactors() {
+            return exact != null ? exact : required;
+        }
+
+    }
+
+}
@@ -0,0 +1,253 @@
+package egrep.main.search_engine;
+
+import egrep.main.automaton.Automaton;
+import egrep.main.exceptions.AutomatonException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * This class implements the Aho-Corasick search of many literal strings at once
+ * The literals are compiled in a dense automaton over the UTF-8 bytes, where the failure links are already followed,
+ * so the input is searched in a single linear pass whatever the number of literals
+ *
+ * @author Emilie SIAU
+ * @author Hugo GUERRIER
+ */
+public class AhoCorasickStrategy implements SearchStrategy {
+
+    // ----- Macros -----
+
+    private static final int BYTE_NUMBER = 256;
+    private static final int ROOT = 0;
+    private static final int NO_STATE = -1;
+
+    // ----- Attributes -----
+
+    private final String[] literals;
+
+    // --- The automaton, the bytes absent from the literals all go to the class 0
+    private final int[] classMap;
+    private final int classNumber;
+    private final int[] table;
+    private final boolean[] accepting;
+
+    // --- The literals found in each state : its own literals, then the ones of the next accepting suffix state
+    private final int[][] terminals;
+    private final int[] outputLinks;
+
+    // ----- Constructors -----
+
+    /**
+     * Create a new Aho-Corasick strategy
+     *
+     * @param literals The literal strings to search, an empty literal matches every input
+     */
+    public AhoCorasickStrategy(List<String> literals) {
+        this.literals = literals.toArray(new String[0]);
+
+        // Encode the literals and number the bytes they use
+        byte[][] encoded = new byte[this.literals.length][];
+        classMap = new int[BYTE_NUMBER];
+        int classes = 1;
+        int stateBound = 1;
+        for(int i = 0 ; i < encoded.length ; i++) {
+            encoded[i] = this.literals[i].getBytes(StandardCharsets.UTF_8);
+            for(byte b : encoded[i]) {
+                if(classMap[b & 0xFF] == 0) classMap[b & 0xFF] = classes++;
+            }
+            stateBound += encoded[i].length;
+        }
+        classNumber = classes;
+
+        // Build the trie of the literals, the missing transitions are marked
+        int[] trie = new int[stateBound * classNumber];
+        Arrays.fill(trie, NO_STATE);
+        int[][] ownTerminals = new int[stateBound][];
+        int stateNumber = 1;
+        for(int i = 0 ; i < encoded.length ; i++) {
+            int state = ROOT;
+            for(byte b : encoded[i]) {
+                int index = state * classNumber + classMap[b & 0xFF];
+                if(trie[index] == NO_STATE) trie[index] = stateNumber++;
+                state = trie[index];
+            }
+            ownTerminals[state] = append(ownTerminals[state], i);
+        }
+
+        // Follow the failure links in breadth first order to complete the transitions
+        table = Arrays.copyOf(trie, stateNumber * classNumber);
+        terminals = Arrays.copyOf(ownTerminals, stateNumber);
+        accepting = new boolean[stateNumber];
+        outputLinks = new int[stateNumber];
+        int[] failures = new int[stateNumber];
+        int[] queue = new int[stateNumber];
+        int head = 0;
+        int tail = 0;
+
+        accepting[ROOT] = terminals[ROOT] != null;
+        outputLinks[ROOT] = NO_STATE;
+        for(int cls = 0 ; cls < classNumber ; cls++) {
+            int target = table[cls];
+            if(target == NO_STATE) {
+                table[cls] = ROOT;
+            } else {
+                failures[target] = ROOT;
+                queue[tail++] = target;
+            }
+        }
+
+        while(head < tail) {
+            int state = queue[head++];
+
+            // Get the literals of the failure state
+            int failure = failures[state];
+            outputLinks[state] = terminals[failure] != null ? failure : outputLinks[failure];
+            accepting[state] = terminals[state] != null || accepting[failure];
+
+            // Complete the transitions from the failure state ones
+            for(int cls = 0 ; cls < classNumber ; cls++) {
+                int index = state * classNumber + cls;
+                int target = table[index];
+                if(target == NO_STATE) {
+                    table[index] = table[failure * classNumber + cls];
+                } else {
+                    failures[target] = table[failure * classNumber + cls];
+                    queue[tail++] = target;
+                }
+            }
+        }
+    }
+
+    // ----- Getters -----
+
+    public String[] getLiterals() {
+        return literals;
+    }
+
+    public int getStateNumber() {
+        return accepting.length;
+    }
+
+    // ----- Override methods -----
+
+    /**
+     * Tell if the input contains one of the literals
+     *
+     * @param ignored The automaton is ignored. You can give a null automaton
+     * @param input The input string
+     * @return true if the input contains a literal, false otherwise
+     * @throws AutomatonException Cannot happen. Does not use automaton (ignored)
+     */
+    @Override
+    public boolean isMatching(Automaton ignored, String input) throws AutomatonException {
+        byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+        return isMatching(ignored, bytes, 0, bytes.length);
+    }
+
+    /**
+     * Tell if the UTF-8 input contains one of the literals, in a single pass over its bytes
+     *
+     * @param ignored The automaton is ignored. You can give a null automaton
+     * @param input The input buffer
+     * @param start The start of the input in the buffer
+     * @param end The end of the input in the buffer (excluded)
+     * @return true if the input contains a literal, false otherwise
+     * @throws AutomatonException Cannot happen. Does not use automaton (ignored)
+     */
+    @Override
+    public boolean isMatching(Automaton ignored, byte[] input, int start, int end) throws AutomatonException {
+        return find(ignored, input, start, end) >= 0;
+    }
+
+    /**
+     * Find the end of the first literal occurrence in a part of an UTF-8 buffer, which can hold many lines
+     * The literals have no line break, so an occurrence never spans two lines
+     *
+     * @param ignored The automaton is ignored. You can give a null automaton
+     * @param input The input buffer
+     * @param start The start of the input in the buffer
+     * @param end The end of the input in the buffer (excluded)
+     * @return The position of the last byte of the occurrence, -1 if there is none
+     */
+    @Override
+    public int find(Automaton ignored, byte[] input, int start, int end) {
+        // Cache the attributes in local variables
+        int[] table = this.table;
+        int[] classMap = this.classMap;
+        boolean[] accepting = this.accepting;
+        int classNumber = this.classNumber;
+
+        // The empty literal matches every input
+        if(accepting[ROOT]) return start;
+
+        // Input all the bytes until an accepting state is reached
+        int state = ROOT;
+        for(int i = start ; i < end ; i++) {
+            state = table[state * classNumber + classMap[input[i] & 0xFF]];
+            if(accepting[state]) return i;
+        }
+
+        // The default result, if the input cannot match
+        return -1;
+    }
+
+    // ----- Class methods -----
+
+    /**
+     * Get all the literals contained in the UTF-8 input
+     *
+     * @param input The input buffer
+     * @param start The start of the input in the buffer
+     * @param end The end of the input in the buffer (excluded)
+     * @return The indexes of the found literals, in increasing order
+     */
+    public int[] findLiterals(byte[] input, int start, int end) {
+        // Prepare the result
+        BitSet found = new BitSet(literals.length);
+        addTerminals(found, ROOT);
+
+        // Input all the bytes and collect the literals of the reached states
+        int state = ROOT;
+        for(int i = start ; i < end ; i++) {
+            state = table[state * classNumber + classMap[input[i] & 0xFF]];
+            if(accepting[state]) addTerminals(found, state);
+        }
+
+        // Return the result
+        return found.stream().toArray();
+    }
+
+    // ----- Internal methods -----
+
+    /**
+     * Add the literals ending in a state, following the output links
+     *
+     * @param found The found literal set
+     * @param state The state
+     */
+    private void addTerminals(BitSet found, int state) {
+        if(terminals[state] == null) state = outputLinks[state];
+        while(state != NO_STATE) {
+            for(int literal : terminals[state]) found.set(literal);
+            state = outputLinks[state];
+        }
+    }
+
+    /**
+     * Append a value to an array
+     *
+     * @param array The array, can be null
+     * @param value The value
+     * @return The new array
+     */
+    private static int[] append(int[] array, int value) {
+        if(array == null) return new int[]{value};
+        int[] res = Arrays.copyOf(array, array.length + 1);
+        res[array.length] = value;
+        return res;
+    }
+
+}
@@ -0,0 +1,214 @@
+package egrep.main.search_engine;
+
+import egrep.main.utils.ByteScanner;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * This class reads an input stream by blocks of whole lines without decoding it, so a strategy can search many lines
+ * at once. The lines are only located around the matches : their bounds are found from a match position,
+ * and the line numbers are counted up to the matched lines
+ *
+ * @author Emilie SIAU
+ * @author Hugo GUERRIER
+ */
+public class BlockReader implements Closeable {
+
+    // ----- Macros -----
+
+    public static final int BLOCK_SIZE = 1024 * 1024;
+    public static final int MAX_BUFFER_SIZE = Integer.MAX_VALUE - 8;
+
+    // ----- Attributes -----
+
+    private final InputStream input;
+    private final ByteScanner scanner;
+    private byte[] buffer;
+    private int bufferEnd;
+    private boolean endOfFile;
+
+    // --- The current block
+    private int blockEnd;
+
+    // --- The line count, up to a position of the current block
+    private int countedPos;
+    private int countedLines;
+
+    // ----- Constructors -----
+
+    /**
+     * Create a new block reader
+     *
+     * @param input The input stream to read
+     */
+    public BlockReader(InputStream input) {
+        this.input = input;
+        scanner = ByteScanner.getInstance();
+        buffer = new byte[BLOCK_SIZE];
+        bufferEnd = 0;
+        endOfFile = false;
+        blockEnd = 0;
+        countedPos = 0;
+        countedLines = 0;
+    }
+
+    // ----- Getters -----
+
+    public byte[] getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Get the end of the current block, after its last line break. The block starts at the buffer start
+     *
+     * @return The block end in the buffer (excluded)
+     */
+    public int getBlockEnd() {
+        return blockEnd;
+    }
+
+    /**
+     * Get the number of line breaks counted so far. At the end of the input, it is the number of line breaks of the input
+     *
+     * @return The line break number
+     */
+    public int getLineBreakNumber() {
+        return countedLines;
+    }
+
+    // ----- Override methods -----
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    // ----- Class methods -----
+
+    /**
+     * Go to the next block
+     *
+     * @return True if there is a next block, false at the end of the input
+     * @throws IOException If the input cannot be read
+     */
+    public boolean next() throws IOException {
+        // Count the lines of the current block and move the incomplete last line at the buffer start
+        countLines(blockEnd);
+        System.arraycopy(buffer, blockEnd, buffer, 0, bufferEnd - blockEnd);
+        bufferEnd -= blockEnd;
+        countedPos = 0;
+
+        // Fill the buffer, and grow it if a single line fills it
+        while(!endOfFile) {
+            if(bufferEnd == buffer.length) {
+                if(lastLineBreak() >= 0) break;
+                buffer = grow(buffer);
+            }
+            int read = input.read(buffer, bufferEnd, buffer.length - bufferEnd);
+            if(read < 0) endOfFile = true;
+            else bufferEnd += read;
+        }
+
+        // The block ends after the last complete line, or at the input end
+        blockEnd = endOfFile ? bufferEnd : lastLineBreak() + 1;
+        return blockEnd > 0;
+    }
+
+    /**
+     * Get the start of the line holding a position of the current block
+     *
+     * @param pos The position
+     * @return The line start
+     */
+    public int getLineStart(int pos) {
+        int res = pos;
+        while(res > 0 && buffer[res - 1] != '\n') res--;
+        return res;
+    }
+
+    /**
+     * Get the end of the line holding a position of the current block, at its line break
+     *
+     * @param pos The position
+     * @return The line end (excluded)
+     */
+    public int getLineEnd(int pos) {
+        return scanner.indexOf(buffer, pos, blockEnd, (byte) '\n');
+    }
+
+    /**
+     * Get the number of the line holding a position of the current block. The positions must be given in order
+     *
+     * @param pos The position
+     * @return The line number, from 1
+     */
+    public int getLineNumber(int pos) {
+        countLines(pos);
+        return countedLines + 1;
+    }
+
+    /**
+     * Get the end of a line of the current block without its carriage return
+     *
+     * @param start The line start
+     * @param end The line end (excluded)
+     * @return The line content end (excluded)
+     */
+    public int getContentEnd(int start, int end) {
+        return end > start && buffer[end - 1] == '\r' ? end - 1 : end;
+    }
+
+    /**
+     * Decode a line of the current block, without its carriage return
+     *
+     * @param start The line start
+     * @param end The line end (excluded)
+     * @return The line
+     */
+    public String getLine(int start, int end) {
+        int contentEnd = getContentEnd(start, end);
+        return new String(buffer, start, contentEnd - start, StandardCharsets.UTF_8);
+    }
+
+    // ----- Internal methods -----
+
+    /**
+     * Count the line breaks up to a position of the current block
+     *
+     * @param pos The position
+     */
+    private void countLines(int pos) {
+        int res = 0;
+        for(int i = countedPos ; i < pos ; i++) res += buffer[i] == '\n' ? 1 : 0;
+        countedLines += res;
+        countedPos = pos;
+    }
+
+    /**
+     * Get the position of the last line break of the buffer
+     *
+     * @return The last line break position, -1 if there is none
+     */
+    private int lastLineBreak() {
+        int res = bufferEnd - 1;
+        while(res >= 0 && buffer[res] != '\n') res--;
+        return res;
+    }
+
+    /**
+     * Double the size of the buffer holding a long line, up to the maximal array size
+     *
+     * @param buffer The full buffer
+     * @return The bigger buffer
+     * @throws IOException If the line does not fit in an array
+     */
+    private static byte[] grow(byte[] buffer) throws IOException {
+        if(buffer.length == MAX_BUFFER_SIZE) throw new IOException("A line is longer than " + MAX_BUFFER_SIZE + " bytes");
+        return Arrays.copyOf(buffer, (int) Math.min(2L * buffer.length, MAX_BUFFER_SIZE));
+    }
+
+}
@@ -0,0 +1,84 @@
+package egrep.main.search_engine;
+
+import egrep.main.automaton.Automaton;
+import egrep.main.automaton.CompiledAutomaton;
+
+import static egrep.main.automaton.Automaton.AUTOMATON_TABLE_SIZE;
+
+/**
+ * This class represents a regex ready to be searched : its search strategy and its automaton if the strategy uses one
+ *
+ * @author Emilie SIAU
+ * @author Hugo GUERRIER
+ */
+public class CompiledPattern {
+
+    // ----- Macros -----
+
+    private static final long ENTRY_SIZE = 1024;
+    private static final long REFERENCE_SIZE = 8;
+
+    // ----- Attributes -----
+
+    private final SearchStrategy strategy;
+    private final Automaton automaton;
+    private final long memorySize;
+
+    // ----- Constructors -----
+
+    /**
+     * Create a new compiled pattern
+     *
+     * @param regex The regex
+     * @param strategy The search strategy
+     * @param automaton The automaton, null if the strategy does not use one
+     */
+    public CompiledPattern(String regex, SearchStrategy strategy, Automaton automaton) {
+        this.strategy = strategy;
+        this.automaton = automaton;
+        this.memorySize = estimateMemorySize(regex, automaton);
+    }
+
+    // ----- Getters -----
+
+    public SearchStrategy getStrategy() {
+        return strategy;
+    }
+
+    public Automaton getAutomaton() {
+        return automaton;
+    }
+
+    public long getMemorySize() {
+        return memorySize;
+    }
+
+    // ----- Internal methods -----
+
+    /**
+     * Estimate the memory used by a compiled pattern, the automaton transition lists and tables are the biggest part
+     *
+     * @param regex The regex
+     * @param automaton The automaton, can be null
+     * @return The estimated memory size in bytes
+     */
+    private static long estimateMemorySize(String regex, Automaton automaton) {
+        long res = ENTRY_SIZE + 2L * regex.length();
+        if(automaton != null) {
+            if(automaton.getAutomaton() != null) {
+                int listSize = AUTOMATON_TABLE_SIZE + automaton.getAlphabet().getWideNumber();
+                res += automaton.getAutomaton().size() * listSize * REFERENCE_SIZE;
+            }
+            for(CompiledAutomaton compiled : new CompiledAutomaton[]{automaton.getCompiled(), automaton.getCompiledUtf8()}) {
+                if(compiled != null) res += 4L * compiled.getTable().length;
+            }
+
+            // The unanchored byte automaton has a copy resetting on the line breaks
+            if(automaton.isUnanchored() && automaton.getCompiledUtf8() != null) {
+                res += 4L * automaton.getCompiledUtf8().getTable().length;
+            }
+        }
+        return res;
+    }
+
+}
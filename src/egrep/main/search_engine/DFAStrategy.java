@@ -0,0 +1,508 @@
+package egrep.main.search_engine;
+
+import egrep.main.automaton.Alphabet;
+import egrep.main.automaton.Automaton;
+import egrep.main.automaton.CompiledAutomaton;
+import egrep.main.automaton.Prefilter;
+import egrep.main.exceptions.AutomatonException;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static egrep.main.automaton.Automaton.CHAR_NUMBER;
+
+/**
+ * This class implements the regex search with an unanchored DFA : the input is scanned
+ * only once, and the search stops at the first accepting state.
+ * A huge input, like a single line of many megabytes, can be split in chunks run concurrently by the threads
+ * of the search engine, from every possible start state when the automaton is small enough
+ *
+ * @author Emilie SIAU
+ * @author Hugo GUERRIER
+ */
+public class DFAStrategy implements SearchStrategy {
+
+    // ----- Macros -----
+
+    public static final int PARALLEL_INPUT_SIZE = 16 * 1024 * 1024;
+    public static final int PARALLEL_STATE_LIMIT = 64; // Each chunk runs up to one lane per state
+    public static final int CHUNKS_PER_THREAD = 2;
+
+    private static final int ACCEPTED = -1;
+    private static final int CANCELLED = -2;
+    private static final int MERGE_PERIOD = 64;
+    private static final int CANCEL_PERIOD = 64 * 1024; // Bytes run by a lane between two cancellation checks
+
+    // ----- Override methods -----
+
+    /**
+     * Tell if the input contains a match of the regex-based automaton in a single pass
+     *
+     * @param automaton The unanchored automaton to use, built from a regex
+     * @param input The input string
+     * @return true if the input contains a match of the automaton, false otherwise
+     * @throws AutomatonException if the automaton is not deterministic or not unanchored
+     */
+    @Override
+    public boolean isMatching(Automaton automaton, String input) throws AutomatonException {
+        // Verify the automaton can be used in a single pass
+        if(!automaton.isUnanchored()) {
+            throw new AutomatonException("The automaton need to be unanchored");
+        }
+
+        // Get the compiled automaton and cache its components in local variables
+        CompiledAutomaton compiled = automaton.compile();
+        int[] table = compiled.getTable();
+        Alphabet alphabet = compiled.getAlphabet();
+        int[] classMap = alphabet.getClassMap();
+        int alphabetSize = compiled.getAlphabetSize();
+        int firstAcceptState = compiled.getFirstAcceptState();
+        int state = compiled.getInitState();
+
+        // If the initial state is accepting, every input is matching
+        if(state >= firstAcceptState) return true;
+
+        // Input all the characters until an accepting state is reached
+        int length = input.length();
+        for(int i = 0 ; i < length ; i++) {
+            char c = input.charAt(i);
+            state = table[state * alphabetSize + (c < CHAR_NUMBER ? classMap[c] : alphabet.classOfWide(c))];
+            if(state >= firstAcceptState) return true;
+        }
+
+        // The default result, if the input cannot match
+        return false;
+    }
+
+    /**
+     * Tell if the UTF-8 input contains a match of the regex-based automaton in a single pass over its bytes
+     *
+     * @param automaton The unanchored automaton to use, built from a regex
+     * @param input The input buffer
+     * @param start The start of the input in the buffer
+     * @param end The end of the input in the buffer (excluded)
+     * @return true if the input contains a match of the automaton, false otherwise
+     * @throws AutomatonException if the automaton is not deterministic or not unanchored
+     */
+    @Override
+    public boolean isMatching(Automaton automaton, byte[] input, int start, int end) throws AutomatonException {
+        // Verify the automaton can be used in a single pass
+        if(!automaton.isUnanchored()) {
+            throw new AutomatonException("The automaton need to be unanchored");
+        }
+
+        // Run the byte automaton
+        return search(automaton.compileUtf8(), automaton.getUtf8Prefilter(), input, start, end, 1) >= 0;
+    }
+
+    /**
+     * Find the first match in a part of an UTF-8 buffer holding many lines, in a single pass over the lines.
+     * The automaton goes back to its initial state at each line break, so a match never spans two lines
+     *
+     * @param automaton The unanchored automaton to use, built from a regex
+     * @param input The input buffer
+     * @param start The start of the input in the buffer, at a line start
+     * @param end The end of the input in the buffer (excluded)
+     * @return The position where the automaton accepts, -1 if no line matches
+     * @throws AutomatonException if the automaton is not deterministic or not unanchored
+     */
+    @Override
+    public int find(Automaton automaton, byte[] input, int start, int end) throws AutomatonException {
+        return find(automaton, input, start, end, 1);
+    }
+
+    // ----- Class methods -----
+
+    /**
+     * Find the first match in a part of an UTF-8 buffer holding many lines, with many threads for a huge input.
+     * The automaton goes back to its initial state at each line break, so a match never spans two lines
+     *
+     * @param automaton The unanchored automaton to use, built from a regex
+     * @param input The input buffer
+     * @param start The start of the input in the buffer, at a line start
+     * @param end The end of the input in the buffer (excluded)
+     * @param threads The number of threads which can search the input, 1 to search it in a single pass
+     * @return The position where the automaton accepts, -1 if no line matches
+     * @throws AutomatonException if the automaton is not deterministic or not unanchored
+     */
+    public int find(Automaton automaton, byte[] input, int start, int end, int threads) throws AutomatonException {
+        // Verify the automaton can be used in a single pass
+        if(!automaton.isUnanchored()) {
+            throw new AutomatonException("The automaton need to be unanchored");
+        }
+
+        // Run the line automaton
+        return search(automaton.getUtf8LineAutomaton(), automaton.getUtf8Prefilter(), input, start, end, threads);
+    }
+
+    /**
+     * Find the first accepting position of an unanchored byte automaton by running chunks of the input concurrently.
+     * The first chunk is run from the initial state, and each other chunk from every start state, in lanes merged
+     * when they reach the same state, to give the map of its start states to its end states. The maps are composed
+     * from the initial state as soon as they are known : once a chunk accepts from its composed start state,
+     * the next chunks are cancelled and the chunk is run again from this state to find the position
+     *
+     * @param compiled The byte automaton
+     * @param input The input buffer
+     * @param start The start of the input in the buffer
+     * @param end The end of the input in the buffer (excluded)
+     * @param threads The number of threads running the chunks, the threads of the current pool are used inside a pool
+     * @param chunkNumber The number of chunks
+     * @return The position of the byte where the automaton accepts, -1 if it never accepts
+     */
+    public static int findParallel(CompiledAutomaton compiled, byte[] input, int start, int end, int threads, int chunkNumber) {
+        // Cache the automaton components in local variables
+        int[] table = compiled.getTable();
+        int[] classMap = compiled.getAlphabet().getClassMap();
+        int alphabetSize = compiled.getAlphabetSize();
+        int firstAcceptState = compiled.getFirstAcceptState();
+        int initState = compiled.getInitState();
+
+        // If the initial state is accepting, every input is matching
+        if(initState >= firstAcceptState) return start;
+
+        // Compute the state maps of the chunks concurrently, the first chunk only from the initial state
+        boolean[] sinks = getSinks(compiled);
+        long length = end - start;
+        int[] bounds = new int[chunkNumber + 1];
+        for(int i = 0 ; i <= chunkNumber ; i++) bounds[i] = start + (int) (length * i / chunkNumber);
+        ChunkComposition composition = new ChunkComposition(chunkNumber, initState);
+        runConcurrently(threads, () -> IntStream.range(0, threads).parallel().forEach(worker -> {
+            // Each worker takes the next chunk in the input order, until no chunk is needed
+            for(int i = composition.nextChunk() ; composition.isNeeded(i) ; i = composition.nextChunk()) {
+                int[] map;
+                if(i == 0) {
+                    map = new int[compiled.getStateNumber()];
+                    map[initState] = runLane(compiled, initState, input, bounds[0], bounds[1], composition, 0);
+                } else {
+                    map = mapChunk(compiled, sinks, input, bounds[i], bounds[i + 1], composition, i);
+                }
+                if(map != null) composition.add(i, map);
+            }
+        }));
+
+        // Find the accepting position in the first accepting chunk
+        int acceptingChunk = composition.getAcceptingChunk();
+        if(acceptingChunk < 0) return -1;
+        int state = composition.getState();
+        for(int i = bounds[acceptingChunk] ; i < bounds[acceptingChunk + 1] ; i++) {
+            state = table[state * alphabetSize + classMap[input[i] & 0xFF]];
+            if(state >= firstAcceptState) return i;
+        }
+        throw new IllegalStateException("The accepting chunk " + acceptingChunk + " does not accept");
+    }
+
+    // ----- Internal methods -----
+
+    /**
+     * Search an input with an unanchored byte automaton, concurrently for the huge inputs without prefilter
+     * when many threads are given and the automaton is small enough, or else in a single pass
+     *
+     * @param compiled The byte automaton
+     * @param prefilter The prefilter of the automaton, can be null
+     * @param input The input buffer
+     * @param start The start of the input in the buffer
+     * @param end The end of the input in the buffer (excluded)
+     * @param threads The number of threads which can search the input
+     * @return The position of the byte where the automaton accepts, -1 if it never accepts
+     */
+    private static int search(CompiledAutomaton compiled, Prefilter prefilter, byte[] input, int start, int end, int threads) {
+        if(threads > 1 && prefilter == null && end - start >= PARALLEL_INPUT_SIZE && compiled.getStateNumber() <= PARALLEL_STATE_LIMIT) {
+            return findParallel(compiled, input, start, end, threads, threads * CHUNKS_PER_THREAD);
+        }
+        return run(compiled, prefilter, input, start, end);
+    }
+
+    /**
+     * Run a chunk of the input from every state of a byte automaton, the accepting states stopping the run.
+     * There is a lane per distinct current state : the lanes reaching the same state are merged, and the lanes
+     * in a sink state stop, so most of the chunk is run with a single lane
+     *
+     * @param compiled The byte automaton
+     * @param sinks The sink states of the automaton
+     * @param input The input buffer
+     * @param start The start of the chunk in the buffer
+     * @param end The end of the chunk in the buffer (excluded)
+     * @param composition The composition of the chunk maps, telling if the chunk is still needed
+     * @param index The index of the chunk
+     * @return The end state from each start state, ACCEPTED if an accepting state was reached, null if cancelled
+     */
+    private static int[] mapChunk(CompiledAutomaton compiled, boolean[] sinks, byte[] input, int start, int end,
+                                  ChunkComposition composition, int index) {
+        // Cache the automaton components in local variables
+        int[] table = compiled.getTable();
+        int[] classMap = compiled.getAlphabet().getClassMap();
+        int alphabetSize = compiled.getAlphabetSize();
+        int firstAcceptState = compiled.getFirstAcceptState();
+        int stateNumber = compiled.getStateNumber();
+
+        // Start a lane from each state
+        int[] lanes = new int[stateNumber];
+        int[] laneOf = new int[stateNumber];
+        for(int state = 0 ; state < stateNumber ; state++) {
+            lanes[state] = state;
+            laneOf[state] = state;
+        }
+        int laneNumber = stateNumber;
+        int[] laneOfState = new int[stateNumber];
+        int[] newLane = new int[stateNumber];
+
+        // Run the lanes by periods, and merge them after each period while many lanes are running
+        int pos = start;
+        int liveLanes = laneNumber;
+        while(pos < end && liveLanes > 1) {
+            int periodEnd = Math.min(pos + MERGE_PERIOD, end);
+            for(int lane = 0 ; lane < laneNumber ; lane++) {
+                int state = lanes[lane];
+                if(state == ACCEPTED || sinks[state]) continue;
+                for(int i = pos ; i < periodEnd ; i++) {
+                    state = table[state * alphabetSize + classMap[input[i] & 0xFF]];
+                    if(state >= firstAcceptState) {
+                        state = ACCEPTED;
+                        break;
+                    }
+                }
+                lanes[lane] = state;
+            }
+            pos = periodEnd;
+
+            // Keep the first lane of each current state
+            Arrays.fill(laneOfState, -1);
+            int acceptedLane = -1;
+            int count = 0;
+            liveLanes = 0;
+            for(int lane = 0 ; lane < laneNumber ; lane++) {
+                int state = lanes[lane];
+                if(state == ACCEPTED) {
+                    if(acceptedLane < 0) {
+                        acceptedLane = count;
+                        lanes[count++] = ACCEPTED;
+                    }
+                    newLane[lane] = acceptedLane;
+                } else {
+                    if(laneOfState[state] < 0) {
+                        laneOfState[state] = count;
+                        lanes[count++] = state;
+                        if(!sinks[state]) liveLanes++;
+                    }
+                    newLane[lane] = laneOfState[state];
+                }
+            }
+            for(int state = 0 ; state < stateNumber ; state++) laneOf[state] = newLane[laneOf[state]];
+            laneNumber = count;
+            if(!composition.isNeeded(index)) return null;
+        }
+
+        // Run the last live lane to the chunk end in a single pass
+        for(int lane = 0 ; lane < laneNumber && pos < end ; lane++) {
+            int state = lanes[lane];
+            if(state == ACCEPTED || sinks[state]) continue;
+            state = runLane(compiled, state, input, pos, end, composition, index);
+            if(state == CANCELLED) return null;
+            lanes[lane] = state;
+        }
+
+        // Return the end state of each start state
+        int[] res = new int[stateNumber];
+        for(int state = 0 ; state < stateNumber ; state++) res[state] = lanes[laneOf[state]];
+        return res;
+    }
+
+    /**
+     * Run a lane of a chunk from a state until the automaton accepts, checking the chunk is still needed
+     * between the periods of the run
+     *
+     * @param compiled The byte automaton
+     * @param state The start state of the lane
+     * @param input The input buffer
+     * @param start The start of the lane in the buffer
+     * @param end The end of the chunk in the buffer (excluded)
+     * @param composition The composition of the chunk maps, telling if the chunk is still needed
+     * @param index The index of the chunk
+     * @return The end state of the lane, ACCEPTED if an accepting state was reached, CANCELLED if the chunk is not needed
+     */
+    private static int runLane(CompiledAutomaton compiled, int state, byte[] input, int start, int end,
+                               ChunkComposition composition, int index) {
+        // Cache the automaton components in local variables
+        int[] table = compiled.getTable();
+        int[] classMap = compiled.getAlphabet().getClassMap();
+        int alphabetSize = compiled.getAlphabetSize();
+        int firstAcceptState = compiled.getFirstAcceptState();
+
+        // Run the lane by periods
+        for(int pos = start ; pos < end ; pos += CANCEL_PERIOD) {
+            if(!composition.isNeeded(index)) return CANCELLED;
+            int periodEnd = (int) Math.min((long) pos + CANCEL_PERIOD, end);
+            for(int i = pos ; i < periodEnd ; i++) {
+                state = table[state * alphabetSize + classMap[input[i] & 0xFF]];
+                if(state >= firstAcceptState) return ACCEPTED;
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Run a task with a number of threads : inside a pool, like the pool of a parallel search engine, the task
+     * runs with the threads of this pool, or else it runs in a new pool of the given number of threads
+     *
+     * @param threads The number of threads
+     * @param task The task to run
+     */
+    private static void runConcurrently(int threads, Runnable task) {
+        if(ForkJoinTask.inForkJoinPool()) {
+            task.run();
+            return;
+        }
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.invoke(ForkJoinTask.adapt(task));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Get the non accepting states that no byte leaves, like the state of the invalid UTF-8 inputs
+     *
+     * @param compiled The byte automaton
+     * @return The sink flag of each state
+     */
+    private static boolean[] getSinks(CompiledAutomaton compiled) {
+        int[] table = compiled.getTable();
+        int alphabetSize = compiled.getAlphabetSize();
+        boolean[] res = new boolean[compiled.getStateNumber()];
+        for(int state = 0 ; state < res.length ; state++) {
+            res[state] = !compiled.isAccepting(state);
+            for(int c = 0 ; c < alphabetSize && res[state] ; c++) res[state] = table[state * alphabetSize + c] == state;
+        }
+        return res;
+    }
+
+    /**
+     * Run an unanchored byte automaton over a part of an UTF-8 buffer until it accepts
+     *
+     * @param compiled The byte automaton
+     * @param prefilter The prefilter of the automaton, can be null
+     * @param input The input buffer
+     * @param start The start of the input in the buffer
+     * @param end The end of the input in the buffer (excluded)
+     * @return The position of the byte where the automaton accepts, -1 if it never accepts
+     */
+    private static int run(CompiledAutomaton compiled, Prefilter prefilter, byte[] input, int start, int end) {
+        // Cache the automaton components in local variables
+        int[] table = compiled.getTable();
+        int[] classMap = compiled.getAlphabet().getClassMap();
+        int alphabetSize = compiled.getAlphabetSize();
+        int firstAcceptState = compiled.getFirstAcceptState();
+        int initState = compiled.getInitState();
+        int state = initState;
+
+        // If the initial state is accepting, every input is matching
+        if(state >= firstAcceptState) return start;
+
+        // Without prefilter, input all the bytes until an accepting state is reached
+        if(prefilter == null) {
+            for(int i = start ; i < end ; i++) {
+                state = table[state * alphabetSize + classMap[input[i] & 0xFF]];
+                if(state >= firstAcceptState) return i;
+            }
+            return -1;
+        }
+
+        // With the prefilter, jump to the next candidate byte each time the automaton is back in its initial state
+        int i = start;
+        while(true) {
+            i = prefilter.next(input, i, end);
+            if(i == end) return -1;
+            do {
+                state = table[state * alphabetSize + classMap[input[i++] & 0xFF]];
+                if(state >= firstAcceptState) return i - 1;
+            } while(state != initState && i < end);
+            if(state != initState) return -1;
+        }
+    }
+
+    // ----- Internal classes -----
+
+    /**
+     * This class composes the state maps of the chunks in the input order, as soon as they are computed.
+     * It stops at the first chunk accepting from its composed start state : the next chunks are not needed anymore
+     */
+    private static class ChunkComposition {
+
+        private final int[][] maps;
+        private final AtomicInteger nextChunk = new AtomicInteger();
+        private volatile int lastNeededChunk;
+        private int composedChunks = 0;
+        private int state;
+        private int acceptingChunk = -1;
+
+        ChunkComposition(int chunkNumber, int initState) {
+            maps = new int[chunkNumber][];
+            lastNeededChunk = chunkNumber - 1;
+            state = initState;
+        }
+
+        /**
+         * Take the next chunk to run
+         *
+         * @return The index of the chunk, maybe after the last chunk
+         */
+        int nextChunk() {
+            return nextChunk.getAndIncrement();
+        }
+
+        /**
+         * Get if a chunk is needed, that is if it exists and no previous chunk accepts
+         *
+         * @param index The index of the chunk
+         * @return True if the chunk is needed
+         */
+        boolean isNeeded(int index) {
+            return index <= lastNeededChunk;
+        }
+
+        /**
+         * Add the map of a chunk and compose the maps following the composed ones
+         *
+         * @param index The index of the chunk
+         * @param map The state map of the chunk
+         */
+        synchronized void add(int index, int[] map) {
+            maps[index] = map;
+            while(acceptingChunk < 0 && composedChunks < maps.length && maps[composedChunks] != null) {
+                int next = maps[composedChunks][state];
+                if(next == ACCEPTED) {
+                    acceptingChunk = composedChunks;
+                    lastNeededChunk = composedChunks;
+                } else {
+                    state = next;
+                    composedChunks++;
+                }
+            }
+        }
+
+        /**
+         * Get the first chunk accepting from its composed start state, after the chunks are run
+         *
+         * @return The index of the accepting chunk, -1 if no chunk accepts
+         */
+        synchronized int getAcceptingChunk() {
+            return acceptingChunk;
+        }
+
+        /**
+         * Get the composed state, after the chunks are run
+         *
+         * @return The start state of the accepting chunk, or the end state of the input if no chunk accepts
+         */
+        synchronized int getState() {
+            return state;
+        }
+
+    }
+
+}
@@ -0,0 +1,111 @@
+package egrep.main.search_engine;
+
+import egrep.main.automaton.Automaton;
+import egrep.main.exceptions.AutomatonException;
+import egrep.main.utils.ByteScanner;
+
+/**
+ * This class implements a prefilter then verify search : a fast literal search looks for the literals required by
+ * every match of the regex (see the RequiredLiterals class), and the regex strategy only verifies the inputs containing one
+ *
+ * @author Emilie SIAU
+ * @author Hugo GUERRIER
+ */
+public class FilteredStrategy implements SearchStrategy {
+
+    // ----- Attributes -----
+
+    private final SearchStrategy filter;
+    private final SearchStrategy verifier;
+    private final int minLength;
+    private final ByteScanner scanner;
+
+    // ----- Constructors -----
+
+    /**
+     * Create a new filtered strategy
+     *
+     * @param filter The literal search strategy, it must not use an automaton
+     * @param verifier The regex search strategy
+     * @param minLength The minimal match length, in UTF-16 characters
+     */
+    public FilteredStrategy(SearchStrategy filter, SearchStrategy verifier, int minLength) {
+        this.filter = filter;
+        this.verifier = verifier;
+        this.minLength = minLength;
+        scanner = ByteScanner.getInstance();
+    }
+
+    // ----- Getters -----
+
+    public SearchStrategy getFilter() {
+        return filter;
+    }
+
+    public SearchStrategy getVerifier() {
+        return verifier;
+    }
+
+    // ----- Override methods -----
+
+    /**
+     * Tell if the input contains a match, verified only if the input is long enough and contains a required literal
+     *
+     * @param automaton The automaton of the verifier strategy
+     * @param input The input string
+     * @return true if the input contains a match, false otherwise
+     * @throws AutomatonException If the verifier automaton has an error
+     */
+    @Override
+    public boolean isMatching(Automaton automaton, String input) throws AutomatonException {
+        return input.length() >= minLength && filter.isMatching(null, input) && verifier.isMatching(automaton, input);
+    }
+
+    /**
+     * Tell if the UTF-8 input contains a match, verified only if the input is long enough and contains a required literal
+     * A UTF-8 input never has less bytes than UTF-16 characters
+     *
+     * @param automaton The automaton of the verifier strategy
+     * @param input The input buffer
+     * @param start The start of the input in the buffer
+     * @param end The end of the input in the buffer (excluded)
+     * @return true if the input contains a match, false otherwise
+     * @throws AutomatonException If the verifier automaton has an error
+     */
+    @Override
+    public boolean isMatching(Automaton automaton, byte[] input, int start, int end) throws AutomatonException {
+        return end - start >= minLength && filter.isMatching(null, input, start, end) && verifier.isMatching(automaton, input, start, end);
+    }
+
+    /**
+     * Find the first match in a part of an UTF-8 buffer holding many lines : the literal search runs over all the lines,
+     * and only the lines holding a required literal are verified
+     *
+     * @param automaton The automaton of the verifier strategy
+     * @param input The input buffer
+     * @param start The start of the input in the buffer, at a line start
+     * @param end The end of the input in the buffer (excluded)
+     * @return The start of the first matched line, -1 if no line matches
+     * @throws AutomatonException If the verifier automaton has an error
+     */
+    @Override
+    public int find(Automaton automaton, byte[] input, int start, int end) throws AutomatonException {
+        int pos = start;
+        while(pos < end) {
+            // Find the next literal
+            int candidate = filter.find(null, input, pos, end);
+            if(candidate < 0) return -1;
+
+            // Verify the line holding it
+            int lineStart = candidate;
+            while(lineStart > pos && input[lineStart - 1] != '\n') lineStart--;
+            int lineEnd = scanner.indexOf(input, candidate, end, (byte) '\n');
+            if(isMatching(automaton, input, lineStart, lineEnd)) return lineStart;
+            pos = lineEnd + 1;
+        }
+
+        // The default result, if no line matches
+        return -1;
+    }
+
+}
@@ -0,0 +1,147 @@
+package egrep.main.search_engine;
+
+import egrep.main.automaton.Automaton;
+import egrep.main.exceptions.AutomatonException;
+import egrep.main.utils.ByteScanner;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * This class implements the Boyer-Moore-Horspool search of a literal string over the UTF-8 bytes
+ * The window is compared from its end, and after a mismatch it is shifted following its last byte,
+ * so most of the input bytes are never read for long literals.
+ * With the Vector API, the candidate windows starting and ending like the literal are found many bytes at a time instead
+ *
+ * @author Emilie SIAU
+ * @author Hugo GUERRIER
+ */
+public class HorspoolStrategy implements SearchStrategy {
+
+    // ----- Macros -----
+
+    private static final int BYTE_NUMBER = 256;
+
+    // ----- Attributes -----
+
+    private final byte[] literal;
+    private final int[] shifts;
+    private final ByteScanner scanner;
+
+    // ----- Constructors -----
+
+    /**
+     * Create a new Horspool strategy
+     *
+     * @param literal The literal string to search
+     */
+    public HorspoolStrategy(String literal) {
+        this.literal = literal.getBytes(StandardCharsets.UTF_8);
+
+        // The shift of a byte is its distance from the literal end, the last byte excluded
+        int length = this.literal.length;
+        shifts = new int[BYTE_NUMBER];
+        Arrays.fill(shifts, length);
+        for(int i = 0 ; i < length - 1 ; i++) shifts[this.literal[i] & 0xFF] = length - 1 - i;
+        scanner = ByteScanner.getInstance();
+    }
+
+    // ----- Class methods -----
+
+    /**
+     * Count the distinct bytes of the UTF-8 encoded literal, the more there are the longer the shifts are
+     *
+     * @param literal The literal string
+     * @return The number of distinct bytes
+     */
+    public static int countDistinctBytes(String literal) {
+        boolean[] used = new boolean[BYTE_NUMBER];
+        int res = 0;
+        for(byte b : literal.getBytes(StandardCharsets.UTF_8)) {
+            if(!used[b & 0xFF]) {
+                used[b & 0xFF] = true;
+                res++;
+            }
+        }
+        return res;
+    }
+
+    // ----- Override methods -----
+
+    /**
+     * Tell if the input contains the literal, using the Horspool strategy
+     *
+     * @param ignored The automaton is ignored. You can give a null automaton
+     * @param input The input string
+     * @return true if the input contains the literal, false otherwise
+     * @throws AutomatonException Cannot happen. Does not use automaton (ignored)
+     */
+    @Override
+    public boolean isMatching(Automaton ignored, String input) throws AutomatonException {
+        byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+        return isMatching(ignored, bytes, 0, bytes.length);
+    }
+
+    /**
+     * Tell if the UTF-8 input contains the literal, using the Horspool strategy
+     *
+     * @param ignored The automaton is ignored. You can give a null automaton
+     * @param input The input buffer
+     * @param start The start of the input in the buffer
+     * @param end The end of the input in the buffer (excluded)
+     * @return true if the input contains the literal, false otherwise
+     * @throws AutomatonException Cannot happen. Does not use automaton (ignored)
+     */
+    @Override
+    public boolean isMatching(Automaton ignored, byte[] input, int start, int end) throws AutomatonException {
+        return find(ignored, input, start, end) >= 0;
+    }
+
+    /**
+     * Find the first occurrence of the literal in a part of an UTF-8 buffer, which can hold many lines
+     *
+     * @param ignored The automaton is ignored. You can give a null automaton
+     * @param input The input buffer
+     * @param start The start of the input in the buffer
+     * @param end The end of the input in the buffer (excluded)
+     * @return The position of the occurrence, -1 if there is none
+     */
+    @Override
+    public int find(Automaton ignored, byte[] input, int start, int end) {
+        // Cache the attributes in local variables
+        byte[] literal = this.literal;
+        int[] shifts = this.shifts;
+        int last = literal.length - 1;
+
+        // The empty literal is in every input
+        if(last < 0) return start;
+
+        // Verify the candidate windows found by the vector scanner
+        if(scanner.isVectorized()) {
+            for(int pos = start ; pos <= end - literal.length ; pos++) {
+                pos = scanner.indexOfPair(input, pos, end, literal[0], literal[last], last);
+                if(pos > end - literal.length) return -1;
+                int i = 1;
+                while(i < last && input[pos + i] == literal[i]) i++;
+                if(i >= last) return pos;
+            }
+            return -1;
+        }
+
+        // Slide the window over the input, from its last byte
+        byte lastByte = literal[last];
+        for(int pos = start + last ; pos < end ; pos += shifts[input[pos] & 0xFF]) {
+            if(input[pos] == lastByte) {
+                // Compare the rest of the window from its end
+                int i = last - 1;
+                int offset = pos - last;
+                while(i >= 0 && input[offset + i] == literal[i]) i--;
+                if(i < 0) return offset;
+            }
+        }
+
+        // The default result, if the input cannot match
+        return -1;
+    }
+
+}
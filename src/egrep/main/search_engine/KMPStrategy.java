@@ -3,23 +3,43 @@ package egrep.main.search_engine;
 import egrep.main.automaton.Automaton;
 import egrep.main.exceptions.AutomatonException;
 import egrep.main.parser.RegExParser;
+import egrep.main.parser.RegExTree;
+import egrep.main.utils.ByteScanner;
+import egrep.main.utils.Utf8;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Set;
 
 /**
  * This class implements the Knuth-Morris-Pratt (KMP) algorithm search on simple strings
+ * The KMP automaton runs over the UTF-8 bytes of the longest part of the string without dot (the anchor), so the input
+ * is never read backward, and each anchor occurrence is verified with the rest of the string, a dot matching any
+ * UTF-16 character but a line break, like in the other strategies : a supplementary code point is read by two dots.
+ * It can run over a buffer of many lines and returns the match positions. An anchor occurrence can be verified
+ * at each input byte, so the search is only linear when few characters are out of the anchor
  *
  * @author Emilie SIAU
  * @author Hugo GUERRIER
  */
 public class KMPStrategy implements SearchStrategy {
 
+    // ----- Macros -----
+
+    public static final int MAX_VERIFIED_LENGTH = 64; // The characters out of the anchor for a linear search
+
     // ----- Attributes -----
 
     private final Set<Character> ignoredChars;
+    private final ByteScanner scanner;
     private String regex;      // The regex representation
-    private int[] carryOver;    // The carry over array
+    private byte[][] units;     // The UTF-8 bytes of each character of the regex, null for a dot
+    private int anchorStart;    // The first character of the anchor in the regex
+    private int anchorEnd;      // The end of the anchor in the regex (excluded)
+    private byte[] anchor;      // The UTF-8 bytes of the anchor
+    private int[] carryOver;    // The carry over array of the anchor
+    private int anchorBorder;   // The size of the greatest border of the full anchor
 
     // ----- Constructors -----
 
@@ -28,14 +48,27 @@ public class KMPStrategy implements SearchStrategy {
         ignoredChars = new HashSet<>();
         ignoredChars.add('(');
         ignoredChars.add(')');
+        scanner = ByteScanner.getInstance();
 
         // Sanitize the string by ignoring those ignored characters
         sanitize(regex);
 
-        // Create the carry over array from the sanitized string
+        // Find the anchor and create its carry over array
+        buildAnchor();
         buildCarryOver();
     }
 
+    // ----- Getters -----
+
+    /**
+     * Get the number of characters verified around each anchor occurrence
+     *
+     * @return The number of characters and dots out of the anchor
+     */
+    public int getVerifiedLength() {
+        return units.length - (anchorEnd - anchorStart);
+    }
+
     // ----- Class methods -----
 
     /**
@@ -67,42 +100,78 @@ public class KMPStrategy implements SearchStrategy {
     }
 
     /**
-     * Build the carry over array for the KMP algorithm
+     * Split the sanitized string in characters and find its longest part without dot, the anchor
      */
-    private void buildCarryOver() {
-        // Initialize the carry over array
-        carryOver = new int[regex.length()];
-        carryOver[0] = -1;                     // First value is always -1
-
-        // Iterate on the factor (F) (ignoring first character) to compute each corresponding value of the carry over (CO)
-        for (int i = 1; i < regex.length() ; i++) {
-            // CO[i] = size of the greatest suffix of F[1:i[ that is also a prefix of F
-
-            // --- Compute all the suffixes for F[1:i[
-            Set<String> suffixes = new HashSet<>();
-            for (int j = 1 ; j < i ; j++) {
-                suffixes.add(regex.substring(j, i));
-            }
+    private void buildAnchor() {
+        // Encode each character, the dots are null
+        int[] codePoints = regex.codePoints().toArray();
+        units = new byte[codePoints.length][];
+        for (int i = 0 ; i < codePoints.length ; i++) {
+            if (codePoints[i] != '.') units[i] = new String(codePoints, i, 1).getBytes(StandardCharsets.UTF_8);
+        }
 
-            // --- Match the suffixes as prefixes of F and pick the longest one
-            int maxSize = 0;
-            for (String suffix : suffixes) {
-                if (regex.startsWith(suffix)) {
-                    if (suffix.length() > maxSize) maxSize = suffix.length();
+        // Find the longest run of characters
+        anchorStart = 0;
+        anchorEnd = 0;
+        int runStart = 0;
+        for (int i = 0 ; i <= units.length ; i++) {
+            if (i == units.length || units[i] == null) {
+                if (i - runStart > anchorEnd - anchorStart) {
+                    anchorStart = runStart;
+                    anchorEnd = i;
                 }
+                runStart = i + 1;
             }
+        }
+
+        // Concatenate the anchor bytes
+        int length = 0;
+        for (int i = anchorStart ; i < anchorEnd ; i++) length += units[i].length;
+        anchor = new byte[length];
+        int pos = 0;
+        for (int i = anchorStart ; i < anchorEnd ; i++) {
+            System.arraycopy(units[i], 0, anchor, pos, units[i].length);
+            pos += units[i].length;
+        }
+    }
+
+    /**
+     * Build the carry over array for the KMP algorithm, in a time linear in the anchor size
+     */
+    private void buildCarryOver() {
+        // Initialize the carry over array
+        carryOver = new int[anchor.length];
+        if (anchor.length == 0) return;
+        carryOver[0] = -1;                     // First value is always -1
 
-            carryOver[i] = maxSize;
+        // CO[i] = size of the greatest suffix of F[1:i[ that is also a prefix of F. The border of F[0:i+1[ extends
+        // a border of F[0:i[, so the candidates are the borders of the borders of the previous prefix
+        int border = -1;
+        for (int i = 0 ; i < anchor.length ; i++) {
+            while (border >= 0 && anchor[border] != anchor[i]) border = carryOver[border];
+            border++;
+            if (i + 1 < anchor.length) carryOver[i + 1] = border;
         }
+        anchorBorder = border;
 
         // Optimizing the carry over values (eliminating redundancy)
-        for (int i = 0; i < regex.length() ; i++) {
-            if (carryOver[i] >= 0 && regex.charAt(i) == regex.charAt(carryOver[i])) {
+        for (int i = 0; i < anchor.length ; i++) {
+            if (carryOver[i] >= 0 && anchor[i] == anchor[carryOver[i]]) {
                 carryOver[i] = carryOver[carryOver[i]];
             }
         }
     }
 
+    /**
+     * Create the regex tree of the string, to search it with another strategy. The concatenations are balanced,
+     * so the depth of the tree stays small for a long string
+     *
+     * @return The regex tree, a dot being the universal character
+     */
+    public RegExTree createTree() {
+        return createTree(0, regex.length());
+    }
+
     public boolean equalsCarryOver(int[] expectedCarryOver) {
         if (expectedCarryOver.length != carryOver.length) return false;
         for (int i = 0 ; i < carryOver.length ; i++) {
@@ -111,7 +180,6 @@ public class KMPStrategy implements SearchStrategy {
         return true;
     }
 
-
     // ----- Override methods -----
 
     /**
@@ -124,30 +192,178 @@ public class KMPStrategy implements SearchStrategy {
      */
     @Override
     public boolean isMatching(Automaton ignored, String input) throws AutomatonException {
-        // Prepare the working variables
-        int inputPos = 0;
+        byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+        return find(ignored, bytes, 0, bytes.length) >= 0;
+    }
+
+    /**
+     * Tell if the UTF-8 input corresponds to the regex, using the KMP strategy
+     *
+     * @param ignored The automaton is ignored. You can give a null automaton
+     * @param input The input buffer
+     * @param start The start of the input in the buffer
+     * @param end The end of the input in the buffer (excluded)
+     * @return true if the input matches with the regex, false otherwise
+     * @throws AutomatonException Cannot happen. Does not use automaton (ignored)
+     */
+    @Override
+    public boolean isMatching(Automaton ignored, byte[] input, int start, int end) throws AutomatonException {
+        return find(ignored, input, start, end) >= 0;
+    }
+
+    /**
+     * Find the first match in a part of an UTF-8 buffer, which can hold many lines. A match never spans a line break
+     *
+     * @param ignored The automaton is ignored. You can give a null automaton
+     * @param input The input buffer
+     * @param start The start of the input in the buffer, at a line start
+     * @param end The end of the input in the buffer (excluded)
+     * @return The position of the match start, -1 if there is none
+     */
+    @Override
+    public int find(Automaton ignored, byte[] input, int start, int end) {
+        // Cache the attributes in local variables
+        byte[] anchor = this.anchor;
+        int[] carryOver = this.carryOver;
+        int length = anchor.length;
+
+        // Without anchor, try every character position
+        if (length == 0) {
+            for (int pos = start ; pos <= end ; pos = pos < end ? Utf8.characterEnd(input, pos, end) : end + 1) {
+                int res = verify(input, start, end, pos);
+                if (res >= 0) return res;
+            }
+            return -1;
+        }
+
+        // Run the KMP automaton over the input, and verify each occurrence of the anchor
         int regexPos = 0;
+        for (int inputPos = start ; inputPos < end ; inputPos++) {
+            // Without partial match, jump to the next occurrence of the anchor first byte
+            if (regexPos == 0) {
+                inputPos = scanner.indexOf(input, inputPos, end, anchor[0]);
+                if (inputPos == end) break;
+            }
+
+            // Use the carry over to find the longest prefix of the anchor still matching
+            while (regexPos >= 0 && input[inputPos] != anchor[regexPos]) regexPos = carryOver[regexPos];
+            regexPos++;
+
+            // The full anchor matches, verify the rest of the string around it
+            if (regexPos == length) {
+                int res = verify(input, start, end, inputPos + 1 - length);
+                if (res >= 0) return res;
+                regexPos = anchorBorder;
+            }
+        }
+
+        // The default result, if we tested all the input without finding a match
+        return -1;
+    }
+
+    // ----- Internal methods -----
 
-        // Iterate over all the input
-        while (inputPos < input.length()) {
+    /**
+     * Create the balanced concatenation tree of a part of the string
+     *
+     * @param from The start of the part
+     * @param to The end of the part (excluded), after the start
+     * @return The regex tree of the part
+     */
+    private RegExTree createTree(int from, int to) {
+        if (to - from == 1) {
+            char c = regex.charAt(from);
+            return new RegExTree(c == '.' ? RegExParser.DOT : c, new ArrayList<>());
+        }
+
+        int middle = (from + to) >>> 1;
+        ArrayList<RegExTree> subTrees = new ArrayList<>();
+        subTrees.add(createTree(from, middle));
+        subTrees.add(createTree(middle, to));
+        return new RegExTree(RegExParser.CONCAT, subTrees);
+    }
 
-            // Test if there is a match (the dot character always matches)
-            if (input.charAt(inputPos) == regex.charAt(regexPos) || regex.charAt(regexPos) == '.') {
-                // It's a match ! Go to the next character to test
-                inputPos++;
-                regexPos++;
+    /**
+     * Verify the characters of the regex before and after an anchor occurrence
+     *
+     * @param input The input buffer
+     * @param start The start of the input in the buffer
+     * @param end The end of the input in the buffer (excluded)
+     * @param anchorPos The position of the anchor occurrence
+     * @return The position of the match start, -1 if the occurrence is not a match
+     */
+    private int verify(byte[] input, int start, int end, int anchorPos) {
+        // Verify the characters before the anchor, backward. A dot reading the low surrogate of a supplementary
+        // code point leaves its high surrogate, which only a dot can read
+        int pos = anchorPos;
+        boolean half = false;
+        for (int i = anchorStart - 1 ; i >= 0 ; i--) {
+            if (units[i] == null) {
+                if (half) {
+                    half = false;
+                    continue;
+                }
+                if (pos == start) return -1;
+                int previous = Utf8.characterStart(input, start, pos);
+                if (!isDotMatching(input, previous, end)) return -1;
+                half = Utf8.unitNumber(previous, pos) == 2;
+                pos = previous;
             } else {
-                // Not a match. Use the carry over to update the input position, and return to the start of the regex
-                inputPos = inputPos - carryOver[regexPos];
-                regexPos = 0;
+                pos -= units[i].length;
+                if (half || pos < start || !isUnitMatching(input, pos, units[i])) return -1;
             }
+        }
+        int res = pos;
 
-            // If we tested all the regex without problems, return true
-            if (regexPos == regex.length()) return true;
+        // Verify the characters after the anchor, a dot reading a high surrogate leaves the low one
+        pos = anchorPos + anchor.length;
+        half = false;
+        for (int i = anchorEnd ; i < units.length ; i++) {
+            if (units[i] == null) {
+                if (half) {
+                    half = false;
+                    continue;
+                }
+                if (pos == end || !isDotMatching(input, pos, end)) return -1;
+                int next = Utf8.characterEnd(input, pos, end);
+                half = Utf8.unitNumber(pos, next) == 2;
+                pos = next;
+            } else {
+                if (half || pos + units[i].length > end || !isUnitMatching(input, pos, units[i])) return -1;
+                pos += units[i].length;
+            }
         }
 
-        // The default result, if we tested all the input without finding a match
-        return false;
+        // Return the match start
+        return res;
+    }
+
+    /**
+     * Tell if the input has the bytes of a character at a position
+     *
+     * @param input The input buffer
+     * @param pos The position in the buffer
+     * @param unit The UTF-8 bytes of the character
+     * @return True if the bytes are equal
+     */
+    private static boolean isUnitMatching(byte[] input, int pos, byte[] unit) {
+        for (int i = 0 ; i < unit.length ; i++) {
+            if (input[pos + i] != unit[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Tell if a dot matches the character at a position : any character but a line break
+     *
+     * @param input The input buffer
+     * @param pos The position of the character
+     * @param end The end of the input in the buffer (excluded)
+     * @return True if the dot matches
+     */
+    private static boolean isDotMatching(byte[] input, int pos, int end) {
+        byte b = input[pos];
+        return b != '\n' && !(b == '\r' && (pos + 1 == end || input[pos + 1] == '\n'));
     }
 
 }
@@ -0,0 +1,93 @@
+package egrep.main.search_engine;
+
+import egrep.main.automaton.Alphabet;
+import egrep.main.automaton.Automaton;
+import egrep.main.automaton.LazyAutomaton;
+import egrep.main.exceptions.AutomatonException;
+
+import static egrep.main.automaton.Automaton.CHAR_NUMBER;
+import static egrep.main.automaton.LazyAutomaton.UNKNOWN_STATE;
+
+/**
+ * This class implements the regex search with a lazy DFA : the DFA states are built
+ * only when the input reaches them, so there is no full DFA construction before the search
+ *
+ * @author Emilie SIAU
+ * @author Hugo GUERRIER
+ */
+public class LazyDFAStrategy implements SearchStrategy {
+
+    // ----- Attributes -----
+
+    private final LazyAutomaton lazyAutomaton;
+
+    // ----- Constructors -----
+
+    /**
+     * Create a new lazy DFA strategy
+     *
+     * @param lazyAutomaton The unanchored lazy automaton to search with
+     */
+    public LazyDFAStrategy(LazyAutomaton lazyAutomaton) {
+        this.lazyAutomaton = lazyAutomaton;
+    }
+
+    // ----- Getters -----
+
+    public LazyAutomaton getLazyAutomaton() {
+        return lazyAutomaton;
+    }
+
+    // ----- Override methods -----
+
+    /**
+     * Tell if the input contains a match of the lazy automaton in a single pass
+     *
+     * @param ignored The automaton is ignored, the strategy uses its lazy automaton. You can give a null automaton
+     * @param input The input string
+     * @return true if the input contains a match, false otherwise
+     * @throws AutomatonException Cannot happen. Does not use automaton (ignored)
+     */
+    @Override
+    public boolean isMatching(Automaton ignored, String input) throws AutomatonException {
+        // Cache the lazy automaton components in local variables
+        LazyAutomaton lazy = lazyAutomaton;
+        int[] transitions = lazy.getTransitions();
+        boolean[] accepting = lazy.getAccepting();
+        Alphabet alphabet = lazy.getAlphabet();
+        int[] classMap = alphabet.getClassMap();
+        int alphabetSize = lazy.getAlphabetSize();
+        int state = lazy.getInitState();
+        long missCount = 0;
+
+        // If the initial state is accepting, every input is matching
+        if(accepting[state]) return true;
+
+        // Input all the characters until an accepting state is reached
+        int length = input.length();
+        for(int i = 0 ; i < length ; i++) {
+            char c = input.charAt(i);
+            int cls = c < CHAR_NUMBER ? classMap[c] : alphabet.classOfWide(c);
+            int next = transitions[state * alphabetSize + cls];
+
+            // Build the missing state, the cache arrays may have changed
+            if(next == UNKNOWN_STATE) {
+                next = lazy.computeTransition(state, cls);
+                transitions = lazy.getTransitions();
+                accepting = lazy.getAccepting();
+                missCount++;
+            }
+
+            state = next;
+            if(accepting[state]) {
+                lazy.addHits(i + 1 - missCount);
+                return true;
+            }
+        }
+
+        // The default result, if the input cannot match
+        lazy.addHits(length - missCount);
+        return false;
+    }
+
+}
@@ -0,0 +1,143 @@
+package egrep.main.search_engine;
+
+import egrep.main.utils.ByteScanner;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * This class reads an input stream line by line without decoding it
+ * The lines are given as a part of a byte buffer which grows for the long lines, without their line break
+ *
+ * @author Emilie SIAU
+ * @author Hugo GUERRIER
+ */
+public class LineReader implements Closeable {
+
+    // ----- Macros -----
+
+    public static final int BUFFER_SIZE = 64 * 1024;
+    public static final int MAX_BUFFER_SIZE = Integer.MAX_VALUE - 8;
+
+    // ----- Attributes -----
+
+    private final InputStream input;
+    private final ByteScanner scanner;
+    private byte[] buffer;
+    private int bufferEnd;
+    private boolean endOfFile;
+
+    // --- The current line
+    private int lineStart;
+    private int lineEnd;
+    private int nextStart;
+    private int lineNumber;
+
+    // ----- Constructors -----
+
+    /**
+     * Create a new line reader
+     *
+     * @param input The input stream to read
+     */
+    public LineReader(InputStream input) {
+        this.input = input;
+        scanner = ByteScanner.getInstance();
+        buffer = new byte[BUFFER_SIZE];
+        bufferEnd = 0;
+        endOfFile = false;
+        lineStart = 0;
+        lineEnd = 0;
+        nextStart = 0;
+        lineNumber = 0;
+    }
+
+    // ----- Getters -----
+
+    public byte[] getBuffer() {
+        return buffer;
+    }
+
+    public int getLineStart() {
+        return lineStart;
+    }
+
+    public int getLineEnd() {
+        return lineEnd;
+    }
+
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    // ----- Override methods -----
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    // ----- Class methods -----
+
+    /**
+     * Go to the next line
+     *
+     * @return True if there is a next line, false at the end of the input
+     * @throws IOException If the input cannot be read
+     */
+    public boolean next() throws IOException {
+        int start = nextStart;
+        int scan = start;
+        while(true) {
+            // Look for the end of the current line
+            int end = scanner.indexOf(buffer, scan, bufferEnd, (byte) '\n');
+
+            if(end < bufferEnd || (endOfFile && start < bufferEnd)) {
+                // Set the line without its carriage return
+                nextStart = end + 1;
+                if(end > start && buffer[end - 1] == '\r') end--;
+                lineStart = start;
+                lineEnd = end;
+                lineNumber++;
+                return true;
+            } else if(endOfFile) {
+                return false;
+            } else {
+                // Move the current line at the buffer start, grow the buffer if the line fills it, and read more bytes
+                System.arraycopy(buffer, start, buffer, 0, bufferEnd - start);
+                bufferEnd -= start;
+                start = 0;
+                scan = bufferEnd;
+                if(bufferEnd == buffer.length) buffer = grow(buffer);
+                int read = input.read(buffer, bufferEnd, buffer.length - bufferEnd);
+                if(read < 0) endOfFile = true;
+                else bufferEnd += read;
+            }
+        }
+    }
+
+    /**
+     * Decode the current line
+     *
+     * @return The current line
+     */
+    public String getLine() {
+        return new String(buffer, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Double the size of the buffer holding a long line, up to the maximal array size
+     *
+     * @param buffer The full buffer
+     * @return The bigger buffer
+     * @throws IOException If the line does not fit in an array
+     */
+    private static byte[] grow(byte[] buffer) throws IOException {
+        if(buffer.length == MAX_BUFFER_SIZE) throw new IOException("A line is longer than " + MAX_BUFFER_SIZE + " bytes");
+        return Arrays.copyOf(buffer, (int) Math.min(2L * buffer.length, MAX_BUFFER_SIZE));
+    }
+
+}
@@ -0,0 +1,77 @@
+package egrep.main.search_engine;
+
+import egrep.main.automaton.Automaton;
+import egrep.main.automaton.MappedAutomaton;
+import egrep.main.exceptions.AutomatonException;
+
+/**
+ * This class implements the regex search with a precompiled DFA mapped from its file,
+ * so there is no regex parsing nor automaton construction before the search
+ *
+ * @author Emilie SIAU
+ * @author Hugo GUERRIER
+ */
+public class MappedDFAStrategy implements SearchStrategy {
+
+    // ----- Attributes -----
+
+    private final MappedAutomaton mappedAutomaton;
+
+    // ----- Constructors -----
+
+    /**
+     * Create a new mapped DFA strategy
+     *
+     * @param mappedAutomaton The mapped automaton to search with
+     */
+    public MappedDFAStrategy(MappedAutomaton mappedAutomaton) {
+        this.mappedAutomaton = mappedAutomaton;
+    }
+
+    // ----- Override methods -----
+
+    /**
+     * Tell if the input contains a match of the mapped automaton
+     *
+     * @param ignored The automaton is ignored, the strategy uses its mapped automaton. You can give a null automaton
+     * @param input The input string
+     * @return true if the input contains a match, false otherwise
+     * @throws AutomatonException Cannot happen. Does not use automaton (ignored)
+     */
+    @Override
+    public boolean isMatching(Automaton ignored, String input) throws AutomatonException {
+        return mappedAutomaton.isMatching(input);
+    }
+
+    /**
+     * Tell if the UTF-8 input contains a match of the mapped automaton
+     *
+     * @param ignored The automaton is ignored, the strategy uses its mapped automaton. You can give a null automaton
+     * @param input The input buffer
+     * @param start The start of the input in the buffer
+     * @param end The end of the input in the buffer (excluded)
+     * @return true if the input contains a match, false otherwise
+     * @throws AutomatonException Cannot happen. Does not use automaton (ignored)
+     */
+    @Override
+    public boolean isMatching(Automaton ignored, byte[] input, int start, int end) throws AutomatonException {
+        return mappedAutomaton.isMatching(input, start, end);
+    }
+
+    /**
+     * Find the first match in a part of an UTF-8 buffer holding many lines, with the mapped line automaton
+     * and its prefilter
+     *
+     * @param ignored The automaton is ignored, the strategy uses its mapped automaton. You can give a null automaton
+     * @param input The input buffer
+     * @param start The start of the input in the buffer, at a line start
+     * @param end The end of the input in the buffer (excluded)
+     * @return The position where the automaton accepts, -1 if no line matches
+     * @throws AutomatonException Cannot happen. Does not use automaton (ignored)
+     */
+    @Override
+    public int find(Automaton ignored, byte[] input, int start, int end) throws AutomatonException {
+        return mappedAutomaton.find(input, start, end);
+    }
+
+}
@@ -0,0 +1,163 @@
+package egrep.main.search_engine;
+
+import egrep.main.automaton.CompiledAutomaton;
+import egrep.main.automaton.LazyAutomaton;
+import egrep.main.exceptions.AutomatonException;
+import egrep.main.parser.RegExTree;
+import egrep.main.utils.Pair;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * This class finds the leftmost-longest matches of a regex in an input, without backtracking.
+ * An unanchored DFA of the reversed regex reads the input from its end and marks every position where
+ * a match starts, then an anchored DFA of the regex reads from the leftmost start to find the longest end.
+ * A DFA which would have too many states is replaced by a lazy DFA
+ *
+ * @author Emilie SIAU
+ * @author Hugo GUERRIER
+ */
+public class MatchFinder {
+
+    // ----- Attributes -----
+
+    private final Direction forward;
+    private final Direction reverse;
+
+    // ----- Constructors -----
+
+    /**
+     * Create a new match finder for a regex tree
+     *
+     * @param tree The regex tree
+     * @throws AutomatonException If there is an exception during the automata creation
+     */
+    public MatchFinder(RegExTree tree) throws AutomatonException {
+        forward = createDirection(tree, false);
+        reverse = createDirection(tree.reverse(), true);
+    }
+
+    // ----- Class methods -----
+
+    /**
+     * Find all the non overlapping leftmost-longest matches in an input. The empty matches are ignored
+     *
+     * @param input The input string
+     * @return The list of the match spans as pairs (start, end), the end is excluded
+     */
+    public List<Pair<Integer, Integer>> findMatches(String input) {
+        // Prepare the result
+        List<Pair<Integer, Integer>> res = new ArrayList<>();
+
+        // Get the starts, then take the longest match from the leftmost start after the previous match
+        BitSet starts = getStarts(input);
+        int start = starts.nextSetBit(0);
+        while(start >= 0 && start < input.length()) {
+            int end = getLongestEnd(input, start);
+            if(end > start) {
+                res.add(new Pair<>(start, end));
+                start = starts.nextSetBit(end);
+            } else {
+                start = starts.nextSetBit(start + 1);
+            }
+        }
+
+        // Return the result
+        return res;
+    }
+
+    // ----- Internal methods -----
+
+    /**
+     * Create the automaton of a reading direction, the minimal DFA if it has not too many states or else a lazy DFA
+     *
+     * @param tree The regex tree
+     * @param unanchored If the automaton should be unanchored
+     * @return The automaton of the direction
+     * @throws AutomatonException If there is an exception during the NDFA creation
+     */
+    private static Direction createDirection(RegExTree tree, boolean unanchored) throws AutomatonException {
+        try {
+            return new Direction(SearchEngine.createAutomaton(tree, unanchored, SearchEngine.DFA_STATE_LIMIT).getCompiled(), null);
+        } catch (AutomatonException e) {
+            return new Direction(null, new LazyAutomaton(tree, unanchored));
+        }
+    }
+
+    /**
+     * Get the positions where a match starts by reading the input backward with the reversed regex DFA
+     *
+     * @param input The input string
+     * @return The set of the match starts
+     */
+    private BitSet getStarts(String input) {
+        BitSet res = new BitSet(input.length() + 1);
+        int state = reverse.getInitState();
+        if(reverse.isAccepting(state)) res.set(input.length());
+        for(int i = input.length() - 1 ; i >= 0 ; i--) {
+            state = reverse.next(state, input.charAt(i));
+            if(reverse.isAccepting(state)) res.set(i);
+        }
+        return res;
+    }
+
+    /**
+     * Get the end of the longest match starting at a position
+     *
+     * @param input The input string
+     * @param start The match start
+     * @return The end of the longest match (excluded), the start if there is only the empty match
+     */
+    private int getLongestEnd(String input, int start) {
+        int res = start;
+        int state = forward.getInitState();
+        for(int i = start ; i < input.length() ; i++) {
+            state = forward.next(state, input.charAt(i));
+            if(forward.isDead(state)) break;
+            if(forward.isAccepting(state)) res = i + 1;
+        }
+        return res;
+    }
+
+    // ----- Internal classes -----
+
+    /**
+     * This class is the automaton of a reading direction : a compiled DFA, or a lazy DFA building its states
+     * when the input reaches them
+     */
+    private static class Direction {
+
+        private final CompiledAutomaton compiled;
+        private final LazyAutomaton lazy;
+
+        Direction(CompiledAutomaton compiled, LazyAutomaton lazy) {
+            this.compiled = compiled;
+            this.lazy = lazy;
+        }
+
+        int getInitState() {
+            return compiled != null ? compiled.getInitState() : lazy.getInitState();
+        }
+
+        int next(int state, char c) {
+            if(compiled != null) return compiled.next(state, c);
+
+            // Build the missing state of the lazy DFA
+            int cls = lazy.getAlphabet().classOf(c);
+            int res = lazy.getTransitions()[state * lazy.getAlphabetSize() + cls];
+            return res != LazyAutomaton.UNKNOWN_STATE ? res : lazy.computeTransition(state, cls);
+        }
+
+        boolean isAccepting(int state) {
+            return compiled != null ? compiled.isAccepting(state) : lazy.getAccepting()[state];
+        }
+
+        boolean isDead(int state) {
+            return compiled != null ? state == CompiledAutomaton.DEAD_STATE : lazy.isDead(state);
+        }
+
+    }
+
+}
@@ -0,0 +1,148 @@
+package egrep.main.search_engine;
+
+import egrep.main.Main;
+import egrep.main.automaton.Automaton;
+import egrep.main.automaton.CompiledAutomaton;
+import egrep.main.automaton.UnionAutomaton;
+import egrep.main.exceptions.AutomatonException;
+import egrep.main.exceptions.ParsingException;
+import egrep.main.parser.RegExParser;
+import egrep.main.parser.RegExTree;
+import egrep.main.utils.MappedInputStream;
+import egrep.main.utils.Pair;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * This class represents a search engine for several regex in a single pass over a file
+ * The regex DFAs are merged into union automata, the union is split into several smaller ones when
+ * it has too many states. A regex whose own DFA is too big is searched with the lazy DFA
+ *
+ * @author Emilie SIAU
+ * @author Hugo GUERRIER
+ */
+public class MultiSearchEngine {
+
+    // ----- Macros -----
+
+    public static final int UNION_STATE_LIMIT = 10000;
+
+    // ----- Attributes -----
+
+    private final String[] regexes;
+    private final File inputFile;
+    private final List<UnionAutomaton> unions;
+    private final List<Pair<Integer, LazyDFAStrategy>> lazyPatterns;
+
+    // ----- Constructors -----
+
+    /**
+     * Create a new search engine for several regex
+     *
+     * @param regexes The regex list, the pattern id of a regex is its index in the list
+     * @param fileRelativePath The input file relative path
+     * @throws ParsingException If a regex is not correct
+     */
+    public MultiSearchEngine(List<String> regexes, String fileRelativePath) throws ParsingException {
+        // Set the attributes
+        this.regexes = regexes.toArray(new String[0]);
+        inputFile = new File(fileRelativePath);
+        unions = new ArrayList<>();
+        lazyPatterns = new ArrayList<>();
+
+        // Compile the byte DFA of each regex
+        List<CompiledAutomaton> components = new ArrayList<>();
+        List<Integer> patternIds = new ArrayList<>();
+        for(int id = 0 ; id < this.regexes.length ; id++) {
+            RegExTree tree = new RegExParser(this.regexes[id]).parse();
+            try {
+                Automaton automaton = SearchEngine.createAutomaton(tree, true, SearchEngine.DFA_STATE_LIMIT);
+                components.add(automaton.compileUtf8());
+                patternIds.add(id);
+            } catch (AutomatonException e) {
+                if(Main.verboseFlag) System.out.println(e.getMessage() + ", using the lazy DFA for " + this.regexes[id]);
+                lazyPatterns.add(new Pair<>(id, SearchEngine.createLazyStrategy(tree)));
+            }
+        }
+
+        // Merge the DFAs into union automata
+        createUnions(components.toArray(new CompiledAutomaton[0]), patternIds.stream().mapToInt(Integer::intValue).toArray());
+        if(Main.verboseFlag) {
+            for(UnionAutomaton union : unions) System.out.println("Union DFA : " + union.getStateNumber() + " states");
+        }
+    }
+
+    // ----- Getters -----
+
+    public int getUnionNumber() {
+        return unions.size();
+    }
+
+    // ----- Class methods -----
+
+    /**
+     * Process the search engine on the input file and return the matched lines of each regex
+     *
+     * @return The list of pair (number, line) of the matched lines, for each regex
+     */
+    public List<List<Pair<Integer, String>>> searchLines() throws IOException, AutomatonException {
+        // Prepare the result
+        List<List<Pair<Integer, String>>> res = new ArrayList<>(regexes.length);
+        for(int i = 0 ; i < regexes.length ; i++) res.add(new LinkedList<>());
+
+        // Read the input file line by line and give each matched line to its patterns
+        try(LineReader reader = new LineReader(MappedInputStream.open(inputFile))) {
+            while(reader.next()) {
+                byte[] buffer = reader.getBuffer();
+                int start = reader.getLineStart();
+                int end = reader.getLineEnd();
+                String line = null;
+
+                for(UnionAutomaton union : unions) {
+                    for(int id : union.findPatterns(buffer, start, end)) {
+                        if(line == null) line = reader.getLine();
+                        res.get(id).add(new Pair<>(reader.getLineNumber(), line));
+                    }
+                }
+                for(Pair<Integer, LazyDFAStrategy> lazyPattern : lazyPatterns) {
+                    if(lazyPattern.getValue().isMatching(null, buffer, start, end)) {
+                        if(line == null) line = reader.getLine();
+                        res.get(lazyPattern.getKey()).add(new Pair<>(reader.getLineNumber(), line));
+                    }
+                }
+            }
+        }
+
+        // Return the result
+        return res;
+    }
+
+    // ----- Internal methods -----
+
+    /**
+     * Create the union automata of the DFAs, a union with too many states is split in two halves
+     *
+     * @param components The unanchored byte DFAs
+     * @param patternIds The pattern id of each DFA
+     */
+    private void createUnions(CompiledAutomaton[] components, int[] patternIds) {
+        if(components.length == 0) return;
+
+        try {
+            // A single DFA is always accepted, the union cannot have more states than it
+            int stateLimit = components.length == 1 ? Integer.MAX_VALUE : UNION_STATE_LIMIT;
+            unions.add(new UnionAutomaton(components, patternIds, stateLimit));
+        } catch (AutomatonException e) {
+            if(Main.verboseFlag) System.out.println(e.getMessage() + ", splitting the union of " + components.length + " DFAs");
+            int half = components.length / 2;
+            createUnions(Arrays.copyOfRange(components, 0, half), Arrays.copyOfRange(patternIds, 0, half));
+            createUnions(Arrays.copyOfRange(components, half, components.length), Arrays.copyOfRange(patternIds, half, patternIds.length));
+        }
+    }
+
+}
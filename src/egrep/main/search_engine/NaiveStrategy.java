@@ -1,8 +1,12 @@
 package egrep.main.search_engine;
 
+import egrep.main.automaton.Alphabet;
 import egrep.main.automaton.Automaton;
+import egrep.main.automaton.CompiledAutomaton;
 import egrep.main.exceptions.AutomatonException;
-import egrep.main.exceptions.RegexMatchingException;
+
+import static egrep.main.automaton.Automaton.CHAR_NUMBER;
+import static egrep.main.automaton.CompiledAutomaton.DEAD_STATE;
 
 /**
  * This class implements the naive regex search
@@ -24,37 +28,35 @@ public class NaiveStrategy implements SearchStrategy {
      */
     @Override
     public boolean isMatching(Automaton automaton, String input) throws AutomatonException {
-        // Reset the automaton securely
-        automaton.reset();
-
-        // Prepare the working variables
-        int cursor = 0;
+        // Get the compiled automaton and cache its components in local variables
+        CompiledAutomaton compiled = automaton.compile();
+        int[] table = compiled.getTable();
+        Alphabet alphabet = compiled.getAlphabet();
+        int[] classMap = alphabet.getClassMap();
+        int alphabetSize = compiled.getAlphabetSize();
+        int initState = compiled.getInitState();
+        int firstAcceptState = compiled.getFirstAcceptState();
+
+        // If the initial state is accepting, every input is matching
+        if(initState >= firstAcceptState) return true;
 
         // Iterate over all the input
-        while(cursor < input.length()) {
-            // Init the next input to the current cursor
-            int nextInput = cursor;
-
-            try {
-
-                // Input the next character in the automaton
-                while(nextInput < input.length()) {
-                    if(automaton.input(input.charAt(nextInput))) return true;
-                    nextInput++;
-                }
-
-            } catch(RegexMatchingException ignored) {
-            } finally {
-                // Reset the automaton
-                automaton.reset();
-
-                // Increase the cursor
-                cursor++;
+        int length = input.length();
+        for(int cursor = 0 ; cursor < length ; cursor++) {
+            // Start from the initial state at the cursor position
+            int state = initState;
+
+            // Input the next characters while the automaton is not dead
+            for(int nextInput = cursor ; nextInput < length ; nextInput++) {
+                char c = input.charAt(nextInput);
+                state = table[state * alphabetSize + (c < CHAR_NUMBER ? classMap[c] : alphabet.classOfWide(c))];
+                if(state >= firstAcceptState) return true;
+                if(state == DEAD_STATE) break;
             }
         }
 
         // The default result, if the input cannot match
-        return automaton.isInFinalState();
+        return false;
     }
 
 }
@@ -0,0 +1,244 @@
+package egrep.main.search_engine;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class is a thread safe cache of compiled patterns with a memory budget
+ * The entries are kept in least recently used order, and a new entry is only admitted if it is used more often
+ * than the entries it would evict (TinyLFU admission). The use frequencies are estimated by a count-min sketch
+ * with small counters, halved regularly so the old uses are forgotten
+ *
+ * @author Emilie SIAU
+ * @author Hugo GUERRIER
+ */
+public class PatternCache {
+
+    // ----- Macros -----
+
+    public static final long DEFAULT_MEMORY_BUDGET = 64L * 1024 * 1024;
+    public static final String AUTOMATIC_KEY = "AUTO";
+
+    private static final int SKETCH_DEPTH = 4;
+    private static final int SKETCH_WIDTH = 4096;
+    private static final int SAMPLE_SIZE = 10 * SKETCH_WIDTH;
+    private static final int MAX_FREQUENCY = 15;
+    private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+
+    private static final PatternCache SHARED = new PatternCache(DEFAULT_MEMORY_BUDGET);
+
+    // ----- Attributes -----
+
+    private final long memoryBudget;
+    private final LinkedHashMap<String, CompiledPattern> entries;
+    private long usedMemory;
+
+    // --- The frequency sketch
+    private final int[] sketch;
+    private int additions;
+
+    // --- The statistics
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long rejections;
+
+    // ----- Constructors -----
+
+    /**
+     * Create a new pattern cache
+     *
+     * @param memoryBudget The maximal estimated memory of the cached patterns, in bytes
+     */
+    public PatternCache(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+        entries = new LinkedHashMap<>(16, 0.75f, true);
+        usedMemory = 0;
+        sketch = new int[SKETCH_DEPTH * SKETCH_WIDTH];
+        additions = 0;
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+        rejections = 0;
+    }
+
+    // ----- Getters -----
+
+    /**
+     * Get the cache shared by all the search engines
+     *
+     * @return The shared cache
+     */
+    public static PatternCache getShared() {
+        return SHARED;
+    }
+
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    public synchronized long getUsedMemory() {
+        return usedMemory;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized long getRejections() {
+        return rejections;
+    }
+
+    // ----- Class methods -----
+
+    /**
+     * Get the cache key of a regex and a strategy
+     *
+     * @param regex The regex text
+     * @param strategy The strategy, null for the automatic selection
+     * @return The cache key
+     */
+    public static String getKey(String regex, SearchEngine.Strategy strategy) {
+        return (strategy != null ? strategy.name() : AUTOMATIC_KEY) + ':' + regex;
+    }
+
+    /**
+     * Get a cached pattern and record the use of its key
+     *
+     * @param key The cache key
+     * @return The cached pattern, null if the key is not cached
+     */
+    public synchronized CompiledPattern get(String key) {
+        increment(key);
+        CompiledPattern res = entries.get(key);
+        if(res != null) hits++;
+        else misses++;
+        return res;
+    }
+
+    /**
+     * Try to add a pattern in the cache. If there is not enough memory, the least recently used entries
+     * are evicted, but only if they are all less frequently used than the new one
+     *
+     * @param key The cache key
+     * @param pattern The compiled pattern, it must be safe to share between threads
+     * @return True if the pattern was added
+     */
+    public synchronized boolean put(String key, CompiledPattern pattern) {
+        // Verify the pattern can fit in the cache
+        long size = pattern.getMemorySize();
+        if(size > memoryBudget) {
+            rejections++;
+            return false;
+        }
+
+        // The previous pattern of the key is replaced only if the new one is admitted
+        CompiledPattern previous = entries.get(key);
+        long availableMemory = memoryBudget - usedMemory + (previous != null ? previous.getMemorySize() : 0);
+
+        // Find the victims in the least recently used order, and verify they are less frequent than the candidate
+        int candidateFrequency = frequency(key);
+        List<String> victims = new ArrayList<>();
+        long freedMemory = 0;
+        Iterator<Map.Entry<String, CompiledPattern>> iterator = entries.entrySet().iterator();
+        while(size > availableMemory + freedMemory) {
+            Map.Entry<String, CompiledPattern> victim = iterator.next();
+            if(victim.getKey().equals(key)) continue;
+            if(frequency(victim.getKey()) >= candidateFrequency) {
+                rejections++;
+                return false;
+            }
+            victims.add(victim.getKey());
+            freedMemory += victim.getValue().getMemorySize();
+        }
+
+        // Evict the victims, replace the previous pattern and add the new one
+        for(String victim : victims) {
+            usedMemory -= entries.remove(victim).getMemorySize();
+            evictions++;
+        }
+        if(previous != null) usedMemory -= entries.remove(key).getMemorySize();
+        entries.put(key, pattern);
+        usedMemory += size;
+        return true;
+    }
+
+    /**
+     * Remove all the cached patterns, the frequencies and the statistics
+     */
+    public synchronized void clear() {
+        entries.clear();
+        usedMemory = 0;
+        for(int i = 0 ; i < sketch.length ; i++) sketch[i] = 0;
+        additions = 0;
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+        rejections = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "Pattern cache : " + entries.size() + " patterns (" + usedMemory + " bytes), " + hits + " hits, "
+                + misses + " misses, " + evictions + " evictions, " + rejections + " rejections";
+    }
+
+    // ----- Internal methods -----
+
+    /**
+     * Record a use of a key in the frequency sketch, and halve all the counters after enough uses
+     *
+     * @param key The key
+     */
+    private void increment(String key) {
+        int hash = key.hashCode();
+        for(int row = 0 ; row < SKETCH_DEPTH ; row++) {
+            int index = indexOf(hash, row);
+            if(sketch[index] < MAX_FREQUENCY) sketch[index]++;
+        }
+
+        // Age the frequencies
+        if(++additions >= SAMPLE_SIZE) {
+            for(int i = 0 ; i < sketch.length ; i++) sketch[i] >>= 1;
+            additions /= 2;
+        }
+    }
+
+    /**
+     * Get the estimated use frequency of a key, the minimal counter of its rows
+     *
+     * @param key The key
+     * @return The estimated frequency
+     */
+    private int frequency(String key) {
+        int hash = key.hashCode();
+        int res = MAX_FREQUENCY;
+        for(int row = 0 ; row < SKETCH_DEPTH ; row++) res = Math.min(res, sketch[indexOf(hash, row)]);
+        return res;
+    }
+
+    /**
+     * Get the counter index of a hash in a sketch row
+     *
+     * @param hash The key hash
+     * @param row The sketch row
+     * @return The counter index
+     */
+    private static int indexOf(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += h >>> 32;
+        return row * SKETCH_WIDTH + ((int) h & (SKETCH_WIDTH - 1));
+    }
+
+}
@@ -1,15 +1,32 @@
 package egrep.main.search_engine;
 
+import egrep.main.Main;
 import egrep.main.automaton.Automaton;
+import egrep.main.automaton.AutomatonFile;
+import egrep.main.automaton.LazyAutomaton;
+import egrep.main.automaton.MappedAutomaton;
+import egrep.main.automaton.Prefilter;
 import egrep.main.exceptions.AutomatonException;
 import egrep.main.exceptions.ParsingException;
 import egrep.main.exceptions.SearchEngineException;
 import egrep.main.parser.RegExParser;
+import egrep.main.parser.RegExTree;
+import egrep.main.parser.RequiredLiterals;
+import egrep.main.utils.MappedInputStream;
 import egrep.main.utils.Pair;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
  * This class represents a search engine for a file
@@ -21,9 +38,24 @@ public class SearchEngine {
 
     // ----- Macros -----
 
+    public static final int DFA_STATE_LIMIT = 10000;
+    public static final int SKIP_LITERAL_LENGTH = 5;
+    public static final int HORSPOOL_DISTINCT_BYTES = 4;
+    public static final int FILTER_LITERAL_LENGTH = 3;
+    public static final long PARALLEL_FILE_SIZE = 64L * 1024 * 1024; // The smaller files are searched by a single thread
+    public static final int CHUNKS_PER_THREAD = 4;
+    public static final int AUTO_THREAD_NUMBER = 0;
+    public static final String CACHE_DIRECTORY_VARIABLE = "EGREP_CACHE_DIR";
+    public static final String DEFAULT_CACHE_DIRECTORY = ".egrep_cache";
+
     public enum Strategy {
         NAIVE,
+        DFA,
+        LAZY_DFA,
+        SHIFT_AND,
         KMP,
+        HORSPOOL,
+        TWO_WAY,
         JAVA_NATIVE
     }
 
@@ -33,12 +65,17 @@ public class SearchEngine {
     private File inputFile;
     private SearchStrategy strategy;
     private Automaton automaton;
+    private int threadNumber = AUTO_THREAD_NUMBER;
+    private long parallelFileSize = PARALLEL_FILE_SIZE;
 
     // ----- Constructors -----
 
     /**
      * Create a new search engine with the wanted regular expression and input file.
-     * It selects the suiting strategy (naive or KMP) for the given regex
+     * It selects the suiting strategy (KMP, Horspool, Two-Way, Shift-And or DFA) for the given regex, the DFA being preferred
+     * when it has a prefilter, and falls back to the lazy DFA when the full DFA would have too many states.
+     * If a regex with operators was precompiled, its mapped automaton is used.
+     * The selected strategy is kept in the shared pattern cache for the next engines of the same regex
      *
      * @param regex The regex
      * @param fileRelativePath The input file relative path
@@ -49,30 +86,75 @@ public class SearchEngine {
         this.regex = regex;
         inputFile = new File(fileRelativePath);
 
-        // Select the best strategy, following if the regex is only concatenations or not
-        if (KMPStrategy.isValidKMP(regex)){
+        // Reuse the cached pattern of the regex
+        String cacheKey = PatternCache.getKey(regex, null);
+        if(loadPattern(cacheKey)) return;
+
+        // Select the best strategy, following if the regex is only concatenations, precompiled or not
+        boolean literal = KMPStrategy.isValidKMP(regex);
+        MappedAutomaton mappedAutomaton = literal ? null : loadCachedAutomaton(regex);
+        if (literal){
 
-            strategy = new KMPStrategy(regex);
+            strategy = createLiteralStrategy(regex);
             automaton = null;
 
-        } else {
+        } else if(mappedAutomaton != null) {
+
+            strategy = new MappedDFAStrategy(mappedAutomaton);
+            automaton = null;
 
-            strategy = new NaiveStrategy();
+        } else {
 
-            // Create the automaton
-            RegExParser parser = new RegExParser(regex);
+            // Try to build the DFA, its prefilter skips most of the input for the selective regex
+            RegExTree tree = new RegExParser(regex).parse();
+            Automaton dfa = null;
+            Prefilter prefilter = null;
             try {
-                automaton = new Automaton(parser.parse());
+                dfa = createAutomaton(tree, true, DFA_STATE_LIMIT);
+                prefilter = dfa.getUtf8Prefilter();
+                if(Main.verboseFlag) {
+                    System.out.println(prefilter != null ? "Prefilter : " + prefilter.getCandidates().length + " candidate bytes" : "No prefilter");
+                }
             } catch (AutomatonException e) {
-                System.err.println("This CANNOT happen");
-                e.printStackTrace();
+                if(Main.verboseFlag) System.out.println(e.getMessage());
             }
+
+            if(prefilter != null) {
+
+                strategy = new DFAStrategy();
+                automaton = dfa;
+
+            } else if(ShiftAndStrategy.isValidShiftAnd(tree)) {
+
+                // Short regex fit in a single word position automaton
+                strategy = new ShiftAndStrategy(tree);
+                automaton = null;
+
+            } else if(dfa != null) {
+
+                strategy = new DFAStrategy();
+                automaton = dfa;
+
+            } else {
+
+                if(Main.verboseFlag) System.out.println("Using the lazy DFA");
+                strategy = createLazyStrategy(tree);
+                automaton = null;
+
+            }
+
+            // Only verify the lines containing a required literal of the regex
+            strategy = createFilteredStrategy(tree, strategy, prefilter != null);
+
         }
+
+        // Cache the selected pattern
+        savePattern(cacheKey);
     }
 
     /**
      * Create a new search engine with the wanted regex, input file and force it to use the wanted strategy
-     * If the strategy is not suitable, it throws a special exception
+     * If the strategy is not suitable, it throws a special exception. The pattern is kept in the shared pattern cache
      *
      * @param regex The regular expression
      * @param fileRelativePath The file to search in
@@ -85,6 +167,10 @@ public class SearchEngine {
         this.regex = regex;
         inputFile = new File(fileRelativePath);
 
+        // Reuse the cached pattern of the regex and strategy
+        String cacheKey = PatternCache.getKey(regex, strat);
+        if(loadPattern(cacheKey)) return;
+
         // Set up the searching strategy
         switch (strat) {
 
@@ -97,25 +183,94 @@ public class SearchEngine {
                 }
                 break;
 
+            case HORSPOOL:
+                if(isSkipLiteral(regex)) {
+                    strategy = new HorspoolStrategy(getLiteral(regex));
+                    automaton = null;
+                } else {
+                    throw new SearchEngineException("Cannot require the Horspool strategy for the regex " + regex);
+                }
+                break;
+
+            case TWO_WAY:
+                if(isSkipLiteral(regex)) {
+                    strategy = new TwoWayStrategy(getLiteral(regex));
+                    automaton = null;
+                } else {
+                    throw new SearchEngineException("Cannot require the Two-Way strategy for the regex " + regex);
+                }
+                break;
+
             case JAVA_NATIVE:
                 strategy = new JavaNativeStrategy(this.regex);
                 automaton = null;
                 break;
 
+            case DFA:
+                strategy = new DFAStrategy();
+                automaton = createAutomaton(regex, true);
+                break;
+
+            case SHIFT_AND:
+                strategy = new ShiftAndStrategy(new RegExParser(regex).parse());
+                automaton = null;
+                break;
+
+            case LAZY_DFA:
+                strategy = createLazyStrategy(new RegExParser(regex).parse());
+                automaton = null;
+                break;
+
             case NAIVE:
             default:
                 strategy = new NaiveStrategy();
-                RegExParser parser = new RegExParser(regex);
-                try {
-                    automaton = new Automaton(parser.parse());
-                } catch (AutomatonException e) {
-                    System.err.println("This CANNOT happen");
-                    e.printStackTrace();
-                }
+                automaton = createAutomaton(regex, false);
+
+        }
+
+        // Cache the pattern
+        savePattern(cacheKey);
+    }
 
+    /**
+     * Create a new search engine for many literal strings at once, with the Aho-Corasick strategy
+     *
+     * @param literals The literal strings to search
+     * @param fileRelativePath The file to search in
+     */
+    public SearchEngine(List<String> literals, String fileRelativePath) {
+        // Set the attributes, there is no regex
+        regex = null;
+        inputFile = new File(fileRelativePath);
+
+        // Set up the searching strategy
+        strategy = new AhoCorasickStrategy(literals);
+        automaton = null;
+        if(Main.verboseFlag) {
+            System.out.println("Aho-Corasick automaton : " + literals.size() + " literals, " + ((AhoCorasickStrategy) strategy).getStateNumber() + " states");
         }
     }
 
+    // ----- Setters -----
+
+    /**
+     * Set the number of threads searching the input file
+     *
+     * @param threadNumber The thread number, AUTO_THREAD_NUMBER to use all the available processors
+     */
+    public void setThreadNumber(int threadNumber) {
+        this.threadNumber = threadNumber;
+    }
+
+    /**
+     * Set the minimal size of the input files split between many threads
+     *
+     * @param parallelFileSize The file size in bytes, PARALLEL_FILE_SIZE by default
+     */
+    public void setParallelFileSize(long parallelFileSize) {
+        this.parallelFileSize = parallelFileSize;
+    }
+
     // ----- Class methods -----
 
     /**
@@ -127,16 +282,460 @@ public class SearchEngine {
         // Prepare the result
         List<Pair<Integer, String>> res = new LinkedList<>();
 
-        // Open the input file and process it line by line
-        BufferedReader reader = new BufferedReader(new FileReader(inputFile));
-        String line;
-        int lineNumber = 1;
-        while((line = reader.readLine()) != null) {
-            if(strategy.isMatching(automaton, line)) res.add(new Pair<>(lineNumber, line));
-            lineNumber++;
+        // Split the big files between many threads, the others are searched in a single pass
+        int threads = threadNumber != AUTO_THREAD_NUMBER ? threadNumber : Runtime.getRuntime().availableProcessors();
+        if(threads > 1 && isShareable(strategy) && inputFile.isFile() && inputFile.length() >= parallelFileSize) {
+            searchParallel(threads, res);
+        } else {
+            searchBlocks(MappedInputStream.open(inputFile), threads, res);
+        }
+
+        // Display the lazy DFA cache statistics
+        if(Main.verboseFlag && strategy instanceof LazyDFAStrategy) {
+            LazyAutomaton lazy = ((LazyDFAStrategy) strategy).getLazyAutomaton();
+            System.out.println("Lazy DFA cache : " + lazy.getHits() + " hits, " + lazy.getMisses() + " misses, " + lazy.getFlushes() + " flushes");
+        }
+
+        // Return the result
+        return res;
+    }
+
+    /**
+     * Process the search engine on the input file and return every match of the matched lines,
+     * found with the leftmost-longest rule. For the literal strings search, it returns the literals found in each line
+     *
+     * @return The list of pair (number, match) of the matches
+     * @throws ParsingException If the regex is not correct
+     */
+    public List<Pair<Integer, String>> searchMatches() throws IOException, AutomatonException, ParsingException {
+        // Report the literals found in the matched lines
+        if(regex == null) return searchLiterals();
+
+        // Prepare the result and the match finder
+        List<Pair<Integer, String>> res = new LinkedList<>();
+        MatchFinder finder = new MatchFinder(new RegExParser(regex).parse());
+
+        // Find the matches in the matched lines only
+        for(Pair<Integer, String> line : searchLines()) {
+            for(Pair<Integer, Integer> span : finder.findMatches(line.getValue())) {
+                res.add(new Pair<>(line.getKey(), line.getValue().substring(span.getKey(), span.getValue())));
+            }
+        }
+
+        // Return the result
+        return res;
+    }
+
+    /**
+     * Precompile the minimal unanchored automaton of a regex into the cache directory
+     *
+     * @param regex The regex
+     * @return The written automaton file
+     * @throws ParsingException If the regex is not correct
+     * @throws AutomatonException Cannot happen, the automaton is deterministic and unanchored
+     * @throws IOException If the file cannot be written
+     */
+    public static File precompile(String regex) throws ParsingException, AutomatonException, IOException {
+        // Create the cache directory if needed
+        File cacheDirectory = getCacheDirectory();
+        if(!cacheDirectory.isDirectory() && !cacheDirectory.mkdirs()) {
+            throw new IOException("Cannot create the cache directory " + cacheDirectory);
+        }
+
+        // Write the automaton
+        File res = AutomatonFile.getCacheFile(cacheDirectory, regex);
+        AutomatonFile.write(createAutomaton(regex, true), res);
+        return res;
+    }
+
+    /**
+     * Get the directory of the precompiled automata, from the EGREP_CACHE_DIR environment variable
+     * or in the user home directory by default
+     *
+     * @return The cache directory
+     */
+    public static File getCacheDirectory() {
+        String path = System.getenv(CACHE_DIRECTORY_VARIABLE);
+        return path != null ? new File(path) : new File(System.getProperty("user.home"), DEFAULT_CACHE_DIRECTORY);
+    }
+
+    // ----- Internal methods -----
+
+    /**
+     * Search an input by blocks of many lines on the raw bytes, and search each block from the end of the last matched
+     * line. The lines are only located and decoded around the matches
+     *
+     * @param input The input to search, it is closed at the end
+     * @param threads The number of threads which can search a huge line
+     * @param res The list where to add the pair (number, line) of the matched lines, numbered from the input start
+     * @return The number of line breaks of the input
+     */
+    private int searchBlocks(InputStream input, int threads, List<Pair<Integer, String>> res) throws IOException, AutomatonException {
+        try(BlockReader reader = new BlockReader(input)) {
+            while(reader.next()) {
+                byte[] buffer = reader.getBuffer();
+                int pos = 0;
+                while(pos < reader.getBlockEnd()) {
+                    int match = find(buffer, pos, reader.getBlockEnd(), threads);
+                    if(match < 0) break;
+
+                    // Locate the matched line, verified again without its carriage return
+                    int lineStart = reader.getLineStart(match);
+                    int lineEnd = reader.getLineEnd(match);
+                    int contentEnd = reader.getContentEnd(lineStart, lineEnd);
+                    if(contentEnd == lineEnd || strategy.isMatching(automaton, buffer, lineStart, contentEnd)) {
+                        res.add(new Pair<>(reader.getLineNumber(lineStart), reader.getLine(lineStart, lineEnd)));
+                    }
+                    pos = lineEnd + 1;
+                }
+            }
+            return reader.getLineBreakNumber();
+        }
+    }
+
+    /**
+     * Find the first match in a part of a buffer holding many lines, the DFA strategy searching a huge line
+     * with the given threads
+     *
+     * @param buffer The input buffer
+     * @param start The start of the input in the buffer, at a line start
+     * @param end The end of the input in the buffer (excluded)
+     * @param threads The number of threads which can search a huge line
+     * @return The position where the strategy matches, -1 if no line matches
+     */
+    private int find(byte[] buffer, int start, int end, int threads) throws AutomatonException {
+        if(threads > 1 && strategy instanceof DFAStrategy) return ((DFAStrategy) strategy).find(automaton, buffer, start, end, threads);
+        return strategy.find(automaton, buffer, start, end);
+    }
+
+    /**
+     * Search the input file with many threads : the file is split in chunks ending after a line break, searched
+     * concurrently with the shared strategy. The line numbers of each chunk are shifted by the line breaks of
+     * the previous chunks, and the chunk results are joined in the file order. A huge line is searched with
+     * the threads of the same pool
+     *
+     * @param threads The number of threads
+     * @param res The list where to add the pair (number, line) of the matched lines
+     */
+    private void searchParallel(int threads, List<Pair<Integer, String>> res) throws IOException, AutomatonException {
+        // Split the file and build the shared automaton tables before the threads read them
+        long[] bounds = splitFile(threads * CHUNKS_PER_THREAD);
+        if(automaton != null && automaton.isUnanchored()) automaton.compileUtf8();
+        if(Main.verboseFlag) System.out.println("Parallel search : " + threads + " threads, " + (bounds.length - 1) + " chunks");
+
+        // Search each chunk in its own task
+        List<Callable<Pair<Integer, List<Pair<Integer, String>>>>> tasks = new ArrayList<>();
+        for(int i = 0 ; i < bounds.length - 1 ; i++) {
+            long start = bounds[i];
+            long end = bounds[i + 1];
+            tasks.add(() -> {
+                List<Pair<Integer, String>> lines = new ArrayList<>();
+                int lineBreaks = searchBlocks(new MappedInputStream(inputFile, start, end, MappedInputStream.SEGMENT_SIZE), threads, lines);
+                return new Pair<>(lineBreaks, lines);
+            });
         }
 
-        reader.close();
+        // Join the chunk results in order
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            int lineOffset = 0;
+            for(Future<Pair<Integer, List<Pair<Integer, String>>>> future : pool.invokeAll(tasks)) {
+                Pair<Integer, List<Pair<Integer, String>>> chunk = future.get();
+                for(Pair<Integer, String> line : chunk.getValue()) {
+                    res.add(new Pair<>(line.getKey() + lineOffset, line.getValue()));
+                }
+                lineOffset += chunk.getKey();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("The parallel search was interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if(cause instanceof IOException) throw (IOException) cause;
+            if(cause instanceof AutomatonException) throw (AutomatonException) cause;
+            if(cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if(cause instanceof Error) throw (Error) cause;
+            throw new IOException(cause);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Split the input file in chunks of about the same size, each chunk but the last ending after a line break
+     *
+     * @param chunkNumber The wanted number of chunks
+     * @return The chunk bounds : the chunk i goes from bounds[i] to bounds[i + 1] (excluded)
+     */
+    private long[] splitFile(int chunkNumber) throws IOException {
+        long size = inputFile.length();
+        long[] res = new long[chunkNumber + 1];
+        res[chunkNumber] = size;
+
+        try(FileChannel channel = FileChannel.open(inputFile.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer probe = ByteBuffer.allocate(4096);
+            for(int i = 1 ; i < chunkNumber ; i++) {
+                // Move the bound after the next line break
+                long pos = Math.max(size / chunkNumber * i, res[i - 1]);
+                res[i] = size;
+                while(pos < size && res[i] == size) {
+                    probe.clear();
+                    int read = channel.read(probe, pos);
+                    if(read < 0) break;
+                    for(int j = 0 ; j < read ; j++) {
+                        if(probe.get(j) == '\n') {
+                            res[i] = pos + j + 1;
+                            break;
+                        }
+                    }
+                    pos += read;
+                }
+            }
+        }
+
+        // Return the result
+        return res;
+    }
+
+    /**
+     * Get if a strategy can be used by many searches at once. The lazy DFA grows during the search, it cannot be shared
+     *
+     * @param strategy The strategy
+     * @return True if the strategy can be shared between threads
+     */
+    private static boolean isShareable(SearchStrategy strategy) {
+        if(strategy instanceof FilteredStrategy) return isShareable(((FilteredStrategy) strategy).getVerifier());
+        return !(strategy instanceof LazyDFAStrategy);
+    }
+
+    /**
+     * Process the literal strings search and return the literals found in the matched lines
+     *
+     * @return The list of pair (number, literal) of the found literals
+     */
+    private List<Pair<Integer, String>> searchLiterals() throws IOException, AutomatonException {
+        // Prepare the result
+        List<Pair<Integer, String>> res = new LinkedList<>();
+        AhoCorasickStrategy literalStrategy = (AhoCorasickStrategy) strategy;
+        String[] literals = literalStrategy.getLiterals();
+
+        // Find the literals in the matched lines only
+        for(Pair<Integer, String> line : searchLines()) {
+            byte[] bytes = line.getValue().getBytes(StandardCharsets.UTF_8);
+            for(int literal : literalStrategy.findLiterals(bytes, 0, bytes.length)) {
+                res.add(new Pair<>(line.getKey(), literals[literal]));
+            }
+        }
+
+        // Return the result
+        return res;
+    }
+
+    /**
+     * Set the strategy and the automaton from the shared pattern cache
+     *
+     * @param cacheKey The cache key of the pattern
+     * @return True if the pattern was cached
+     */
+    private boolean loadPattern(String cacheKey) {
+        CompiledPattern pattern = PatternCache.getShared().get(cacheKey);
+        if(pattern == null) return false;
+
+        strategy = pattern.getStrategy();
+        automaton = pattern.getAutomaton();
+        if(Main.verboseFlag) System.out.println("Using the cached pattern, " + PatternCache.getShared());
+        return true;
+    }
+
+    /**
+     * Put the strategy and the automaton in the shared pattern cache, if they can be shared between threads
+     *
+     * @param cacheKey The cache key of the pattern
+     */
+    private void savePattern(String cacheKey) {
+        // The lazy DFA grows during the search, it cannot be shared
+        if(!isShareable(strategy)) return;
+
+        // Build the lazy tables now, so the cached automaton is never modified
+        if(automaton != null && automaton.isUnanchored()) {
+            try {
+                automaton.compileUtf8();
+            } catch (AutomatonException e) {
+                return;
+            }
+        }
+
+        PatternCache.getShared().put(cacheKey, new CompiledPattern(regex, strategy, automaton));
+    }
+
+    /**
+     * Load the precompiled automaton of a regex from the cache directory
+     *
+     * @param regex The regex
+     * @return The mapped automaton, null if the regex was not precompiled or if its file cannot be used
+     */
+    private static MappedAutomaton loadCachedAutomaton(String regex) {
+        File file = AutomatonFile.getCacheFile(getCacheDirectory(), regex);
+        if(!file.isFile()) return null;
+
+        try {
+            MappedAutomaton res = AutomatonFile.load(file);
+            if(Main.verboseFlag) System.out.println("Using the precompiled automaton " + file);
+            return res;
+        } catch (AutomatonException | IOException e) {
+            if(Main.verboseFlag) System.out.println(e.getMessage() + ", compiling the regex");
+            return null;
+        }
+    }
+
+    /**
+     * Create the search strategy of a regex without operators. The short literals and the ones with a dot use KMP,
+     * the longer ones use Horspool to skip most of the input bytes, or Two-Way when they have too few distinct bytes
+     * for the Horspool shifts to be long. When KMP would verify too many characters around each anchor occurrence,
+     * Shift-And runs all the positions at once
+     *
+     * @param regex The regex, valid for KMP
+     * @return The literal search strategy
+     */
+    private static SearchStrategy createLiteralStrategy(String regex) {
+        if(!isSkipLiteral(regex) || getLiteral(regex).getBytes(StandardCharsets.UTF_8).length < SKIP_LITERAL_LENGTH) {
+            KMPStrategy res = new KMPStrategy(regex);
+            if(res.getVerifiedLength() <= KMPStrategy.MAX_VERIFIED_LENGTH) return res;
+
+            RegExTree tree = res.createTree();
+            return createFilteredStrategy(tree, new ShiftAndStrategy(tree), false);
+        }
+
+        return createSkipStrategy(getLiteral(regex));
+    }
+
+    /**
+     * Create the skipping search strategy of a literal string : Horspool, or Two-Way when the literal has
+     * too few distinct bytes for the Horspool shifts to be long
+     *
+     * @param literal The literal string, of at least SKIP_LITERAL_LENGTH bytes
+     * @return The literal search strategy
+     */
+    private static SearchStrategy createSkipStrategy(String literal) {
+        if(HorspoolStrategy.countDistinctBytes(literal) >= HORSPOOL_DISTINCT_BYTES) return new HorspoolStrategy(literal);
+        else return new TwoWayStrategy(literal);
+    }
+
+    /**
+     * Wrap a regex search strategy with the search of the literals required by every match, when the regex strategy
+     * cannot already skip the input with a prefilter. A single long literal is searched with a skipping strategy,
+     * and a set of literals with Aho-Corasick, only before a strategy slower than the DFA
+     *
+     * @param tree The regex tree
+     * @param strategy The regex search strategy
+     * @param prefiltered If the regex strategy has a prefilter
+     * @return The filtered strategy, or the given one if no literal search is worth it
+     */
+    private static SearchStrategy createFilteredStrategy(RegExTree tree, SearchStrategy strategy, boolean prefiltered) {
+        RequiredLiterals required = RequiredLiterals.analyze(tree);
+        if(Main.verboseFlag) System.out.println(required);
+        List<String> literals = required.getLiterals();
+        if(literals == null || prefiltered) return strategy;
+
+        // Select the literal search strategy
+        SearchStrategy filter;
+        if(literals.size() == 1 && literals.get(0).getBytes(StandardCharsets.UTF_8).length >= SKIP_LITERAL_LENGTH) {
+            filter = createSkipStrategy(literals.get(0));
+        } else if(!(strategy instanceof DFAStrategy) && required.getShortestLength() >= FILTER_LITERAL_LENGTH) {
+            filter = new AhoCorasickStrategy(literals);
+        } else {
+            return strategy;
+        }
+
+        // Return the filtered strategy
+        return new FilteredStrategy(filter, strategy, required.getMinLength());
+    }
+
+    /**
+     * Get if a regex is a literal string that the skipping strategies (Horspool and Two-Way) can search
+     *
+     * @param regex The regex
+     * @return True if the regex has no operator nor dot
+     */
+    private static boolean isSkipLiteral(String regex) {
+        return KMPStrategy.isValidKMP(regex) && regex.indexOf('.') < 0;
+    }
+
+    /**
+     * Get the literal string of a regex without operators, by removing its parenthesis
+     *
+     * @param regex The regex
+     * @return The literal string
+     */
+    private static String getLiteral(String regex) {
+        return regex.replace("(", "").replace(")", "");
+    }
+
+    /**
+     * Create the minimal compiled automaton for a regex
+     *
+     * @param regex The regex to create the automaton for
+     * @param unanchored If the automaton should be unanchored
+     * @return The created automaton
+     * @throws ParsingException If the regex is not correct
+     */
+    private static Automaton createAutomaton(String regex, boolean unanchored) throws ParsingException {
+        // Parse the regex
+        RegExParser parser = new RegExParser(regex);
+        Automaton res = null;
+
+        try {
+            res = createAutomaton(parser.parse(), unanchored, Integer.MAX_VALUE);
+        } catch (AutomatonException e) {
+            System.err.println("This CANNOT happen");
+            e.printStackTrace();
+        }
+
+        // Return the result
+        return res;
+    }
+
+    /**
+     * Create the minimal compiled automaton for a regex tree
+     *
+     * @param tree The regex tree to create the automaton for
+     * @param unanchored If the automaton should be unanchored
+     * @param stateLimit The maximal number of states of the DFA
+     * @return The created automaton
+     * @throws AutomatonException If the DFA exceeds the state limit
+     */
+    static Automaton createAutomaton(RegExTree tree, boolean unanchored, int stateLimit) throws AutomatonException {
+        // Create the automaton and minimize it
+        Automaton res = new Automaton(tree, false, unanchored);
+        res.setStateLimit(stateLimit);
+        res.create();
+        int stateNumber = res.getCompiled().getStateNumber();
+        int minimalStateNumber = res.minimize().getStateNumber();
+
+        // Display the minimization result
+        if(Main.verboseFlag) {
+            System.out.println("DFA minimization : " + stateNumber + " states -> " + minimalStateNumber + " states");
+        }
+
+        // Return the result
+        return res;
+    }
+
+    /**
+     * Create the lazy DFA strategy for a regex tree
+     *
+     * @param tree The regex tree
+     * @return The lazy DFA strategy
+     */
+    static LazyDFAStrategy createLazyStrategy(RegExTree tree) {
+        LazyDFAStrategy res = null;
+
+        try {
+            res = new LazyDFAStrategy(new LazyAutomaton(tree, true));
+        } catch (AutomatonException e) {
+            System.err.println("This CANNOT happen");
+            e.printStackTrace();
+        }
 
         // Return the result
         return res;
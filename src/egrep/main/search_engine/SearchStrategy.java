@@ -2,6 +2,9 @@ package egrep.main.search_engine;
 
 import egrep.main.automaton.Automaton;
 import egrep.main.exceptions.AutomatonException;
+import egrep.main.utils.ByteScanner;
+
+import java.nio.charset.StandardCharsets;
 
 /**
  * Interface used to abstract searching methods, uses the strategy design pattern
@@ -19,4 +22,41 @@ public interface SearchStrategy {
      * @throws AutomatonException If the automaton has an error
      */
     boolean isMatching(Automaton automaton, String input) throws AutomatonException;
+
+    /**
+     * Get if a part of an UTF-8 encoded buffer is matching with a regex automaton.
+     * By default the part is decoded, strategies able to run over the bytes should override it
+     *
+     * @param automaton The automaton
+     * @param input The input buffer
+     * @param start The start of the input in the buffer
+     * @param end The end of the input in the buffer (excluded)
+     * @return True if the input matches
+     * @throws AutomatonException If the automaton has an error
+     */
+    default boolean isMatching(Automaton automaton, byte[] input, int start, int end) throws AutomatonException {
+        return isMatching(automaton, new String(input, start, end - start, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Get the position of the first match in a part of an UTF-8 encoded buffer holding many lines.
+     * A match never spans a line break. By default each line is matched on its own,
+     * strategies able to run over many lines at once should override it
+     *
+     * @param automaton The automaton
+     * @param input The input buffer
+     * @param start The start of the input in the buffer, at a line start
+     * @param end The end of the input in the buffer (excluded)
+     * @return A position in the first matched line, -1 if no line matches
+     * @throws AutomatonException If the automaton has an error
+     */
+    default int find(Automaton automaton, byte[] input, int start, int end) throws AutomatonException {
+        ByteScanner scanner = ByteScanner.getInstance();
+        for(int lineStart = start ; lineStart < end ; ) {
+            int lineEnd = scanner.indexOf(input, lineStart, end, (byte) '\n');
+            if(isMatching(automaton, input, lineStart, lineEnd)) return lineStart;
+            lineStart = lineEnd + 1;
+        }
+        return -1;
+    }
 }
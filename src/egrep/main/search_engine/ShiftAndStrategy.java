@@ -0,0 +1,585 @@
+package egrep.main.search_engine;
+
+import egrep.main.automaton.Alphabet;
+import egrep.main.automaton.Automaton;
+import egrep.main.exceptions.AutomatonException;
+import egrep.main.parser.RegExTree;
+import egrep.main.utils.Utf8;
+
+import java.util.Arrays;
+
+import static egrep.main.automaton.Alphabet.OTHER_CLASS;
+import static egrep.main.automaton.Automaton.CHAR_NUMBER;
+import static egrep.main.parser.RegExParser.*;
+
+/**
+ * This class implements the bit-parallel Shift-And search on the Glushkov position automaton of the regex.
+ * Each bit of the state is a position (a leaf) of the regex, and the follow edges between consecutive
+ * positions are simulated with a single shift. The other follow edges (stars and alternations) use
+ * lookup tables on each byte of the state. The UTF-8 input is decoded on the fly, without creating a string
+ *
+ * @author Emilie SIAU
+ * @author Hugo GUERRIER
+ */
+public class ShiftAndStrategy implements SearchStrategy {
+
+    // ----- Macros -----
+
+    public static final int WORD_SIZE = 64;
+    private static final int CHUNK_SIZE = 8;
+    private static final int CHUNK_VALUES = 1 << CHUNK_SIZE;
+
+    // ----- Attributes -----
+
+    private final Alphabet alphabet;
+    private final int positionNumber;
+    private final int wordNumber;
+    private final boolean nullable;
+    private final boolean ascii;
+
+    // --- The bit masks
+    private final long[] classMasks;
+    private final long[] firstMask;
+    private final long[] lastMask;
+    private final long[] shiftMask;
+    private final boolean linear;
+
+    // --- The extra follow tables
+    private final int[] extraChunks;
+    private final long[] extraTable;
+
+    // --- The multi word state of each thread, then the next state
+    private final ThreadLocal<long[]> stateWords;
+
+    // ----- Constructors -----
+
+    /**
+     * Create a new Shift-And strategy for a regex tree
+     *
+     * @param tree The regex tree
+     */
+    public ShiftAndStrategy(RegExTree tree) {
+        // Number the positions and split the follow edges between the shift edges and the extra edges
+        alphabet = new Alphabet(tree);
+        positionNumber = countPositions(tree);
+        wordNumber = Math.max(1, (positionNumber + WORD_SIZE - 1) / WORD_SIZE);
+        classMasks = new long[alphabet.getClassNumber() * wordNumber];
+        shiftMask = new long[wordNumber];
+        long[][] extraFollow = new long[positionNumber][];
+        Glushkov root = processGlushkov(tree, 0, extraFollow);
+        nullable = root.nullable;
+        boolean allAscii = true;
+        for(int cls = OTHER_CLASS + 1 ; cls < alphabet.getClassNumber() ; cls++) allAscii &= alphabet.getRepresentative(cls) < 0x80;
+        ascii = allAscii;
+        firstMask = new long[wordNumber];
+        for(int pos : root.first) setBit(firstMask, pos);
+        lastMask = new long[wordNumber];
+        for(int pos : root.last) setBit(lastMask, pos);
+        stateWords = ThreadLocal.withInitial(() -> new long[2 * wordNumber]);
+
+        // Get the chunks holding positions with extra edges
+        int[] chunks = new int[(positionNumber + CHUNK_SIZE - 1) / CHUNK_SIZE];
+        int chunkNumber = 0;
+        for(int pos = 0 ; pos < positionNumber ; pos++) {
+            if(extraFollow[pos] != null && (chunkNumber == 0 || chunks[chunkNumber - 1] != pos / CHUNK_SIZE)) {
+                chunks[chunkNumber++] = pos / CHUNK_SIZE;
+            }
+        }
+
+        // The regex is linear if every position follows the previous one and nothing else
+        boolean allShift = chunkNumber == 0;
+        for(int pos = 1 ; pos < positionNumber ; pos++) allShift &= getBit(shiftMask, pos);
+        linear = allShift;
+
+        // Create the extra follow table for each chunk holding positions with extra edges
+        extraChunks = Arrays.copyOf(chunks, chunkNumber);
+        extraTable = new long[chunkNumber * CHUNK_VALUES * wordNumber];
+        for(int i = 0 ; i < extraChunks.length ; i++) {
+            int chunk = extraChunks[i];
+            for(int value = 0 ; value < CHUNK_VALUES ; value++) {
+                int entryStart = (i * CHUNK_VALUES + value) * wordNumber;
+                for(int bit = 0 ; bit < CHUNK_SIZE ; bit++) {
+                    int pos = chunk * CHUNK_SIZE + bit;
+                    if((value & (1 << bit)) != 0 && pos < positionNumber && extraFollow[pos] != null) {
+                        for(int w = 0 ; w < wordNumber ; w++) extraTable[entryStart + w] |= extraFollow[pos][w];
+                    }
+                }
+            }
+        }
+    }
+
+    // ----- Getters -----
+
+    public int getPositionNumber() {
+        return positionNumber;
+    }
+
+    public int getWordNumber() {
+        return wordNumber;
+    }
+
+    // ----- Override methods -----
+
+    /**
+     * Tell if the input contains a match of the regex by simulating its position automaton
+     *
+     * @param ignored The automaton is ignored. You can give a null automaton
+     * @param input The input string
+     * @return true if the input contains a match, false otherwise
+     * @throws AutomatonException Cannot happen. Does not use automaton (ignored)
+     */
+    @Override
+    public boolean isMatching(Automaton ignored, String input) throws AutomatonException {
+        // A nullable regex matches the empty string at every position
+        if(nullable) return true;
+
+        if(wordNumber == 1) {
+            return linear ? isMatchingShift(input) : isMatchingSingleWord(input);
+        } else {
+            return isMatchingMultiWord(input);
+        }
+    }
+
+    /**
+     * Tell if the UTF-8 input contains a match of the regex. When the regex only has ASCII characters and fits
+     * in a single word, the bytes are read directly : a character out of the ASCII range is skipped as a whole.
+     * Otherwise the characters are decoded on the fly. A malformed sequence is read as one replacement character,
+     * like in the decoded string (see the Utf8 class)
+     *
+     * @param ignored The automaton is ignored. You can give a null automaton
+     * @param input The input buffer
+     * @param start The start of the input in the buffer
+     * @param end The end of the input in the buffer (excluded)
+     * @return true if the input contains a match, false otherwise
+     * @throws AutomatonException Cannot happen. Does not use automaton (ignored)
+     */
+    @Override
+    public boolean isMatching(Automaton ignored, byte[] input, int start, int end) throws AutomatonException {
+        // A nullable regex matches the empty string at every position
+        if(nullable) return true;
+
+        if(ascii && wordNumber == 1) {
+            return linear ? isMatchingShift(input, start, end) : isMatchingSingleWord(input, start, end);
+        } else {
+            return isMatchingDecoded(input, start, end);
+        }
+    }
+
+    // ----- Class methods -----
+
+    /**
+     * Get if a regex tree can be searched with a single word state
+     *
+     * @param tree The regex tree
+     * @return True if the tree has at most WORD_SIZE positions
+     */
+    public static boolean isValidShiftAnd(RegExTree tree) {
+        return countPositions(tree) <= WORD_SIZE;
+    }
+
+    // ----- Internal methods -----
+
+    /**
+     * Search in the input when the regex is linear : one shift, one or and one and per character
+     *
+     * @param input The input string
+     * @return true if the input contains a match
+     */
+    private boolean isMatchingShift(String input) {
+        // Cache the masks in local variables
+        int[] classMap = alphabet.getClassMap();
+        long[] masks = classMasks;
+        long first = firstMask[0];
+        long last = lastMask[0];
+        long state = 0;
+
+        // Input all the characters
+        int length = input.length();
+        for(int i = 0 ; i < length ; i++) {
+            char c = input.charAt(i);
+            state = ((state << 1) | first) & masks[c < CHAR_NUMBER ? classMap[c] : alphabet.classOfWide(c)];
+            if((state & last) != 0) return true;
+        }
+
+        // The default result
+        return false;
+    }
+
+    /**
+     * Search in the input with a single word state and extra follow edges
+     *
+     * @param input The input string
+     * @return true if the input contains a match
+     */
+    private boolean isMatchingSingleWord(String input) {
+        // Cache the masks in local variables
+        int[] classMap = alphabet.getClassMap();
+        long[] masks = classMasks;
+        long[] table = extraTable;
+        int[] chunks = extraChunks;
+        long first = firstMask[0];
+        long last = lastMask[0];
+        long shift = shiftMask[0];
+        long state = 0;
+
+        // Input all the characters
+        int length = input.length();
+        for(int i = 0 ; i < length ; i++) {
+            char c = input.charAt(i);
+            long next = ((state << 1) & shift) | first;
+            for(int k = 0 ; k < chunks.length ; k++) {
+                next |= table[k * CHUNK_VALUES + (int) ((state >>> (chunks[k] * CHUNK_SIZE)) & (CHUNK_VALUES - 1))];
+            }
+            state = next & masks[c < CHAR_NUMBER ? classMap[c] : alphabet.classOfWide(c)];
+            if((state & last) != 0) return true;
+        }
+
+        // The default result
+        return false;
+    }
+
+    /**
+     * Search in the UTF-8 input when the regex is linear and only has ASCII characters
+     *
+     * @param input The input buffer
+     * @param start The start of the input in the buffer
+     * @param end The end of the input in the buffer (excluded)
+     * @return true if the input contains a match
+     */
+    private boolean isMatchingShift(byte[] input, int start, int end) {
+        // Cache the masks in local variables
+        int[] classMap = alphabet.getClassMap();
+        long[] masks = classMasks;
+        long first = firstMask[0];
+        long last = lastMask[0];
+        long state = 0;
+
+        // Input all the characters
+        for(int i = start ; i < end ; ) {
+            int b = input[i] & 0xFF;
+            long mask;
+            if(b < 0x80) {
+                mask = masks[classMap[b]];
+                i++;
+            } else {
+                // A supplementary code point is two characters
+                mask = masks[OTHER_CLASS];
+                int next = Utf8.characterEnd(input, i, end);
+                if(Utf8.unitNumber(i, next) == 2) {
+                    state = ((state << 1) | first) & mask;
+                    if((state & last) != 0) return true;
+                }
+                i = next;
+            }
+            state = ((state << 1) | first) & mask;
+            if((state & last) != 0) return true;
+        }
+
+        // The default result
+        return false;
+    }
+
+    /**
+     * Search in the UTF-8 input with a single word state and extra follow edges, when the regex only has ASCII characters
+     *
+     * @param input The input buffer
+     * @param start The start of the input in the buffer
+     * @param end The end of the input in the buffer (excluded)
+     * @return true if the input contains a match
+     */
+    private boolean isMatchingSingleWord(byte[] input, int start, int end) {
+        // Cache the masks in local variables
+        int[] classMap = alphabet.getClassMap();
+        long[] masks = classMasks;
+        long state = 0;
+
+        // Input all the characters
+        for(int i = start ; i < end ; ) {
+            int b = input[i] & 0xFF;
+            if(b < 0x80) {
+                state = stepSingleWord(state, masks[classMap[b]]);
+                i++;
+            } else {
+                // A supplementary code point is two characters
+                int next = Utf8.characterEnd(input, i, end);
+                if(Utf8.unitNumber(i, next) == 2) {
+                    state = stepSingleWord(state, masks[OTHER_CLASS]);
+                    if((state & lastMask[0]) != 0) return true;
+                }
+                state = stepSingleWord(state, masks[OTHER_CLASS]);
+                i = next;
+            }
+            if((state & lastMask[0]) != 0) return true;
+        }
+
+        // The default result
+        return false;
+    }
+
+    /**
+     * Compute the next single word state
+     *
+     * @param state The current state
+     * @param mask The mask of the character class
+     * @return The next state
+     */
+    private long stepSingleWord(long state, long mask) {
+        long next = ((state << 1) & shiftMask[0]) | firstMask[0];
+        for(int k = 0 ; k < extraChunks.length ; k++) {
+            next |= extraTable[k * CHUNK_VALUES + (int) ((state >>> (extraChunks[k] * CHUNK_SIZE)) & (CHUNK_VALUES - 1))];
+        }
+        return next & mask;
+    }
+
+    /**
+     * Search in the UTF-8 input by decoding the characters, for the regex with wide characters or a multi word state
+     *
+     * @param input The input buffer
+     * @param start The start of the input in the buffer
+     * @param end The end of the input in the buffer (excluded)
+     * @return true if the input contains a match
+     */
+    private boolean isMatchingDecoded(byte[] input, int start, int end) {
+        // Cache the masks in local variables
+        int[] classMap = alphabet.getClassMap();
+        boolean single = wordNumber == 1;
+        long[] words = single ? null : startMultiWord();
+        long last = lastMask[0];
+        long state = 0;
+
+        // Input all the characters
+        for(int i = start ; i < end ; ) {
+            int b = input[i] & 0xFF;
+            int cls;
+            if(b < 0x80) {
+                cls = classMap[b];
+                i++;
+            } else {
+                int next = Utf8.characterEnd(input, i, end);
+                int codePoint = Utf8.codePointOf(input, i, next);
+                boolean supplementary = Utf8.unitNumber(i, next) == 2;
+                i = next;
+
+                // A supplementary code point is two characters, a malformed sequence is unknown
+                if(supplementary) {
+                    cls = codePoint == Utf8.MALFORMED ? OTHER_CLASS : alphabet.classOf(Character.highSurrogate(codePoint));
+                    if(single) {
+                        state = stepSingleWord(state, classMasks[cls]);
+                        if((state & last) != 0) return true;
+                    } else if(stepMultiWord(words, cls)) {
+                        return true;
+                    }
+                    if(codePoint != Utf8.MALFORMED) codePoint = Character.lowSurrogate(codePoint);
+                }
+                cls = codePoint == Utf8.MALFORMED ? OTHER_CLASS : alphabet.classOf((char) codePoint);
+            }
+
+            // Input the character
+            if(single) {
+                state = stepSingleWord(state, classMasks[cls]);
+                if((state & last) != 0) return true;
+            } else if(stepMultiWord(words, cls)) {
+                return true;
+            }
+        }
+
+        // The default result
+        return false;
+    }
+
+    /**
+     * Search in the input with a multi word state
+     *
+     * @param input The input string
+     * @return true if the input contains a match
+     */
+    private boolean isMatchingMultiWord(String input) {
+        // Input all the characters
+        long[] words = startMultiWord();
+        int length = input.length();
+        for(int i = 0 ; i < length ; i++) {
+            if(stepMultiWord(words, alphabet.classOf(input.charAt(i)))) return true;
+        }
+
+        // The default result
+        return false;
+    }
+
+    /**
+     * Get the state words of the current thread, with the empty state
+     *
+     * @return The state words : the state, then the next state
+     */
+    private long[] startMultiWord() {
+        long[] res = stateWords.get();
+        Arrays.fill(res, 0, wordNumber, 0);
+        return res;
+    }
+
+    /**
+     * Compute the next multi word state in place
+     *
+     * @param words The state words : the state, then the next state
+     * @param cls The class of the character
+     * @return True if the next state is accepting
+     */
+    private boolean stepMultiWord(long[] words, int cls) {
+        int count = wordNumber;
+
+        // Shift the state with the carry between words
+        long carry = 0;
+        for(int w = 0 ; w < count ; w++) {
+            words[count + w] = (((words[w] << 1) | carry) & shiftMask[w]) | firstMask[w];
+            carry = words[w] >>> (WORD_SIZE - 1);
+        }
+
+        // Add the extra follow edges
+        for(int k = 0 ; k < extraChunks.length ; k++) {
+            int chunk = extraChunks[k];
+            int value = (int) ((words[chunk * CHUNK_SIZE / WORD_SIZE] >>> ((chunk * CHUNK_SIZE) % WORD_SIZE)) & (CHUNK_VALUES - 1));
+            int entryStart = (k * CHUNK_VALUES + value) * count;
+            for(int w = 0 ; w < count ; w++) words[count + w] |= extraTable[entryStart + w];
+        }
+
+        // Keep the positions matching the character and test the acceptance
+        int maskStart = cls * count;
+        boolean res = false;
+        for(int w = 0 ; w < count ; w++) {
+            words[w] = words[count + w] & classMasks[maskStart + w];
+            if((words[w] & lastMask[w]) != 0) res = true;
+        }
+        return res;
+    }
+
+    /**
+     * Count the positions (leaves) of a regex tree
+     *
+     * @param tree The regex tree
+     * @return The number of positions
+     */
+    private static int countPositions(RegExTree tree) {
+        if(tree.getSubTrees().isEmpty()) return 1;
+        int res = 0;
+        for(RegExTree subTree : tree.getSubTrees()) res += countPositions(subTree);
+        return res;
+    }
+
+    /**
+     * Compute recursively the Glushkov sets of a tree, fill the follow edges and the class masks
+     *
+     * @param tree The tree to process
+     * @param firstPosition The first position of the tree
+     * @param extraFollow The extra follow sets, filled for the positions with extra edges
+     * @return The Glushkov sets of the tree
+     */
+    private Glushkov processGlushkov(RegExTree tree, int firstPosition, long[][] extraFollow) {
+        Glushkov res = new Glushkov();
+        Glushkov left;
+        Glushkov right;
+
+        switch (tree.getRoot()) {
+            case CONCAT:
+                left = processGlushkov(tree.getSubTrees().get(0), firstPosition, extraFollow);
+                right = processGlushkov(tree.getSubTrees().get(1), left.positionEnd, extraFollow);
+                addFollow(left.last, right.first, extraFollow);
+                res.nullable = left.nullable && right.nullable;
+                res.first = left.nullable ? union(left.first, right.first) : left.first;
+                res.last = right.nullable ? union(left.last, right.last) : right.last;
+                res.positionEnd = right.positionEnd;
+                break;
+
+            case ALTERN:
+                left = processGlushkov(tree.getSubTrees().get(0), firstPosition, extraFollow);
+                right = processGlushkov(tree.getSubTrees().get(1), left.positionEnd, extraFollow);
+                res.nullable = left.nullable || right.nullable;
+                res.first = union(left.first, right.first);
+                res.last = union(left.last, right.last);
+                res.positionEnd = right.positionEnd;
+                break;
+
+            case STAR:
+                left = processGlushkov(tree.getSubTrees().get(0), firstPosition, extraFollow);
+                addFollow(left.last, left.first, extraFollow);
+                res.nullable = true;
+                res.first = left.first;
+                res.last = left.last;
+                res.positionEnd = left.positionEnd;
+                break;
+
+            default:
+                // The tree is a leaf : create its position and set it in the class masks
+                int pos = firstPosition;
+                if(tree.getRoot() == DOT) {
+                    for(int cls = 0 ; cls < alphabet.getClassNumber() ; cls++) setBit(classMasks, cls * wordNumber * WORD_SIZE + pos);
+                } else {
+                    setBit(classMasks, alphabet.classOf((char) tree.getRoot()) * wordNumber * WORD_SIZE + pos);
+                }
+                res.nullable = false;
+                res.first = new int[] {pos};
+                res.last = res.first;
+                res.positionEnd = pos + 1;
+        }
+
+        // Return the result
+        return res;
+    }
+
+    /**
+     * Add the follow edges from all the sources to all the targets : an edge to the next position is a shift edge,
+     * the other ones are extra edges
+     *
+     * @param sources The source positions
+     * @param targets The target positions
+     * @param extraFollow The extra follow sets
+     */
+    private void addFollow(int[] sources, int[] targets, long[][] extraFollow) {
+        for(int source : sources) {
+            for(int target : targets) {
+                if(target == source + 1) {
+                    setBit(shiftMask, target);
+                } else {
+                    if(extraFollow[source] == null) extraFollow[source] = new long[wordNumber];
+                    setBit(extraFollow[source], target);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the union of two position sets, the positions of the left one being before the ones of the right one
+     *
+     * @param left The left positions
+     * @param right The right positions
+     * @return The sorted positions of both sets
+     */
+    private static int[] union(int[] left, int[] right) {
+        if(left.length == 0) return right;
+        if(right.length == 0) return left;
+        int[] res = Arrays.copyOf(left, left.length + right.length);
+        System.arraycopy(right, 0, res, left.length, right.length);
+        return res;
+    }
+
+    private static boolean getBit(long[] set, int pos) {
+        return (set[pos / WORD_SIZE] & (1L << (pos % WORD_SIZE))) != 0;
+    }
+
+    private static void setBit(long[] set, int pos) {
+        set[pos / WORD_SIZE] |= 1L << (pos % WORD_SIZE);
+    }
+
+    // ----- Internal classes -----
+
+    /**
+     * This class holds the Glushkov sets of a sub-tree
+     */
+    private static class Glushkov {
+
+        boolean nullable;
+        int[] first;
+        int[] last;
+        int positionEnd;
+
+    }
+
+}
@@ -0,0 +1,175 @@
+package egrep.main.search_engine;
+
+import egrep.main.automaton.Automaton;
+import egrep.main.exceptions.AutomatonException;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class implements the Two-Way search of Crochemore and Perrin of a literal string over the UTF-8 bytes
+ * The literal is cut at a critical factorization : the right part is compared from left to right, then the left part
+ * from right to left. It runs in linear time in the worst case and only uses a constant space
+ *
+ * @author Emilie SIAU
+ * @author Hugo GUERRIER
+ */
+public class TwoWayStrategy implements SearchStrategy {
+
+    // ----- Attributes -----
+
+    private final byte[] literal;
+    private final int criticalPosition; // The last position of the left part
+    private final int period;
+    private final boolean periodic;
+
+    // ----- Constructors -----
+
+    /**
+     * Create a new Two-Way strategy
+     *
+     * @param literal The literal string to search
+     */
+    public TwoWayStrategy(String literal) {
+        this.literal = literal.getBytes(StandardCharsets.UTF_8);
+        int length = this.literal.length;
+
+        // The critical factorization is the longest of the maximal suffixes for both byte orders
+        int[] periods = new int[2];
+        int lessSuffix = maximalSuffix(this.literal, false, periods, 0);
+        int greaterSuffix = maximalSuffix(this.literal, true, periods, 1);
+        int suffixPeriod;
+        if(lessSuffix > greaterSuffix) {
+            criticalPosition = lessSuffix;
+            suffixPeriod = periods[0];
+        } else {
+            criticalPosition = greaterSuffix;
+            suffixPeriod = periods[1];
+        }
+
+        // If the left part is repeated after the suffix period, the period is the literal one
+        boolean repeated = suffixPeriod + criticalPosition + 1 <= length;
+        for(int i = 0 ; repeated && i <= criticalPosition ; i++) {
+            repeated = this.literal[i] == this.literal[i + suffixPeriod];
+        }
+        periodic = repeated;
+        period = periodic ? suffixPeriod : Math.max(criticalPosition + 1, length - criticalPosition - 1) + 1;
+    }
+
+    // ----- Override methods -----
+
+    /**
+     * Tell if the input contains the literal, using the Two-Way strategy
+     *
+     * @param ignored The automaton is ignored. You can give a null automaton
+     * @param input The input string
+     * @return true if the input contains the literal, false otherwise
+     * @throws AutomatonException Cannot happen. Does not use automaton (ignored)
+     */
+    @Override
+    public boolean isMatching(Automaton ignored, String input) throws AutomatonException {
+        byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+        return isMatching(ignored, bytes, 0, bytes.length);
+    }
+
+    /**
+     * Tell if the UTF-8 input contains the literal, using the Two-Way strategy
+     *
+     * @param ignored The automaton is ignored. You can give a null automaton
+     * @param input The input buffer
+     * @param start The start of the input in the buffer
+     * @param end The end of the input in the buffer (excluded)
+     * @return true if the input contains the literal, false otherwise
+     * @throws AutomatonException Cannot happen. Does not use automaton (ignored)
+     */
+    @Override
+    public boolean isMatching(Automaton ignored, byte[] input, int start, int end) throws AutomatonException {
+        return find(ignored, input, start, end) >= 0;
+    }
+
+    /**
+     * Find the first occurrence of the literal in a part of an UTF-8 buffer, which can hold many lines
+     *
+     * @param ignored The automaton is ignored. You can give a null automaton
+     * @param input The input buffer
+     * @param start The start of the input in the buffer
+     * @param end The end of the input in the buffer (excluded)
+     * @return The position of the occurrence, -1 if there is none
+     */
+    @Override
+    public int find(Automaton ignored, byte[] input, int start, int end) {
+        // Cache the attributes in local variables
+        byte[] literal = this.literal;
+        int length = literal.length;
+        int critical = criticalPosition;
+
+        // The empty literal is in every input
+        if(length == 0) return start;
+
+        // The memory is the length of the literal prefix known to match in a periodic literal
+        int memory = -1;
+        for(int pos = start ; pos <= end - length ; ) {
+            // Compare the right part
+            int i = Math.max(critical, memory) + 1;
+            while(i < length && literal[i] == input[pos + i]) i++;
+            if(i < length) {
+                pos += i - critical;
+                memory = -1;
+                continue;
+            }
+
+            // Compare the left part
+            i = critical;
+            while(i > memory && literal[i] == input[pos + i]) i--;
+            if(i <= memory) return pos;
+
+            // Shift by the period
+            pos += period;
+            if(periodic) memory = length - period - 1;
+        }
+
+        // The default result, if the input cannot match
+        return -1;
+    }
+
+    // ----- Internal methods -----
+
+    /**
+     * Compute the maximal suffix of a literal for a byte order
+     *
+     * @param literal The literal bytes
+     * @param reversed If the byte order is reversed
+     * @param periods The array where to put the period of the suffix
+     * @param index The index of the period in the array
+     * @return The position before the maximal suffix
+     */
+    private static int maximalSuffix(byte[] literal, boolean reversed, int[] periods, int index) {
+        int suffix = -1;
+        int j = 0;
+        int k = 1;
+        int period = 1;
+        while(j + k < literal.length) {
+            int a = literal[j + k] & 0xFF;
+            int b = literal[suffix + k] & 0xFF;
+            if(reversed ? a > b : a < b) {
+                j += k;
+                k = 1;
+                period = j - suffix;
+            } else if(a == b) {
+                if(k != period) {
+                    k++;
+                } else {
+                    j += period;
+                    k = 1;
+                }
+            } else {
+                suffix = j;
+                j = suffix + 1;
+                k = 1;
+                period = 1;
+            }
+        }
+        periods[index] = period;
+        return suffix;
+    }
+
+}
@@ -0,0 +1,127 @@
+package egrep.main.utils;
+
+/**
+ * This class looks for bytes in a buffer, it is used by the hot loops searching for line breaks and candidate bytes
+ * This scalar version runs everywhere. When the JVM has the Vector API (jdk.incubator.vector module, Java 17 or later),
+ * the VectorByteScanner sub class compares many bytes at a time. It is only loaded by reflection, so this class
+ * stays compatible with Java 8
+ *
+ * @author Emilie SIAU
+ * @author Hugo GUERRIER
+ */
+public class ByteScanner {
+
+    // ----- Macros -----
+
+    public static final String VECTOR_SCANNER_CLASS = "egrep.main.utils.VectorByteScanner";
+    public static final String VECTOR_PROPERTY = "egrep.vector"; // Set it to false to disable the Vector API
+
+    private static final ByteScanner INSTANCE = load();
+
+    // ----- Getters -----
+
+    /**
+     * Get the best byte scanner for the current JVM
+     *
+     * @return The byte scanner
+     */
+    public static ByteScanner getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get if the scanner compares many bytes at a time
+     *
+     * @return True if the scanner uses the Vector API
+     */
+    public boolean isVectorized() {
+        return false;
+    }
+
+    // ----- Class methods -----
+
+    /**
+     * Get the position of the first occurrence of a byte
+     *
+     * @param input The input buffer
+     * @param from The position to start from
+     * @param end The end of the input in the buffer (excluded)
+     * @param b The byte to look for
+     * @return The position of the byte, or the end if there is none
+     */
+    public int indexOf(byte[] input, int from, int end, byte b) {
+        int i = from;
+        while(i < end && input[i] != b) i++;
+        return i;
+    }
+
+    /**
+     * Get the position of the first occurrence of one of two bytes
+     *
+     * @param input The input buffer
+     * @param from The position to start from
+     * @param end The end of the input in the buffer (excluded)
+     * @param b0 The first byte to look for
+     * @param b1 The second byte to look for
+     * @return The position of one of the bytes, or the end if there is none
+     */
+    public int indexOfEither(byte[] input, int from, int end, byte b0, byte b1) {
+        int i = from;
+        while(i < end && input[i] != b0 && input[i] != b1) i++;
+        return i;
+    }
+
+    /**
+     * Get the position of the first byte of a set
+     *
+     * @param input The input buffer
+     * @param from The position to start from
+     * @param end The end of the input in the buffer (excluded)
+     * @param bytes The bytes of the set
+     * @param table The set as a table indexed by the byte values
+     * @return The position of a byte of the set, or the end if there is none
+     */
+    public int indexOfAny(byte[] input, int from, int end, byte[] bytes, boolean[] table) {
+        int i = from;
+        while(i < end && !table[input[i] & 0xFF]) i++;
+        return i;
+    }
+
+    /**
+     * Get the first position of a byte followed by another byte at a given distance.
+     * These are the candidate positions of a literal, from its first and last bytes
+     *
+     * @param input The input buffer
+     * @param from The position to start from
+     * @param end The end of the input in the buffer (excluded)
+     * @param first The first byte
+     * @param last The last byte
+     * @param distance The distance between the bytes
+     * @return The position of the first byte, or the end if there is none
+     */
+    public int indexOfPair(byte[] input, int from, int end, byte first, byte last, int distance) {
+        for(int i = from ; i < end - distance ; i++) {
+            if(input[i] == first && input[i + distance] == last) return i;
+        }
+        return end;
+    }
+
+    // ----- Internal methods -----
+
+    /**
+     * Load the vector scanner if the JVM can run it, or else the scalar one
+     *
+     * @return The byte scanner
+     */
+    private static ByteScanner load() {
+        if("false".equals(System.getProperty(VECTOR_PROPERTY))) return new ByteScanner();
+
+        try {
+            return (ByteScanner) Class.forName(VECTOR_SCANNER_CLASS).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            // The class is absent, too recent for the JVM, or the vector module is not added
+            return new ByteScanner();
+        }
+    }
+
+}
@@ -0,0 +1,141 @@
+package egrep.main.utils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class reads a file through memory mapped segments instead of read system calls, the bytes are copied
+ * once from the page cache into the reader buffer. The file is mapped by segments of SEGMENT_SIZE bytes with
+ * long offsets, so the files bigger than 2 GB can be read, each segment staying under the mapped buffer limit.
+ * It can also read only a part of a file, for the parallel search
+ *
+ * @author Emilie SIAU
+ * @author Hugo GUERRIER
+ */
+public class MappedInputStream extends InputStream {
+
+    // ----- Macros -----
+
+    public static final long SEGMENT_SIZE = 256L * 1024 * 1024;
+    public static final long MAP_THRESHOLD = 4L * 1024 * 1024; // The smaller files are read with a stream
+    public static final String MAP_PROPERTY = "egrep.mmap";    // Set it to false to disable the memory mapping
+
+    // ----- Attributes -----
+
+    private final FileChannel channel;
+    private final long size;
+    private final long segmentSize;
+    private long segmentEnd;
+    private MappedByteBuffer segment;
+
+    // ----- Constructors -----
+
+    /**
+     * Create a new mapped input stream
+     *
+     * @param file The file to read
+     * @throws IOException If the file cannot be opened
+     */
+    public MappedInputStream(File file) throws IOException {
+        this(file, SEGMENT_SIZE);
+    }
+
+    /**
+     * Create a new mapped input stream with a given segment size
+     *
+     * @param file The file to read
+     * @param segmentSize The size of the mapped segments, at most Integer.MAX_VALUE
+     * @throws IOException If the file cannot be opened
+     */
+    public MappedInputStream(File file, long segmentSize) throws IOException {
+        this(file, 0, Long.MAX_VALUE, segmentSize);
+    }
+
+    /**
+     * Create a new mapped input stream reading a part of a file
+     *
+     * @param file The file to read
+     * @param start The offset of the part start
+     * @param end The offset of the part end (excluded), after the file end to read the whole file
+     * @param segmentSize The size of the mapped segments, at most Integer.MAX_VALUE
+     * @throws IOException If the file cannot be opened
+     */
+    public MappedInputStream(File file, long start, long end, long segmentSize) throws IOException {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        size = Math.min(end, channel.size());
+        this.segmentSize = segmentSize;
+        segmentEnd = start;
+        segment = null;
+    }
+
+    // ----- Override methods -----
+
+    @Override
+    public int read() throws IOException {
+        if(!nextSegment()) return -1;
+        return segment.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if(len == 0) return 0;
+        if(!nextSegment()) return -1;
+
+        // Copy the bytes from the current segment
+        int res = Math.min(len, segment.remaining());
+        segment.get(b, off, res);
+        return res;
+    }
+
+    @Override
+    public int available() {
+        return segment != null ? segment.remaining() : 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        segment = null;
+        channel.close();
+    }
+
+    // ----- Class methods -----
+
+    /**
+     * Open a file, memory mapped if it is a regular file big enough
+     *
+     * @param file The file to open
+     * @return The input stream of the file
+     * @throws IOException If the file cannot be opened
+     */
+    public static InputStream open(File file) throws IOException {
+        if(!"false".equals(System.getProperty(MAP_PROPERTY)) && file.isFile() && file.length() >= MAP_THRESHOLD) {
+            return new MappedInputStream(file);
+        }
+        return new FileInputStream(file);
+    }
+
+    // ----- Internal methods -----
+
+    /**
+     * Map the next segment of the file if the current one is fully read
+     *
+     * @return True if there are bytes to read, false at the end of the file
+     * @throws IOException If the segment cannot be mapped
+     */
+    private boolean nextSegment() throws IOException {
+        if(segment != null && segment.hasRemaining()) return true;
+        if(segmentEnd >= size) return false;
+
+        // The previous segment is unmapped by the garbage collector
+        long segmentStart = segmentEnd;
+        segmentEnd = Math.min(segmentStart + segmentSize, size);
+        segment = channel.map(FileChannel.MapMode.READ_ONLY, segmentStart, segmentEnd - segmentStart);
+        return true;
+    }
+
+}
@@ -0,0 +1,117 @@
+package egrep.main.utils;
+
+/**
+ * This class reads the characters of an UTF-8 buffer without decoding them, for the strategies running over the bytes
+ * A malformed sequence is read as one replacement character, like the decoding of a string does : a byte which cannot
+ * start a sequence is one character, and a sequence cut by an unexpected byte or by the end of the input is one
+ * character, the unexpected byte starting the next one. A sequence of 4 bytes is a supplementary code point, that is
+ * two UTF-16 characters
+ *
+ * @author Emilie SIAU
+ * @author Hugo GUERRIER
+ */
+public class Utf8 {
+
+    // ----- Macros -----
+
+    public static final int INVALID_LEAD = -1;
+    public static final int MALFORMED = -1;
+
+    private static final int[] MIN_VALUES = {0, 0x80, 0x800, 0x10000};
+
+    // ----- Class methods -----
+
+    /**
+     * Get the number of continuation bytes following a lead byte
+     *
+     * @param b The byte, not ASCII
+     * @return The number of continuation bytes, INVALID_LEAD if the byte cannot start a sequence
+     */
+    public static int leadRemaining(int b) {
+        if(b >= 0xC2 && b < 0xE0) return 1;
+        if(b >= 0xE0 && b < 0xF0) return 2;
+        if(b >= 0xF0 && b < 0xF5) return 3;
+        return INVALID_LEAD;
+    }
+
+    /**
+     * Get if a byte continues a sequence
+     *
+     * @param b The byte value
+     * @return True if the byte is a continuation byte
+     */
+    public static boolean isContinuation(int b) {
+        return (b & 0xC0) == 0x80;
+    }
+
+    /**
+     * Get the end of the character starting at a position
+     *
+     * @param input The input buffer
+     * @param pos The position of the character
+     * @param end The end of the input in the buffer (excluded)
+     * @return The position of the next character
+     */
+    public static int characterEnd(byte[] input, int pos, int end) {
+        int b = input[pos] & 0xFF;
+        if(b < 0x80) return pos + 1;
+        int lead = leadRemaining(b);
+        if(lead == INVALID_LEAD) return pos + 1;
+
+        // Read the continuation bytes, until an unexpected byte
+        int res = pos + 1;
+        while(res < end && res <= pos + lead && isContinuation(input[res] & 0xFF)) res++;
+        return res;
+    }
+
+    /**
+     * Get the number of UTF-16 characters of a character read between two positions
+     *
+     * @param pos The position of the character
+     * @param next The position of the next character
+     * @return 2 for a supplementary code point, 1 otherwise
+     */
+    public static int unitNumber(int pos, int next) {
+        return next - pos == 4 ? 2 : 1;
+    }
+
+    /**
+     * Decode the character read between two positions
+     *
+     * @param input The input buffer
+     * @param pos The position of the character
+     * @param next The position of the next character
+     * @return The code point, MALFORMED if the sequence is cut, overlong, a surrogate or out of the Unicode range
+     */
+    public static int codePointOf(byte[] input, int pos, int next) {
+        int b = input[pos] & 0xFF;
+        if(b < 0x80) return b;
+        int lead = leadRemaining(b);
+        if(lead == INVALID_LEAD || next - pos != lead + 1) return MALFORMED;
+
+        // Add the 6 bits of each continuation byte
+        int res = b & (0x3F >> lead);
+        for(int i = pos + 1 ; i < next ; i++) res = (res << 6) | (input[i] & 0x3F);
+        if(res < MIN_VALUES[lead] || res > Character.MAX_CODE_POINT) return MALFORMED;
+        if(res >= Character.MIN_SURROGATE && res <= Character.MAX_SURROGATE) return MALFORMED;
+        return res;
+    }
+
+    /**
+     * Get the start of the character ending at a position
+     *
+     * @param input The input buffer
+     * @param start The start of the input in the buffer
+     * @param pos The position of the next character, after the start
+     * @return The position of the character
+     */
+    public static int characterStart(byte[] input, int start, int pos) {
+        // Skip the continuation bytes back to a lead byte
+        int res = pos - 1;
+        while(res > start && res > pos - 4 && isContinuation(input[res] & 0xFF)) res--;
+
+        // The lead byte must read all the bytes up to the position, or else the last byte is a character
+        return characterEnd(input, res, pos) == pos ? res : pos - 1;
+    }
+
+}
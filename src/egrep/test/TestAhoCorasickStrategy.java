@@ -0,0 +1,126 @@
+package egrep.test;
+
+import egrep.main.search_engine.AhoCorasickStrategy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("A test suite for the Aho-Corasick strategy")
+public class TestAhoCorasickStrategy {
+
+    /**
+     * Check the test suite availability
+     */
+    @Test
+    void available() {
+        assertTrue(true);
+    }
+
+    /**
+     * Test the matching of some literals
+     */
+    @Test
+    void testMatching() {
+        try {
+            AhoCorasickStrategy strategy = new AhoCorasickStrategy(Arrays.asList("he", "she", "his", "hers"));
+
+            assertTrue(strategy.isMatching(null, "ushers"));
+            assertTrue(strategy.isMatching(null, "this"));
+            assertTrue(strategy.isMatching(null, "he"));
+            assertFalse(strategy.isMatching(null, ""));
+            assertFalse(strategy.isMatching(null, "hi s"));
+            assertFalse(strategy.isMatching(null, "Sargon"));
+
+            // The empty literal matches every input
+            AhoCorasickStrategy empty = new AhoCorasickStrategy(Arrays.asList("Babylon", ""));
+            assertTrue(empty.isMatching(null, ""));
+            assertTrue(empty.isMatching(null, "Sargon"));
+
+            // Without literals nothing matches
+            assertFalse(new AhoCorasickStrategy(new ArrayList<>()).isMatching(null, "Sargon"));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test that the found literals are the ones contained in the input
+     */
+    @Test
+    void testFindLiterals() {
+        AhoCorasickStrategy strategy = new AhoCorasickStrategy(Arrays.asList("he", "she", "his", "hers", "中文", "é"));
+
+        assertArrayEquals(new int[]{0, 1, 3}, find(strategy, "ushers"));
+        assertArrayEquals(new int[]{2}, find(strategy, "this"));
+        assertArrayEquals(new int[]{}, find(strategy, "Sargon"));
+        assertArrayEquals(new int[]{0, 4, 5}, find(strategy, "the 中文 est étrange"));
+        assertArrayEquals(new int[]{}, find(strategy, "中 文"));
+    }
+
+    /**
+     * Test many random literals against the naive search
+     */
+    @Test
+    void testRandom() {
+        try {
+            Random random = new Random(42);
+            String alphabet = "abcé中";
+
+            for(int round = 0 ; round < 50 ; round++) {
+                // Create the random literals
+                List<String> literals = new ArrayList<>();
+                int literalNumber = 1 + random.nextInt(200);
+                for(int i = 0 ; i < literalNumber ; i++) literals.add(randomString(random, alphabet, 1 + random.nextInt(6)));
+                AhoCorasickStrategy strategy = new AhoCorasickStrategy(literals);
+
+                // Compare with the naive search
+                for(int i = 0 ; i < 50 ; i++) {
+                    String input = randomString(random, alphabet, random.nextInt(30));
+                    List<Integer> expected = new ArrayList<>();
+                    for(int j = 0 ; j < literals.size() ; j++) if(input.contains(literals.get(j))) expected.add(j);
+
+                    assertEquals(!expected.isEmpty(), strategy.isMatching(null, input), input);
+                    assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), find(strategy, input), input);
+                }
+            }
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Find the literals of a string
+     *
+     * @param strategy The Aho-Corasick strategy
+     * @param input The input string
+     * @return The found literal indexes
+     */
+    private static int[] find(AhoCorasickStrategy strategy, String input) {
+        byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+        return strategy.findLiterals(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Create a random string
+     *
+     * @param random The random generator
+     * @param alphabet The string characters
+     * @param length The string length
+     * @return The random string
+     */
+    private static String randomString(Random random, String alphabet, int length) {
+        StringBuilder res = new StringBuilder();
+        for(int i = 0 ; i < length ; i++) res.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        return res.toString();
+    }
+
+}
@@ -0,0 +1,158 @@
+package egrep.test;
+
+import egrep.main.automaton.Automaton;
+import egrep.main.automaton.AutomatonFile;
+import egrep.main.automaton.MappedAutomaton;
+import egrep.main.exceptions.AutomatonException;
+import egrep.main.parser.RegExParser;
+import egrep.main.search_engine.DFAStrategy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("A test suite for the compiled automaton files")
+public class TestAutomatonFile {
+
+    /**
+     * Check the test suite availability
+     */
+    @Test
+    void available() {
+        assertTrue(true);
+    }
+
+    /**
+     * Test that a written then mapped automaton matches like the original one
+     */
+    @Test
+    void testWriteLoad() {
+        try {
+            File file = Files.createTempFile("egrep", AutomatonFile.EXTENSION).toFile();
+            file.deleteOnExit();
+
+            // Write the automaton and map it
+            Automaton automaton = new Automaton(new RegExParser("S(a|g|r)*on|中.").parse(), true, true);
+            AutomatonFile.write(automaton, file);
+            MappedAutomaton mapped = AutomatonFile.load(file);
+
+            // Compare the matching
+            DFAStrategy strategy = new DFAStrategy();
+            String[] inputs = {"", "Sargon", "Le Saron", "Son", "Sgn", "Babylon", "中", "中文", "x中é"};
+            for(String input : inputs) {
+                byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+                assertEquals(strategy.isMatching(automaton, input), mapped.isMatching(input), input);
+                assertEquals(strategy.isMatching(automaton, input), mapped.isMatching(bytes, 0, bytes.length), input);
+            }
+
+            // Compare the first match of a buffer holding many lines, found with the prefilter
+            assertNotNull(mapped.getPrefilter());
+            byte[] lines = String.join("\n", inputs).getBytes(StandardCharsets.UTF_8);
+            for(int start = 0 ; start < lines.length ; start++) {
+                if(start > 0 && lines[start - 1] != '\n') continue;
+                assertEquals(strategy.find(automaton, lines, start, lines.length), mapped.find(lines, start, lines.length));
+            }
+            assertEquals(-1, mapped.find("Sgn\nSo\nn".getBytes(StandardCharsets.UTF_8), 0, 8));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the loading of files that are not valid automaton files
+     */
+    @Test
+    void testInvalidFiles() {
+        try {
+            File file = Files.createTempFile("egrep", AutomatonFile.EXTENSION).toFile();
+            file.deleteOnExit();
+
+            // Not an automaton file
+            Files.write(file.toPath(), "Not an automaton".getBytes(StandardCharsets.UTF_8));
+            assertThrows(AutomatonException.class, () -> AutomatonFile.load(file));
+
+            // Another version
+            try(DataOutputStream output = new DataOutputStream(new FileOutputStream(file))) {
+                output.writeInt(AutomatonFile.MAGIC);
+                output.writeInt(AutomatonFile.VERSION + 1);
+                output.writeInt(1);
+            }
+            assertThrows(AutomatonException.class, () -> AutomatonFile.load(file));
+
+            // A truncated file
+            Automaton automaton = new Automaton(new RegExParser("abc").parse(), true, true);
+            AutomatonFile.write(automaton, file);
+            byte[] content = Files.readAllBytes(file.toPath());
+            Files.write(file.toPath(), Arrays.copyOf(content, content.length / 2));
+            assertThrows(AutomatonException.class, () -> AutomatonFile.load(file));
+
+            // A file of the right size with a transition out of the table
+            AutomatonFile.write(automaton, file);
+            assertThrows(AutomatonException.class, () -> AutomatonFile.load(corrupt(file, content, content.length - 4, 12345)));
+
+            // A negative initial state
+            assertThrows(AutomatonException.class, () -> AutomatonFile.load(corrupt(file, content, 20, -1)));
+
+            // A table size overflowing an int
+            assertThrows(AutomatonException.class, () -> AutomatonFile.load(corrupt(file, content, 12, 0x10000, 0x10001)));
+
+            // Representatives not consistent with the class map : the other class with a representative,
+            // a Latin-1 representative out of its class, unsorted or too wide characters
+            Automaton wide = new Automaton(new RegExParser("a中文").parse(), true, true);
+            AutomatonFile.write(wide, file);
+            byte[] wideContent = Files.readAllBytes(file.toPath());
+            int representatives = 28 + 4 * 256;
+            assertNotNull(AutomatonFile.load(corrupt(file, wideContent, representatives, -1, 'a', 0x4e2d, 0x6587)));
+            assertThrows(AutomatonException.class, () -> AutomatonFile.load(corrupt(file, wideContent, representatives, 'a')));
+            assertThrows(AutomatonException.class, () -> AutomatonFile.load(corrupt(file, wideContent, representatives + 4, 'b')));
+            assertThrows(AutomatonException.class, () -> AutomatonFile.load(corrupt(file, wideContent, representatives + 8, 0x6587, 0x4e2d)));
+            assertThrows(AutomatonException.class, () -> AutomatonFile.load(corrupt(file, wideContent, representatives + 8, 0x4e2d, 0x4e2d)));
+            assertThrows(AutomatonException.class, () -> AutomatonFile.load(corrupt(file, wideContent, representatives + 12, 0x10000)));
+
+            // An anchored automaton cannot be written
+            assertThrows(AutomatonException.class, () -> AutomatonFile.write(new Automaton(new RegExParser("abc").parse()), file));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the cache file names
+     */
+    @Test
+    void testCacheFile() {
+        File directory = new File("cache");
+        assertEquals(AutomatonFile.getCacheFile(directory, "a|b"), AutomatonFile.getCacheFile(directory, "a|b"));
+        assertNotEquals(AutomatonFile.getCacheFile(directory, "a|b"), AutomatonFile.getCacheFile(directory, "a|c"));
+        assertTrue(AutomatonFile.getCacheFile(directory, "a|b").getName().endsWith(AutomatonFile.EXTENSION));
+    }
+
+    /**
+     * Write a copy of a file content with some ints replaced
+     *
+     * @param file The file to write
+     * @param content The file content
+     * @param offset The offset of the first int to replace
+     * @param values The new int values
+     * @return The written file
+     * @throws IOException If the file cannot be written
+     */
+    private static File corrupt(File file, byte[] content, int offset, int... values) throws IOException {
+        byte[] res = content.clone();
+        for(int i = 0 ; i < values.length ; i++) ByteBuffer.wrap(res).putInt(offset + 4 * i, values[i]);
+        Files.write(file.toPath(), res);
+        return file;
+    }
+
+}
@@ -0,0 +1,96 @@
+package egrep.test;
+
+import egrep.main.search_engine.BlockReader;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("A test suite for the block reader")
+public class TestBlockReader {
+
+    /**
+     * Check the test suite availability
+     */
+    @Test
+    void available() {
+        assertTrue(true);
+    }
+
+    /**
+     * Test the location of the lines in a block
+     */
+    @Test
+    void testLines() {
+        try(BlockReader reader = createReader("the king\r\nof\n\nBabylon")) {
+            assertTrue(reader.next());
+            assertEquals(21, reader.getBlockEnd());
+
+            // The line holding "of"
+            int pos = 11;
+            assertEquals(10, reader.getLineStart(pos));
+            assertEquals(12, reader.getLineEnd(pos));
+            assertEquals(2, reader.getLineNumber(10));
+            assertEquals("of", reader.getLine(10, 12));
+
+            // The line holding "Babylon", without line break
+            assertEquals(14, reader.getLineStart(20));
+            assertEquals(21, reader.getLineEnd(20));
+            assertEquals(4, reader.getLineNumber(14));
+            assertEquals("Babylon", reader.getLine(14, 21));
+
+            // The carriage return is not in the line
+            assertEquals(8, reader.getContentEnd(0, 9));
+            assertEquals("the king", reader.getLine(0, 9));
+
+            assertFalse(reader.next());
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the blocks of an input bigger than the buffer, with a line longer than the buffer
+     */
+    @Test
+    void testBlocks() {
+        // Create lines of 100 bytes, then a long line
+        StringBuilder input = new StringBuilder();
+        int lineNumber = 3 * BlockReader.BLOCK_SIZE / 100;
+        for(int i = 0 ; i < lineNumber ; i++) input.append(String.format("%099d\n", i));
+        for(int i = 0 ; i < 3 * BlockReader.BLOCK_SIZE ; i++) input.append('x');
+        input.append("\nlast\n");
+
+        try(BlockReader reader = createReader(input.toString())) {
+            // Every block ends after a line break, and the line numbers follow the blocks
+            int lines = 0;
+            String last = null;
+            while(reader.next()) {
+                assertEquals('\n', reader.getBuffer()[reader.getBlockEnd() - 1]);
+                int lastStart = reader.getLineStart(reader.getBlockEnd() - 1);
+                lines = reader.getLineNumber(lastStart);
+                last = reader.getLine(lastStart, reader.getBlockEnd() - 1);
+            }
+            assertEquals(lineNumber + 2, lines);
+            assertEquals("last", last);
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Create a block reader on a string
+     *
+     * @param input The input string
+     * @return The block reader
+     */
+    private static BlockReader createReader(String input) {
+        return new BlockReader(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+    }
+
+}
@@ -0,0 +1,122 @@
+package egrep.test;
+
+import egrep.main.utils.ByteScanner;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("A test suite for the byte scanners")
+public class TestByteScanner {
+
+    /**
+     * Check the test suite availability
+     */
+    @Test
+    void available() {
+        assertTrue(true);
+    }
+
+    /**
+     * Test the scalar scanner on a small input
+     */
+    @Test
+    void testScalar() {
+        ByteScanner scanner = new ByteScanner();
+        byte[] input = "the king of Babylon\nand Ur".getBytes(StandardCharsets.UTF_8);
+
+        assertFalse(scanner.isVectorized());
+        assertEquals(19, scanner.indexOf(input, 0, input.length, (byte) '\n'));
+        assertEquals(10, scanner.indexOf(input, 0, 10, (byte) '\n'));
+        assertEquals(12, scanner.indexOfEither(input, 0, input.length, (byte) 'B', (byte) 'U'));
+        assertEquals(24, scanner.indexOfEither(input, 13, input.length, (byte) 'B', (byte) 'U'));
+        assertEquals(4, scanner.indexOfAny(input, 0, input.length, new byte[]{'k', 'B', 'U'}, getTable('k', 'B', 'U')));
+        assertEquals(12, scanner.indexOfPair(input, 0, input.length, (byte) 'B', (byte) 'n', 6));
+        assertEquals(input.length, scanner.indexOfPair(input, 13, input.length, (byte) 'B', (byte) 'n', 6));
+    }
+
+    /**
+     * Test that the best scanner of the JVM gives the results of the scalar scanner on random inputs
+     */
+    @Test
+    void testInstance() {
+        ByteScanner scalar = new ByteScanner();
+        ByteScanner scanner = ByteScanner.getInstance();
+        Random random = new Random(42);
+
+        for(int r = 0 ; r < 200 ; r++) {
+            // Create a random input over a small alphabet, so the bytes are found at any position
+            byte[] input = new byte[random.nextInt(300)];
+            for(int i = 0 ; i < input.length ; i++) input[i] = (byte) ('a' + random.nextInt(40));
+            int from = input.length > 0 ? random.nextInt(input.length) : 0;
+            byte b0 = (byte) ('a' + random.nextInt(40));
+            byte b1 = (byte) ('a' + random.nextInt(40));
+            byte b2 = (byte) ('a' + random.nextInt(40));
+            int distance = random.nextInt(8);
+
+            // Compare the scanners
+            assertEquals(scalar.indexOf(input, from, input.length, b0), scanner.indexOf(input, from, input.length, b0));
+            assertEquals(scalar.indexOfEither(input, from, input.length, b0, b1), scanner.indexOfEither(input, from, input.length, b0, b1));
+            byte[] bytes = {b0, b1, b2};
+            assertEquals(scalar.indexOfAny(input, from, input.length, bytes, getTable(bytes)), scanner.indexOfAny(input, from, input.length, bytes, getTable(bytes)));
+            assertEquals(scalar.indexOfPair(input, from, input.length, b0, b1, distance), scanner.indexOfPair(input, from, input.length, b0, b1, distance));
+        }
+    }
+
+    /**
+     * Test the big byte sets, classified with nibble tables by the vector scanner, against the scalar scanner
+     */
+    @Test
+    void testBigSets() {
+        ByteScanner scalar = new ByteScanner();
+        ByteScanner scanner = ByteScanner.getInstance();
+        Random random = new Random(42);
+
+        for(int r = 0 ; r < 500 ; r++) {
+            // Create a random set, with bytes sharing their nibbles and more than 8 high nibbles sometimes
+            byte[] bytes = new byte[5 + random.nextInt(40)];
+            for(int i = 0 ; i < bytes.length ; i++) bytes[i] = (byte) random.nextInt(256);
+            boolean[] table = getTable(bytes);
+
+            // Create a random input holding few bytes of the set
+            byte[] input = new byte[random.nextInt(300)];
+            for(int i = 0 ; i < input.length ; i++) {
+                input[i] = random.nextInt(20) == 0 ? bytes[random.nextInt(bytes.length)] : (byte) random.nextInt(256);
+            }
+            int from = input.length > 0 ? random.nextInt(input.length) : 0;
+
+            // The same set array is searched twice, the second time with the cached tables
+            for(int k = 0 ; k < 2 ; k++) {
+                assertEquals(scalar.indexOfAny(input, from, input.length, bytes, table), scanner.indexOfAny(input, from, input.length, bytes, table));
+            }
+        }
+    }
+
+    /**
+     * Get the table of a byte set
+     *
+     * @param bytes The bytes of the set
+     * @return The set as a table indexed by the byte values
+     */
+    private static boolean[] getTable(byte... bytes) {
+        boolean[] res = new boolean[256];
+        for(byte b : bytes) res[b & 0xFF] = true;
+        return res;
+    }
+
+    /**
+     * Get the table of a character set
+     *
+     * @param chars The ASCII characters of the set
+     * @return The set as a table indexed by the byte values
+     */
+    private static boolean[] getTable(char... chars) {
+        boolean[] res = new boolean[256];
+        for(char c : chars) res[c] = true;
+        return res;
+    }
+
+}
@@ -0,0 +1,179 @@
+package egrep.test;
+
+import egrep.main.automaton.Alphabet;
+import egrep.main.automaton.Automaton;
+import egrep.main.automaton.CompiledAutomaton;
+import egrep.main.parser.RegExParser;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("A test suite for the compiled automaton")
+public class TestCompiledAutomaton {
+
+    /**
+     * Check the test suite availability
+     */
+    @Test
+    void available() {
+        assertTrue(true);
+    }
+
+    /**
+     * Test the compiled automaton on the aho ullman example
+     */
+    @Test
+    void testAhoUllman() {
+        try {
+
+            // Compile the automaton and test its transitions
+            Automaton automaton = new Automaton(RegExParser.exampleAhoUllman());
+            CompiledAutomaton compiled = automaton.getCompiled();
+            assertNotNull(compiled);
+
+            int state = compiled.getInitState();
+            assertFalse(compiled.isAccepting(state));
+            assertEquals(CompiledAutomaton.DEAD_STATE, compiled.next(state, 'c'));
+
+            state = compiled.next(state, 'b');
+            assertTrue(compiled.isAccepting(state));
+
+            state = compiled.next(state, 'c');
+            assertTrue(compiled.isAccepting(state));
+            assertEquals(state, compiled.next(state, 'c'));
+            assertEquals(CompiledAutomaton.DEAD_STATE, compiled.next(state, 'a'));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the compiled automaton for the dot
+     */
+    @Test
+    void testDot() {
+        // Prepare the regex and the parser
+        String regex = "a.";
+        RegExParser parser = new RegExParser(regex);
+
+        try {
+
+            // Compile the automaton and test its transitions
+            CompiledAutomaton compiled = new Automaton(parser.parse()).getCompiled();
+
+            int state = compiled.next(compiled.getInitState(), 'a');
+            assertFalse(compiled.isAccepting(state));
+            assertTrue(compiled.isAccepting(compiled.next(state, 'z')));
+            assertTrue(compiled.isAccepting(compiled.next(state, 'é')));
+            assertTrue(compiled.isAccepting(compiled.next(state, '中')));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test that the dead state stays dead
+     */
+    @Test
+    void testDeadState() {
+        // Prepare the regex and the parser
+        String regex = "ab";
+        RegExParser parser = new RegExParser(regex);
+
+        try {
+
+            // Compile the automaton and test the dead state
+            CompiledAutomaton compiled = new Automaton(parser.parse()).getCompiled();
+            assertFalse(compiled.isAccepting(CompiledAutomaton.DEAD_STATE));
+            assertEquals(CompiledAutomaton.DEAD_STATE, compiled.next(compiled.getInitState(), 'b'));
+            assertEquals(CompiledAutomaton.DEAD_STATE, compiled.next(CompiledAutomaton.DEAD_STATE, 'a'));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the minimization on the classic (a|b)*abb example
+     */
+    @Test
+    void testMinimize() {
+        // Prepare the regex and the parser
+        String regex = "(a|b)*abb";
+        RegExParser parser = new RegExParser(regex);
+
+        try {
+
+            // Minimize the automaton : 4 live states and the dead state
+            Automaton automaton = new Automaton(parser.parse());
+            int stateNumber = automaton.getCompiled().getStateNumber();
+            CompiledAutomaton minimal = automaton.minimize();
+            assertEquals(5, minimal.getStateNumber());
+            assertTrue(minimal.getStateNumber() <= stateNumber);
+
+            // Verify the language is the same
+            int state = minimal.getInitState();
+            for(char c : "ababb".toCharArray()) state = minimal.next(state, c);
+            assertTrue(minimal.isAccepting(state));
+            state = minimal.next(state, 'a');
+            assertFalse(minimal.isAccepting(state));
+            assertEquals(CompiledAutomaton.DEAD_STATE, minimal.next(state, 'c'));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the minimization merges the equivalent branches of an alternation
+     */
+    @Test
+    void testMinimizeAltern() {
+        // Prepare the regex and the parser
+        String regex = "(abc)|(bbc)|(cbc)";
+        RegExParser parser = new RegExParser(regex);
+
+        try {
+
+            // Minimize the automaton : init, b, c, accept and the dead state
+            CompiledAutomaton minimal = new Automaton(parser.parse()).minimize();
+            assertEquals(5, minimal.getStateNumber());
+            assertEquals(minimal.next(minimal.getInitState(), 'a'), minimal.next(minimal.getInitState(), 'c'));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the alphabet equivalence classes
+     */
+    @Test
+    void testAlphabet() {
+        // Prepare the regex and the parser
+        String regex = "Babylon";
+        RegExParser parser = new RegExParser(regex);
+
+        try {
+
+            // Seven used characters and the other class
+            CompiledAutomaton compiled = new Automaton(parser.parse()).getCompiled();
+            Alphabet alphabet = compiled.getAlphabet();
+            assertEquals(8, alphabet.getClassNumber());
+            assertEquals(8, compiled.getAlphabetSize());
+            assertEquals(compiled.getStateNumber() * 8, compiled.getTable().length);
+
+            assertNotEquals(Alphabet.OTHER_CLASS, alphabet.classOf('B'));
+            assertNotEquals(alphabet.classOf('b'), alphabet.classOf('B'));
+            assertEquals(Alphabet.OTHER_CLASS, alphabet.classOf('z'));
+            assertEquals(Alphabet.OTHER_CLASS, alphabet.classOf('中'));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+}
@@ -2,6 +2,7 @@ package egrep.test;
 
 import egrep.main.automaton.Automaton;
 import egrep.main.automaton.NodeId;
+import egrep.main.exceptions.AutomatonException;
 import egrep.main.parser.RegExParser;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -203,4 +204,58 @@ public class TestDFA {
             fail(e);
         }
     }
+
+    /**
+     * Test the character input and the dead state of the automaton
+     */
+    @Test
+    void testInput() {
+        // Prepare the regex and the parser
+        String regex = "ab*c";
+        RegExParser parser = new RegExParser(regex);
+
+        try {
+
+            // Input characters and verify the automaton state
+            Automaton automaton = new Automaton(parser.parse());
+            assertFalse(automaton.isInFinalState());
+            assertFalse(automaton.input('a'));
+            assertFalse(automaton.input('b'));
+            assertTrue(automaton.input('c'));
+            assertTrue(automaton.isInFinalState());
+            assertFalse(automaton.isDead());
+
+            // A character without transition leads to the dead state without exception
+            assertFalse(automaton.input('x'));
+            assertTrue(automaton.isDead());
+            assertFalse(automaton.input('c'));
+            assertTrue(automaton.isDead());
+
+            // The reset goes back to the initial state
+            automaton.reset();
+            assertFalse(automaton.isDead());
+            assertFalse(automaton.input('a'));
+            assertTrue(automaton.input('c'));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test that the input needs a deterministic automaton
+     */
+    @Test
+    void testInputNotDeterminist() {
+        try {
+
+            Automaton automaton = new Automaton(RegExParser.exampleAhoUllman(), false);
+            automaton.createNDFA();
+            assertThrows(AutomatonException.class, () -> automaton.input('a'));
+            assertThrows(AutomatonException.class, automaton::reset);
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
 }
@@ -0,0 +1,483 @@
+package egrep.test;
+
+import egrep.main.automaton.Automaton;
+import egrep.main.automaton.CompiledAutomaton;
+import egrep.main.exceptions.AutomatonException;
+import egrep.main.parser.RegExParser;
+import egrep.main.search_engine.DFAStrategy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("A test suite for the unanchored DFA search strategy")
+public class TestDFAStrategy {
+
+    /**
+     * Check the test suite availability
+     */
+    @Test
+    void available() {
+        assertTrue(true);
+    }
+
+    /**
+     * Test for the aho ullman (a|bc*) example match
+     */
+    @Test
+    void testAhoUllman() {
+        try {
+
+            // Create the automaton and the strategy
+            Automaton automaton = new Automaton(RegExParser.exampleAhoUllman(), true, true);
+            DFAStrategy strategy = new DFAStrategy();
+
+            assertTrue(strategy.isMatching(automaton, "ac"));
+            assertTrue(strategy.isMatching(automaton, "bc"));
+            assertTrue(strategy.isMatching(automaton, "a"));
+            assertTrue(strategy.isMatching(automaton, "b"));
+            assertTrue(strategy.isMatching(automaton, "ab"));
+            assertTrue(strategy.isMatching(automaton, "accccc"));
+            assertTrue(strategy.isMatching(automaton, "bccccc"));
+
+            assertFalse(strategy.isMatching(automaton, ""));
+            assertFalse(strategy.isMatching(automaton, "c"));
+            assertFalse(strategy.isMatching(automaton, "Coucou"));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the marching with the concatenation
+     */
+    @Test
+    void testConcat() {
+        // Define the regex and the parser
+        String regex = "coucou";
+        RegExParser parser = new RegExParser(regex);
+
+        try {
+
+            Automaton automaton = new Automaton(parser.parse(), true, true);
+            DFAStrategy strategy = new DFAStrategy();
+
+            assertTrue(strategy.isMatching(automaton, "coucou"));
+            assertTrue(strategy.isMatching(automaton, "coucouaaa"));
+            assertTrue(strategy.isMatching(automaton, "aaacoucou"));
+            assertTrue(strategy.isMatching(automaton, "This is a coucou"));
+
+            assertFalse(strategy.isMatching(automaton, ""));
+            assertFalse(strategy.isMatching(automaton, "Coucou"));
+            assertFalse(strategy.isMatching(automaton, "coUcou"));
+            assertFalse(strategy.isMatching(automaton, "cou cou"));
+            assertFalse(strategy.isMatching(automaton, "Rien à voir"));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the matching with the dot
+     */
+    @Test
+    void testDot() {
+        // Define the regex and the parser
+        String regex = ".";
+        RegExParser parser = new RegExParser(regex);
+
+        try {
+
+            Automaton automaton = new Automaton(parser.parse(), true, true);
+            DFAStrategy strategy = new DFAStrategy();
+
+            assertTrue(strategy.isMatching(automaton, "a"));
+            assertTrue(strategy.isMatching(automaton, "test"));
+            assertTrue(strategy.isMatching(automaton, " "));
+            assertTrue(strategy.isMatching(automaton, "."));
+
+            assertFalse(strategy.isMatching(automaton, ""));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the matching with the star
+     */
+    @Test
+    void testStar() {
+        // Define the regex and the parser
+        String regex = "a*";
+        RegExParser parser = new RegExParser(regex);
+
+        try {
+
+            Automaton automaton = new Automaton(parser.parse(), true, true);
+            DFAStrategy strategy = new DFAStrategy();
+
+            assertTrue(strategy.isMatching(automaton, ""));
+            assertTrue(strategy.isMatching(automaton, "a"));
+            assertTrue(strategy.isMatching(automaton, "aaaaaa"));
+            assertTrue(strategy.isMatching(automaton, "Rien à voir"));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the marching with the altern
+     */
+    @Test
+    void testAltern() {
+        // Define the regex and the parser
+        String regex = "a|b";
+        RegExParser parser = new RegExParser(regex);
+
+        try {
+
+            Automaton automaton = new Automaton(parser.parse(), true, true);
+            DFAStrategy strategy = new DFAStrategy();
+
+            assertTrue(strategy.isMatching(automaton, "a"));
+            assertTrue(strategy.isMatching(automaton, "b"));
+            assertTrue(strategy.isMatching(automaton, "ab"));
+            assertTrue(strategy.isMatching(automaton, "This is a test"));
+            assertTrue(strategy.isMatching(automaton, "This is b test"));
+
+            assertFalse(strategy.isMatching(automaton, ""));
+            assertFalse(strategy.isMatching(automaton, "Nope"));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the matching with the parenthesis
+     */
+    @Test
+    void testParen() {
+        // Define the regex and the parser
+        String regex = "(ab)|(ac)";
+        RegExParser parser = new RegExParser(regex);
+
+        try {
+
+            Automaton automaton = new Automaton(parser.parse(), true, true);
+            DFAStrategy strategy = new DFAStrategy();
+
+            assertTrue(strategy.isMatching(automaton, "ab"));
+            assertTrue(strategy.isMatching(automaton, "ac"));
+            assertTrue(strategy.isMatching(automaton, "abcbbc"));
+            assertTrue(strategy.isMatching(automaton, "accurate"));
+            assertTrue(strategy.isMatching(automaton, "ability"));
+
+            assertFalse(strategy.isMatching(automaton, ""));
+            assertFalse(strategy.isMatching(automaton, "Nope"));
+            assertFalse(strategy.isMatching(automaton, "bcause"));
+            assertFalse(strategy.isMatching(automaton, "axe"));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the matching with all the operators
+     */
+    @Test
+    void testAll() {
+        // Define the regex and the parser
+        String regex = "(coucou!(!)*)|(ab.d)";
+        RegExParser parser = new RegExParser(regex);
+
+        try {
+
+            Automaton automaton = new Automaton(parser.parse(), true, true);
+            DFAStrategy strategy = new DFAStrategy();
+
+            assertTrue(strategy.isMatching(automaton, "coucou!"));
+            assertTrue(strategy.isMatching(automaton, "coucou!!!!!!"));
+            assertTrue(strategy.isMatching(automaton, "coucou!coucou"));
+            assertTrue(strategy.isMatching(automaton, "coucou! comment ça va"));
+            assertTrue(strategy.isMatching(automaton, "comment ça va coucou!!"));
+            assertTrue(strategy.isMatching(automaton, "abcd"));
+            assertTrue(strategy.isMatching(automaton, "abxd"));
+
+            assertFalse(strategy.isMatching(automaton, ""));
+            assertFalse(strategy.isMatching(automaton, "coucou"));
+            assertFalse(strategy.isMatching(automaton, "Rien à voir"));
+            assertFalse(strategy.isMatching(automaton, "abce"));
+            assertFalse(strategy.isMatching(automaton, "abd"));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the matching when a character and the dot are possible at the same position
+     */
+    @Test
+    void testDotAndChar() {
+        // Define the regex and the parser
+        String regex = "(ab)|(.c)";
+        RegExParser parser = new RegExParser(regex);
+
+        try {
+
+            Automaton automaton = new Automaton(parser.parse(), true, true);
+            DFAStrategy strategy = new DFAStrategy();
+
+            assertTrue(strategy.isMatching(automaton, "ab"));
+            assertTrue(strategy.isMatching(automaton, "ac"));
+            assertTrue(strategy.isMatching(automaton, "xc"));
+
+            assertFalse(strategy.isMatching(automaton, "a"));
+            assertFalse(strategy.isMatching(automaton, "ax"));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test that the strategy refuses an anchored automaton
+     */
+    @Test
+    void testAnchored() {
+        try {
+
+            Automaton automaton = new Automaton(RegExParser.exampleAhoUllman());
+            DFAStrategy strategy = new DFAStrategy();
+
+            assertThrows(AutomatonException.class, () -> strategy.isMatching(automaton, "a"));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the matching on an input with many near-miss prefixes
+     */
+    @Test
+    void testNearMiss() {
+        // Define the regex and the parser
+        String regex = "aaaaab";
+        RegExParser parser = new RegExParser(regex);
+
+        try {
+
+            Automaton automaton = new Automaton(parser.parse(), true, true);
+            DFAStrategy strategy = new DFAStrategy();
+
+            assertTrue(strategy.isMatching(automaton, "aaaaaaaaaaaaaaaaaaaaab"));
+            assertFalse(strategy.isMatching(automaton, "aaaaaaaaaaaaaaaaaaaaaa"));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the matching of the characters out of the Latin-1 range
+     */
+    @Test
+    void testUnicode() {
+        try {
+            DFAStrategy strategy = new DFAStrategy();
+
+            // Accented and CJK characters
+            Automaton automaton = new Automaton(new RegExParser("Ren\u00e9e|\u4e2d\u6587").parse(), true, true);
+            assertTrue(strategy.isMatching(automaton, "Bonjour Ren\u00e9e !"));
+            assertTrue(strategy.isMatching(automaton, "\u8fd9\u662f\u4e2d\u6587"));
+            assertFalse(strategy.isMatching(automaton, "Renee"));
+            assertFalse(strategy.isMatching(automaton, "\u4e2d\u56fd"));
+
+            // The character 256 is not the dot
+            automaton = new Automaton(new RegExParser("a\u0100b").parse(), true, true);
+            assertTrue(strategy.isMatching(automaton, "xa\u0100b"));
+            assertFalse(strategy.isMatching(automaton, "axb"));
+
+            // The dot matches the wide characters
+            automaton = new Automaton(new RegExParser("\u4e2d.\u6587").parse(), true, true);
+            assertTrue(strategy.isMatching(automaton, "\u4e2d\u00e9\u6587"));
+            assertTrue(strategy.isMatching(automaton, "\u4e2d\u4e2d\u6587"));
+            assertFalse(strategy.isMatching(automaton, "\u4e2d\u6587"));
+
+            // Supplementary code points
+            automaton = new Automaton(new RegExParser("a\ud83d\ude00*b").parse(), true, true);
+            assertTrue(strategy.isMatching(automaton, "ab"));
+            assertTrue(strategy.isMatching(automaton, "a\ud83d\ude00\ud83d\ude00b"));
+            assertFalse(strategy.isMatching(automaton, "a\ud83d\ude01b"));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the matching over the UTF-8 bytes against the matching over the characters
+     */
+    @Test
+    void testRandomBytes() {
+        Random random = new Random(42);
+        String[] symbols = {"a", "b", "\u00e9", "\u4e2d", "\ud83d\ude00", "."};
+        String[] inputSymbols = {"a", "b", "\u00e9", "\u4e2d", "\ud83d\ude00", "\ud83d\ude01", "\u0100"};
+
+        try {
+            DFAStrategy strategy = new DFAStrategy();
+
+            for(int test = 0 ; test < 200 ; test++) {
+                String regex = TestUtils.randomRegex(random, symbols, 4);
+                Automaton automaton = new Automaton(new RegExParser(regex).parse(), true, true);
+                automaton.minimize();
+
+                for(int i = 0 ; i < 20 ; i++) {
+                    StringBuilder input = new StringBuilder();
+                    int length = random.nextInt(8);
+                    for(int j = 0 ; j < length ; j++) input.append(inputSymbols[random.nextInt(inputSymbols.length)]);
+                    byte[] bytes = ("#" + input + "#").getBytes(StandardCharsets.UTF_8);
+                    assertEquals(strategy.isMatching(automaton, input.toString()), strategy.isMatching(automaton, bytes, 1, bytes.length - 1), regex + " on " + input);
+                }
+            }
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the search over many lines, compared to the matching of each line
+     */
+    @Test
+    void testFindLines() {
+        Random random = new Random(42);
+        String[] symbols = {"a", "b", "\u4e2d", "."};
+        String[] inputSymbols = {"a", "b", "\u4e2d", "\n"};
+
+        try {
+            DFAStrategy strategy = new DFAStrategy();
+
+            for(int test = 0 ; test < 200 ; test++) {
+                String regex = TestUtils.randomRegex(random, symbols, 4);
+                Automaton automaton = new Automaton(new RegExParser(regex).parse(), true, true);
+                automaton.minimize();
+
+                for(int i = 0 ; i < 20 ; i++) {
+                    StringBuilder input = new StringBuilder();
+                    int length = random.nextInt(16);
+                    for(int j = 0 ; j < length ; j++) input.append(inputSymbols[random.nextInt(inputSymbols.length)]);
+                    byte[] bytes = input.toString().getBytes(StandardCharsets.UTF_8);
+
+                    // The line of the found position is the first matched line
+                    int expected = -1;
+                    int lineNumber = 0;
+                    for(String line : input.toString().split("\n", -1)) {
+                        if(strategy.isMatching(automaton, line)) {
+                            expected = lineNumber;
+                            break;
+                        }
+                        lineNumber++;
+                    }
+                    int found = strategy.find(automaton, bytes, 0, bytes.length);
+                    int foundLine = -1;
+                    if(found >= 0) {
+                        foundLine = 0;
+                        for(int j = 0 ; j < found ; j++) if(bytes[j] == '\n') foundLine++;
+                    }
+                    assertEquals(expected, foundLine, regex + " on " + input);
+                }
+            }
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the concurrent search over chunks, compared to the matching of the prefixes of the input
+     */
+    @Test
+    void testFindParallel() {
+        Random random = new Random(42);
+        String[] symbols = {"a", "b", "\u4e2d", "."};
+        String[] inputSymbols = {"a", "b", "c", "\u4e2d"};
+
+        try {
+            DFAStrategy strategy = new DFAStrategy();
+
+            for(int test = 0 ; test < 200 ; test++) {
+                String regex = TestUtils.randomRegex(random, symbols, 4);
+                Automaton automaton = new Automaton(new RegExParser(regex).parse(), true, true);
+                automaton.minimize();
+                CompiledAutomaton compiled = automaton.compileUtf8();
+
+                for(int i = 0 ; i < 10 ; i++) {
+                    StringBuilder input = new StringBuilder();
+                    int length = random.nextInt(400);
+                    for(int j = 0 ; j < length ; j++) input.append(inputSymbols[random.nextInt(inputSymbols.length)]);
+                    byte[] bytes = input.toString().getBytes(StandardCharsets.UTF_8);
+
+                    // The found position ends the shortest matched prefix
+                    int found = DFAStrategy.findParallel(compiled, bytes, 0, bytes.length, 1, 1);
+                    assertEquals(strategy.isMatching(automaton, input.toString()), found >= 0, regex + " on " + input);
+                    if(found > 0) {
+                        assertTrue(strategy.isMatching(automaton, bytes, 0, found + 1), regex + " on " + input);
+                        assertFalse(strategy.isMatching(automaton, bytes, 0, found), regex + " on " + input);
+                    }
+
+                    // The chunks, even cutting the characters, do not change the position
+                    for(int chunkNumber = 2 ; chunkNumber <= 16 ; chunkNumber++) {
+                        assertEquals(found, DFAStrategy.findParallel(compiled, bytes, 0, bytes.length, 2, chunkNumber), regex + " on " + input);
+                    }
+                }
+            }
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    @Test
+    @DisplayName("Test the search of a huge line with many threads")
+    void testFindThreads() {
+        try {
+            DFAStrategy strategy = new DFAStrategy();
+            Automaton automaton = new Automaton(new RegExParser(".b.*c").parse(), true, true);
+            automaton.minimize();
+            assertNull(automaton.getUtf8Prefilter());
+
+            // A huge line searched without prefilter, matching near its start, near its end or nowhere
+            byte[] bytes = new byte[DFAStrategy.PARALLEL_INPUT_SIZE + 1000];
+            Arrays.fill(bytes, (byte) 'x');
+            int[] starts = {10, bytes.length - 100, -1};
+            for(int start : starts) {
+                byte[] input = bytes.clone();
+                if(start >= 0) {
+                    input[start] = 'a';
+                    input[start + 1] = 'b';
+                    input[start + 50] = 'c';
+                }
+                int expected = start >= 0 ? start + 50 : -1;
+                for(int threads = 1 ; threads <= 4 ; threads++) {
+                    assertEquals(expected, strategy.find(automaton, input, 0, input.length, threads), "start " + start + ", " + threads + " threads");
+                }
+            }
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+}
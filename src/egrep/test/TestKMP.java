@@ -4,6 +4,10 @@ import egrep.main.search_engine.KMPStrategy;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.regex.Pattern;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @DisplayName("A test suite for the KMP algorithm")
@@ -63,4 +67,107 @@ public class TestKMP {
             fail(e);
         }
     }
+
+    /**
+     * Test the dot, matching any character but a line break
+     */
+    @Test
+    void testDot() {
+        try {
+            KMPStrategy kmp = new KMPStrategy("S.r.on");
+            assertTrue(kmp.isMatching(null, "The king Sargon"));
+            assertTrue(kmp.isMatching(null, "Sérgon"));
+            assertFalse(kmp.isMatching(null, "Sagon"));
+            assertFalse(kmp.isMatching(null, "Sarg"));
+
+            // A dot matches an UTF-16 character, a supplementary code point is two dots
+            KMPStrategy unicode = new KMPStrategy("中.😀");
+            assertTrue(unicode.isMatching(null, "中文😀"));
+            assertFalse(unicode.isMatching(null, "中😀😀"));
+            assertFalse(unicode.isMatching(null, "中😀"));
+            assertTrue(new KMPStrategy("中..😀").isMatching(null, "中😀😀"));
+            assertTrue(new KMPStrategy("..a").isMatching(null, "😀a"));
+
+            // Only dots
+            KMPStrategy dots = new KMPStrategy("...");
+            assertTrue(dots.isMatching(null, "中文😀"));
+            assertFalse(dots.isMatching(null, "ab"));
+            assertTrue(new KMPStrategy("").isMatching(null, ""));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the match positions in a buffer of many lines
+     */
+    @Test
+    void testFind() {
+        byte[] input = "ab\nc Babylon\r\nBaby\nlon\n".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(5, new KMPStrategy("Babylon").find(null, input, 0, input.length));
+        assertEquals(-1, new KMPStrategy("Babylon").find(null, input, 6, input.length));
+        assertEquals(3, new KMPStrategy("c.Ba").find(null, input, 0, input.length));
+
+        // The dots never match the line breaks
+        assertEquals(-1, new KMPStrategy("Baby.lon").find(null, input, 0, input.length));
+        assertEquals(-1, new KMPStrategy("lon.").find(null, input, 0, input.length));
+        assertEquals(-1, new KMPStrategy(".Baby").find(null, input, 14, input.length));
+    }
+
+    /**
+     * Test that a long literal is compiled in a linear time
+     */
+    @Test
+    void testLongLiteral() {
+        StringBuilder builder = new StringBuilder();
+        for(int i = 0 ; i < 20000 ; i++) builder.append(i % 7 == 0 ? 'b' : 'a');
+        String literal = builder.toString();
+
+        try {
+            KMPStrategy kmp = new KMPStrategy(literal);
+            assertTrue(kmp.isMatching(null, "xx" + literal + "xx"));
+            assertFalse(kmp.isMatching(null, literal.substring(1)));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test random strings with dots over a small alphabet against the Java regex search
+     */
+    @Test
+    void testRandom() {
+        Random random = new Random(42);
+
+        try {
+            for(int test = 0 ; test < 2000 ; test++) {
+                String regex = randomString(random, 1 + random.nextInt(8), "ab.");
+                String input = randomString(random, random.nextInt(30), "abé");
+                KMPStrategy kmp = new KMPStrategy(regex);
+                boolean expected = Pattern.compile(regex).matcher(input).find();
+
+                assertEquals(expected, kmp.isMatching(null, input), regex + " in " + input);
+            }
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Create a random string over an alphabet
+     *
+     * @param random The random generator
+     * @param length The string length
+     * @param alphabet The alphabet characters
+     * @return The random string
+     */
+    private static String randomString(Random random, int length, String alphabet) {
+        StringBuilder res = new StringBuilder();
+        for(int i = 0 ; i < length ; i++) res.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        return res.toString();
+    }
 }
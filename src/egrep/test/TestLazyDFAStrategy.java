@@ -0,0 +1,300 @@
+package egrep.test;
+
+import egrep.main.automaton.LazyAutomaton;
+import egrep.main.parser.RegExParser;
+import egrep.main.search_engine.LazyDFAStrategy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("A test suite for the lazy DFA search strategy")
+public class TestLazyDFAStrategy {
+
+    /**
+     * Check the test suite availability
+     */
+    @Test
+    void available() {
+        assertTrue(true);
+    }
+
+    /**
+     * Test for the aho ullman (a|bc*) example match
+     */
+    @Test
+    void testAhoUllman() {
+        try {
+
+            // Create the automaton and the strategy
+            LazyAutomaton automaton = new LazyAutomaton(RegExParser.exampleAhoUllman(), true);
+            LazyDFAStrategy strategy = new LazyDFAStrategy(automaton);
+
+            assertTrue(strategy.isMatching(null, "ac"));
+            assertTrue(strategy.isMatching(null, "bc"));
+            assertTrue(strategy.isMatching(null, "a"));
+            assertTrue(strategy.isMatching(null, "b"));
+            assertTrue(strategy.isMatching(null, "ab"));
+            assertTrue(strategy.isMatching(null, "accccc"));
+            assertTrue(strategy.isMatching(null, "bccccc"));
+
+            assertFalse(strategy.isMatching(null, ""));
+            assertFalse(strategy.isMatching(null, "c"));
+            assertFalse(strategy.isMatching(null, "Coucou"));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the marching with the concatenation
+     */
+    @Test
+    void testConcat() {
+        // Define the regex and the parser
+        String regex = "coucou";
+        RegExParser parser = new RegExParser(regex);
+
+        try {
+
+            LazyAutomaton automaton = new LazyAutomaton(parser.parse(), true);
+            LazyDFAStrategy strategy = new LazyDFAStrategy(automaton);
+
+            assertTrue(strategy.isMatching(null, "coucou"));
+            assertTrue(strategy.isMatching(null, "coucouaaa"));
+            assertTrue(strategy.isMatching(null, "aaacoucou"));
+            assertTrue(strategy.isMatching(null, "This is a coucou"));
+
+            assertFalse(strategy.isMatching(null, ""));
+            assertFalse(strategy.isMatching(null, "Coucou"));
+            assertFalse(strategy.isMatching(null, "coUcou"));
+            assertFalse(strategy.isMatching(null, "cou cou"));
+            assertFalse(strategy.isMatching(null, "Rien à voir"));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the matching with the dot
+     */
+    @Test
+    void testDot() {
+        // Define the regex and the parser
+        String regex = ".";
+        RegExParser parser = new RegExParser(regex);
+
+        try {
+
+            LazyAutomaton automaton = new LazyAutomaton(parser.parse(), true);
+            LazyDFAStrategy strategy = new LazyDFAStrategy(automaton);
+
+            assertTrue(strategy.isMatching(null, "a"));
+            assertTrue(strategy.isMatching(null, "test"));
+            assertTrue(strategy.isMatching(null, " "));
+            assertTrue(strategy.isMatching(null, "."));
+
+            assertFalse(strategy.isMatching(null, ""));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the matching with the star
+     */
+    @Test
+    void testStar() {
+        // Define the regex and the parser
+        String regex = "a*";
+        RegExParser parser = new RegExParser(regex);
+
+        try {
+
+            LazyAutomaton automaton = new LazyAutomaton(parser.parse(), true);
+            LazyDFAStrategy strategy = new LazyDFAStrategy(automaton);
+
+            assertTrue(strategy.isMatching(null, ""));
+            assertTrue(strategy.isMatching(null, "a"));
+            assertTrue(strategy.isMatching(null, "aaaaaa"));
+            assertTrue(strategy.isMatching(null, "Rien à voir"));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the marching with the altern
+     */
+    @Test
+    void testAltern() {
+        // Define the regex and the parser
+        String regex = "a|b";
+        RegExParser parser = new RegExParser(regex);
+
+        try {
+
+            LazyAutomaton automaton = new LazyAutomaton(parser.parse(), true);
+            LazyDFAStrategy strategy = new LazyDFAStrategy(automaton);
+
+            assertTrue(strategy.isMatching(null, "a"));
+            assertTrue(strategy.isMatching(null, "b"));
+            assertTrue(strategy.isMatching(null, "ab"));
+            assertTrue(strategy.isMatching(null, "This is a test"));
+            assertTrue(strategy.isMatching(null, "This is b test"));
+
+            assertFalse(strategy.isMatching(null, ""));
+            assertFalse(strategy.isMatching(null, "Nope"));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the matching with the parenthesis
+     */
+    @Test
+    void testParen() {
+        // Define the regex and the parser
+        String regex = "(ab)|(ac)";
+        RegExParser parser = new RegExParser(regex);
+
+        try {
+
+            LazyAutomaton automaton = new LazyAutomaton(parser.parse(), true);
+            LazyDFAStrategy strategy = new LazyDFAStrategy(automaton);
+
+            assertTrue(strategy.isMatching(null, "ab"));
+            assertTrue(strategy.isMatching(null, "ac"));
+            assertTrue(strategy.isMatching(null, "abcbbc"));
+            assertTrue(strategy.isMatching(null, "accurate"));
+            assertTrue(strategy.isMatching(null, "ability"));
+
+            assertFalse(strategy.isMatching(null, ""));
+            assertFalse(strategy.isMatching(null, "Nope"));
+            assertFalse(strategy.isMatching(null, "bcause"));
+            assertFalse(strategy.isMatching(null, "axe"));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the matching with all the operators
+     */
+    @Test
+    void testAll() {
+        // Define the regex and the parser
+        String regex = "(coucou!(!)*)|(ab.d)";
+        RegExParser parser = new RegExParser(regex);
+
+        try {
+
+            LazyAutomaton automaton = new LazyAutomaton(parser.parse(), true);
+            LazyDFAStrategy strategy = new LazyDFAStrategy(automaton);
+
+            assertTrue(strategy.isMatching(null, "coucou!"));
+            assertTrue(strategy.isMatching(null, "coucou!!!!!!"));
+            assertTrue(strategy.isMatching(null, "coucou!coucou"));
+            assertTrue(strategy.isMatching(null, "coucou! comment ça va"));
+            assertTrue(strategy.isMatching(null, "comment ça va coucou!!"));
+            assertTrue(strategy.isMatching(null, "abcd"));
+            assertTrue(strategy.isMatching(null, "abxd"));
+
+            assertFalse(strategy.isMatching(null, ""));
+            assertFalse(strategy.isMatching(null, "coucou"));
+            assertFalse(strategy.isMatching(null, "Rien à voir"));
+            assertFalse(strategy.isMatching(null, "abce"));
+            assertFalse(strategy.isMatching(null, "abd"));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the matching when a character and the dot are possible at the same position
+     */
+    @Test
+    void testDotAndChar() {
+        // Define the regex and the parser
+        String regex = "(ab)|(.c)";
+        RegExParser parser = new RegExParser(regex);
+
+        try {
+
+            LazyAutomaton automaton = new LazyAutomaton(parser.parse(), true);
+            LazyDFAStrategy strategy = new LazyDFAStrategy(automaton);
+
+            assertTrue(strategy.isMatching(null, "ab"));
+            assertTrue(strategy.isMatching(null, "ac"));
+            assertTrue(strategy.isMatching(null, "xc"));
+
+            assertFalse(strategy.isMatching(null, "a"));
+            assertFalse(strategy.isMatching(null, "ax"));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the lazy automaton on a regex with an exponential DFA
+     */
+    @Test
+    void testExponential() {
+        // Define the regex and the parser : the full DFA would have more than 2^20 states
+        StringBuilder regex = new StringBuilder("(a|b)*a");
+        for(int i = 0 ; i < 20 ; i++) regex.append("(a|b)");
+        RegExParser parser = new RegExParser(regex.toString());
+
+        try {
+
+            LazyAutomaton automaton = new LazyAutomaton(parser.parse(), true);
+            LazyDFAStrategy strategy = new LazyDFAStrategy(automaton);
+
+            assertTrue(strategy.isMatching(null, "abbbbbbbbbbbbbbbbbbbbbbbbb"));
+            assertFalse(strategy.isMatching(null, "bbbbbbbbbbbbbbbbbbbbbbbbbb"));
+            assertFalse(strategy.isMatching(null, "abbbbbbbbbbbbbbbbbbb"));
+            assertTrue(automaton.getStateNumber() < 100);
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the lazy automaton when the cache is flushed
+     */
+    @Test
+    void testFlush() {
+        // Define the regex and the parser
+        String regex = "(a|b)*a(a|b)(a|b)(a|b)";
+        RegExParser parser = new RegExParser(regex);
+
+        try {
+
+            // Use a tiny cache that cannot hold all the states
+            LazyAutomaton automaton = new LazyAutomaton(parser.parse(), true, 512);
+            LazyDFAStrategy strategy = new LazyDFAStrategy(automaton);
+
+            assertTrue(strategy.isMatching(null, "bbbbabbbb"));
+            assertTrue(strategy.isMatching(null, "babababab"));
+            assertFalse(strategy.isMatching(null, "bbbbbbabb"));
+            assertFalse(strategy.isMatching(null, "bbbbbbbbb"));
+            assertTrue(automaton.getFlushes() > 0);
+            assertTrue(automaton.getMisses() > 0);
+            assertTrue(automaton.getHits() > 0);
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+}
@@ -0,0 +1,189 @@
+package egrep.test;
+
+import egrep.main.search_engine.HorspoolStrategy;
+import egrep.main.search_engine.SearchStrategy;
+import egrep.main.search_engine.TwoWayStrategy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("A test suite for the Horspool and Two-Way literal strategies")
+public class TestLiteralStrategies {
+
+    private static final List<Function<String, SearchStrategy>> STRATEGIES = Arrays.asList(
+            HorspoolStrategy::new,
+            TwoWayStrategy::new
+    );
+
+    /**
+     * Check the test suite availability
+     */
+    @Test
+    void available() {
+        assertTrue(true);
+    }
+
+    /**
+     * Test the matching of a literal string
+     */
+    @Test
+    void testConcat() {
+        try {
+            for(Function<String, SearchStrategy> strategies : STRATEGIES) {
+                SearchStrategy strategy = strategies.apply("Babylon");
+
+                assertTrue(strategy.isMatching(null, "Babylon"));
+                assertTrue(strategy.isMatching(null, "This is a Babylonian story"));
+                assertTrue(strategy.isMatching(null, "BabyBabylon"));
+
+                assertFalse(strategy.isMatching(null, ""));
+                assertFalse(strategy.isMatching(null, "Babylol"));
+                assertFalse(strategy.isMatching(null, "Rien à voir"));
+
+                // The literal and the input are compared as UTF-8
+                SearchStrategy unicode = strategies.apply("à voir");
+                assertTrue(unicode.isMatching(null, "Rien à voir"));
+                assertFalse(unicode.isMatching(null, "Rien a voir"));
+
+                // The empty literal is in every input
+                assertTrue(strategies.apply("").isMatching(null, ""));
+            }
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test random literals over a small alphabet against the Java search, in a part of a buffer
+     */
+    @Test
+    void testRandom() {
+        Random random = new Random(42);
+
+        try {
+            for(int test = 0 ; test < 2000 ; test++) {
+                String literal = randomString(random, 1 + random.nextInt(8));
+                String input = randomString(random, random.nextInt(30));
+                byte[] bytes = ("é" + input + "é").getBytes(StandardCharsets.UTF_8);
+
+                for(Function<String, SearchStrategy> strategies : STRATEGIES) {
+                    SearchStrategy strategy = strategies.apply(literal);
+                    assertEquals(input.contains(literal), strategy.isMatching(null, bytes, 2, bytes.length - 2), literal + " in " + input);
+                    assertEquals(input.contains(literal), strategy.isMatching(null, input), literal + " in " + input);
+                    int expected = input.indexOf(literal);
+                    assertEquals(expected < 0 ? -1 : expected + 2, strategy.find(null, bytes, 2, bytes.length - 2), literal + " in " + input);
+                }
+            }
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test highly periodic literals, where the Two-Way search remembers the prefix already matched
+     */
+    @Test
+    void testPeriodic() {
+        try {
+            for(Function<String, SearchStrategy> strategies : STRATEGIES) {
+                for(int length = 2 ; length < 40 ; length += 3) {
+                    String literal = repeat("a", length - 1) + "b";
+                    SearchStrategy strategy = strategies.apply(literal);
+
+                    // The literal after a long run of its first byte, and near misses
+                    assertEquals(100 - length + 1, find(strategy, repeat("a", 100) + "b"), literal);
+                    assertEquals(-1, find(strategy, repeat("a", 100)), literal);
+                    assertEquals(-1, find(strategy, repeat(repeat("a", length - 2) + "b", 5)), literal);
+                    assertEquals(length, find(strategy, repeat("a", length - 2) + "ba" + literal), literal);
+                }
+
+                // A literal with a period longer than one byte
+                SearchStrategy strategy = strategies.apply("abaabaabaab");
+                assertEquals(8, find(strategy, "abaabaab" + "abaabaabaab"));
+                assertEquals(-1, find(strategy, "abaabaabaaa" + "abaabaabaaa"));
+                assertEquals(2, find(strategy, "ab" + "abaabaabaab"));
+            }
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test inputs where one byte of the literal is wrong, so the left part can mismatch after the right part matched
+     */
+    @Test
+    void testMismatch() {
+        Random random = new Random(42);
+
+        try {
+            for(int test = 0 ; test < 500 ; test++) {
+                String literal = randomString(random, 2 + random.nextInt(12));
+                String prefix = randomString(random, random.nextInt(6));
+                String suffix = randomString(random, random.nextInt(6));
+
+                for(int k = 0 ; k < literal.length() ; k++) {
+                    char[] wrong = literal.toCharArray();
+                    wrong[k] = 'c';
+                    String input = prefix + new String(wrong) + suffix;
+
+                    for(Function<String, SearchStrategy> strategies : STRATEGIES) {
+                        assertEquals(input.indexOf(literal), find(strategies.apply(literal), input), literal + " in " + input);
+                    }
+                }
+            }
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Find a literal in an ASCII input
+     *
+     * @param strategy The literal strategy
+     * @param input The input string
+     * @return The position of the first occurrence, -1 if there is none
+     * @throws Exception If the search fails
+     */
+    private static int find(SearchStrategy strategy, String input) throws Exception {
+        byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+        return strategy.find(null, bytes, 0, bytes.length);
+    }
+
+    /**
+     * Repeat a string
+     *
+     * @param str The string to repeat
+     * @param count The number of times
+     * @return The repeated string
+     */
+    private static String repeat(String str, int count) {
+        StringBuilder res = new StringBuilder();
+        for(int i = 0 ; i < count ; i++) res.append(str);
+        return res.toString();
+    }
+
+    /**
+     * Create a random string over a small alphabet, so the literals are often periodic
+     *
+     * @param random The random generator
+     * @param length The string length
+     * @return The random string
+     */
+    private static String randomString(Random random, int length) {
+        StringBuilder res = new StringBuilder();
+        for(int i = 0 ; i < length ; i++) res.append("ab".charAt(random.nextInt(2)));
+        return res.toString();
+    }
+
+}
@@ -0,0 +1,120 @@
+package egrep.test;
+
+import egrep.main.utils.MappedInputStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("A test suite for the memory mapped input")
+public class TestMappedInputStream {
+
+    /**
+     * Check the test suite availability
+     */
+    @Test
+    void available() {
+        assertTrue(true);
+    }
+
+    /**
+     * Test the reading of a file over many small segments
+     */
+    @Test
+    void testSegments() {
+        File file = null;
+
+        try {
+            // Create a random file
+            byte[] content = new byte[10000];
+            new Random(42).nextBytes(content);
+            file = File.createTempFile("egrep", ".txt");
+            Files.write(file.toPath(), content);
+
+            // Read it with segments smaller than the reads, and with reads smaller than the segments
+            assertArrayEquals(content, readAll(new MappedInputStream(file, 1000), 4096));
+            assertArrayEquals(content, readAll(new MappedInputStream(file, 4096), 1000));
+            assertArrayEquals(content, readAll(new MappedInputStream(file), 333));
+
+        } catch(Exception e) {
+            fail(e);
+        } finally {
+            if(file != null) assertTrue(file.delete());
+        }
+    }
+
+    /**
+     * Test the reading of a part of a file
+     */
+    @Test
+    void testPart() {
+        File file = null;
+
+        try {
+            byte[] content = new byte[10000];
+            new Random(42).nextBytes(content);
+            file = File.createTempFile("egrep", ".txt");
+            Files.write(file.toPath(), content);
+
+            assertArrayEquals(Arrays.copyOfRange(content, 1234, 5678), readAll(new MappedInputStream(file, 1234, 5678, 1000), 512));
+            assertArrayEquals(Arrays.copyOfRange(content, 9000, 10000), readAll(new MappedInputStream(file, 9000, 20000, 1000), 512));
+            assertArrayEquals(new byte[0], readAll(new MappedInputStream(file, 5000, 5000, 1000), 512));
+
+        } catch(Exception e) {
+            fail(e);
+        } finally {
+            if(file != null) assertTrue(file.delete());
+        }
+    }
+
+    /**
+     * Test the opening of the small and empty files with a stream
+     */
+    @Test
+    void testOpen() {
+        File file = null;
+
+        try {
+            file = File.createTempFile("egrep", ".txt");
+            try(InputStream input = MappedInputStream.open(file)) {
+                assertTrue(input instanceof FileInputStream);
+                assertEquals(-1, input.read());
+            }
+            try(InputStream input = new MappedInputStream(file)) {
+                assertEquals(-1, input.read(new byte[8], 0, 8));
+            }
+
+        } catch(Exception e) {
+            fail(e);
+        } finally {
+            if(file != null) assertTrue(file.delete());
+        }
+    }
+
+    /**
+     * Read all the bytes of an input stream and close it
+     *
+     * @param input The input stream
+     * @param readSize The size of each read
+     * @return The read bytes
+     * @throws Exception If the input cannot be read
+     */
+    private static byte[] readAll(InputStream input, int readSize) throws Exception {
+        ByteArrayOutputStream res = new ByteArrayOutputStream();
+        try(InputStream in = input) {
+            byte[] buffer = new byte[readSize];
+            int read;
+            while((read = in.read(buffer, 0, readSize)) >= 0) res.write(buffer, 0, read);
+        }
+        return res.toByteArray();
+    }
+
+}
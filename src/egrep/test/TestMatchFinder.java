@@ -0,0 +1,158 @@
+package egrep.test;
+
+import egrep.main.parser.RegExParser;
+import egrep.main.parser.RegExTree;
+import egrep.main.search_engine.MatchFinder;
+import egrep.main.utils.Pair;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("A test suite for the leftmost-longest match finder")
+public class TestMatchFinder {
+
+    /**
+     * Check the test suite availability
+     */
+    @Test
+    void available() {
+        assertTrue(true);
+    }
+
+    /**
+     * Test the reversed tree
+     */
+    @Test
+    void testReverse() {
+        try {
+            RegExTree tree = new RegExParser("ab(c|de)*").parse().reverse();
+            assertEquals(new RegExParser("(c|ed)*(ba)").parse().toString(), tree.toString());
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the match spans on simple regex
+     */
+    @Test
+    void testSpans() {
+        try {
+            // The longest alternative is taken
+            MatchFinder finder = new MatchFinder(new RegExParser("a|ab").parse());
+            assertEquals("[0, 2] [3, 4]", spansToString(finder.findMatches("abxa")));
+
+            // The matches do not overlap
+            finder = new MatchFinder(new RegExParser("aba").parse());
+            assertEquals("[0, 3] [4, 7]", spansToString(finder.findMatches("abababa")));
+
+            // The star is greedy and the empty matches are ignored
+            finder = new MatchFinder(new RegExParser("b*").parse());
+            assertEquals("[1, 4] [5, 6]", spansToString(finder.findMatches("abbbab")));
+
+            // No match
+            finder = new MatchFinder(new RegExParser("S(a|g|r)*on").parse());
+            assertTrue(finder.findMatches("Babylon").isEmpty());
+            assertEquals("[3, 9]", spansToString(finder.findMatches("Le Sargon")));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the match spans on random regex against a brute force search with the Java regex
+     */
+    @Test
+    void testRandom() {
+        Random random = new Random(42);
+        String[] symbols = {"a", "b", "c", "."};
+
+        try {
+
+            for(int test = 0 ; test < 200 ; test++) {
+                String regex = TestUtils.randomRegex(random, symbols, 4);
+                MatchFinder finder = new MatchFinder(new RegExParser(regex).parse());
+                Pattern pattern = Pattern.compile(regex);
+
+                for(int i = 0 ; i < 10 ; i++) {
+                    StringBuilder input = new StringBuilder();
+                    int length = random.nextInt(12);
+                    for(int j = 0 ; j < length ; j++) input.append("abcd".charAt(random.nextInt(4)));
+                    String expected = spansToString(bruteForce(pattern, input.toString()));
+                    assertEquals(expected, spansToString(finder.findMatches(input.toString())), regex + " on " + input);
+                }
+            }
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the match spans of a regex whose DFAs have too many states, run as lazy DFAs
+     */
+    @Test
+    void testExponential() {
+        Random random = new Random(42);
+
+        try {
+            StringBuilder regex = new StringBuilder("(a|b)*a");
+            for(int i = 0 ; i < 20 ; i++) regex.append("(a|b)");
+            MatchFinder finder = new MatchFinder(new RegExParser(regex.toString()).parse());
+            Pattern pattern = Pattern.compile(regex.toString());
+
+            for(int i = 0 ; i < 10 ; i++) {
+                StringBuilder input = new StringBuilder();
+                int length = random.nextInt(80);
+                for(int j = 0 ; j < length ; j++) input.append(random.nextInt(20) == 0 ? 'c' : "ab".charAt(random.nextInt(2)));
+                String expected = spansToString(bruteForce(pattern, input.toString()));
+                assertEquals(expected, spansToString(finder.findMatches(input.toString())), "on " + input);
+            }
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Find the leftmost-longest non empty matches by testing all the substrings
+     *
+     * @param pattern The pattern
+     * @param input The input
+     * @return The match spans
+     */
+    private static List<Pair<Integer, Integer>> bruteForce(Pattern pattern, String input) {
+        List<Pair<Integer, Integer>> res = new ArrayList<>();
+        int start = 0;
+        while(start < input.length()) {
+            int end = start;
+            for(int e = start + 1 ; e <= input.length() ; e++) {
+                if(pattern.matcher(input.substring(start, e)).matches()) end = e;
+            }
+            if(end > start) {
+                res.add(new Pair<>(start, end));
+                start = end;
+            } else {
+                start++;
+            }
+        }
+        return res;
+    }
+
+    private static String spansToString(List<Pair<Integer, Integer>> spans) {
+        StringBuilder res = new StringBuilder();
+        for(Pair<Integer, Integer> span : spans) {
+            if(res.length() > 0) res.append(' ');
+            res.append('[').append(span.getKey()).append(", ").append(span.getValue()).append(']');
+        }
+        return res.toString();
+    }
+
+}
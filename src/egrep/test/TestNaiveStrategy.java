@@ -218,4 +218,30 @@ public class TestNaiveStrategy {
         }
     }
 
+    /**
+     * Test the matching when a character and the dot are possible at the same position
+     */
+    @Test
+    void testDotAndChar() {
+        // Define the regex and the parser
+        String regex = "(ab)|(.c)";
+        RegExParser parser = new RegExParser(regex);
+
+        try {
+
+            Automaton automaton = new Automaton(parser.parse());
+            NaiveStrategy strategy = new NaiveStrategy();
+
+            assertTrue(strategy.isMatching(automaton, "ab"));
+            assertTrue(strategy.isMatching(automaton, "ac"));
+            assertTrue(strategy.isMatching(automaton, "xc"));
+
+            assertFalse(strategy.isMatching(automaton, "a"));
+            assertFalse(strategy.isMatching(automaton, "ax"));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
 }
@@ -174,4 +174,30 @@ public class TestParser {
         }
     }
 
+    /**
+     * Test the parsing of the characters out of the Latin-1 range
+     */
+    @Test
+    void testUnicode() {
+        try {
+            // A BMP character is a single leaf, even if its value was used by the operators
+            RegExTree tree = new RegExParser("\u00e9\u4e2d\u0ff2").parse();
+            assertEquals(RegExParser.CONCAT, tree.getRoot());
+            assertEquals('\u0ff2', tree.getSubTrees().get(1).getRoot());
+            assertEquals('\u00e9', tree.getSubTrees().get(0).getSubTrees().get(0).getRoot());
+            assertEquals('\u4e2d', tree.getSubTrees().get(0).getSubTrees().get(1).getRoot());
+
+            // A supplementary code point is the concatenation of its surrogates, and the star applies to both
+            tree = new RegExParser("\ud83d\ude00*").parse();
+            assertEquals(RegExParser.STAR, tree.getRoot());
+            RegExTree pair = tree.getSubTrees().get(0);
+            assertEquals(RegExParser.CONCAT, pair.getRoot());
+            assertEquals(0xd83d, pair.getSubTrees().get(0).getRoot());
+            assertEquals(0xde00, pair.getSubTrees().get(1).getRoot());
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
 }
@@ -0,0 +1,193 @@
+package egrep.test;
+
+import egrep.main.search_engine.CompiledPattern;
+import egrep.main.search_engine.KMPStrategy;
+import egrep.main.search_engine.PatternCache;
+import egrep.main.search_engine.SearchEngine;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("A test suite for the compiled pattern cache")
+public class TestPatternCache {
+
+    /**
+     * Check the test suite availability
+     */
+    @Test
+    void available() {
+        assertTrue(true);
+    }
+
+    /**
+     * Test the cache hits and misses
+     */
+    @Test
+    void testGetPut() {
+        PatternCache cache = new PatternCache(PatternCache.DEFAULT_MEMORY_BUDGET);
+        CompiledPattern pattern = createPattern("Sargon");
+
+        assertNull(cache.get("Sargon"));
+        assertTrue(cache.put("Sargon", pattern));
+        assertSame(pattern, cache.get("Sargon"));
+        assertSame(pattern, cache.get("Sargon"));
+        assertNull(cache.get("Babylon"));
+
+        assertEquals(1, cache.getSize());
+        assertEquals(2, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(pattern.getMemorySize(), cache.getUsedMemory());
+
+        cache.clear();
+        assertEquals(0, cache.getSize());
+        assertEquals(0, cache.getUsedMemory());
+        assertNull(cache.get("Sargon"));
+    }
+
+    /**
+     * Test that a new pattern only evicts the less frequently used ones
+     */
+    @Test
+    void testAdmission() {
+        CompiledPattern pattern = createPattern("a");
+        PatternCache cache = new PatternCache(pattern.getMemorySize() * 3);
+
+        // Fill the cache, "a" is the most used pattern
+        for(String key : new String[]{"a", "b", "c"}) {
+            assertNull(cache.get(key));
+            assertTrue(cache.put(key, createPattern(key)));
+        }
+        for(int i = 0 ; i < 3 ; i++) assertNotNull(cache.get("a"));
+
+        // A pattern used once cannot evict "b", used once too
+        assertNull(cache.get("d"));
+        assertFalse(cache.put("d", createPattern("d")));
+        assertEquals(1, cache.getRejections());
+        assertEquals(3, cache.getSize());
+
+        // A more frequent pattern evicts the least recently used one
+        assertNull(cache.get("d"));
+        assertNull(cache.get("d"));
+        assertTrue(cache.put("d", createPattern("d")));
+        assertEquals(1, cache.getEvictions());
+        assertEquals(3, cache.getSize());
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("a"));
+        assertNotNull(cache.get("c"));
+        assertNotNull(cache.get("d"));
+
+        // A pattern bigger than the budget is never admitted
+        PatternCache smallCache = new PatternCache(pattern.getMemorySize() - 1);
+        assertFalse(smallCache.put("a", pattern));
+        assertEquals(0, smallCache.getSize());
+    }
+
+    /**
+     * Test that a rejected pattern does not remove the cached pattern of its key
+     */
+    @Test
+    void testRejectedReplacement() {
+        CompiledPattern pattern = createPattern("a");
+        PatternCache cache = new PatternCache(pattern.getMemorySize() * 3);
+        for(String key : new String[]{"a", "b", "c"}) {
+            assertNull(cache.get(key));
+            assertTrue(cache.put(key, createPattern(key)));
+        }
+        long usedMemory = cache.getUsedMemory();
+
+        // A pattern bigger than the budget keeps the previous one
+        StringBuilder longRegex = new StringBuilder();
+        while(createPattern(longRegex.toString()).getMemorySize() <= pattern.getMemorySize() * 3) longRegex.append('b');
+        CompiledPattern previous = cache.get("b");
+        assertFalse(cache.put("b", createPattern(longRegex.toString())));
+        assertSame(previous, cache.get("b"));
+
+        // A bigger pattern which would evict a more frequent pattern keeps the previous one
+        for(int i = 0 ; i < 5 ; i++) {
+            assertNotNull(cache.get("a"));
+            assertNotNull(cache.get("c"));
+        }
+        assertFalse(cache.put("b", createPattern("bb")));
+        assertSame(previous, cache.get("b"));
+        assertEquals(3, cache.getSize());
+        assertEquals(usedMemory, cache.getUsedMemory());
+
+        // A replacement which fits is accepted
+        assertTrue(cache.put("b", createPattern("b")));
+        assertEquals(usedMemory, cache.getUsedMemory());
+        assertEquals(3, cache.getSize());
+    }
+
+    /**
+     * Test that the search engines reuse the shared cached patterns and find the same lines
+     */
+    @Test
+    void testSearchEngine() {
+        try {
+            File file = Files.createTempFile("egrep", ".txt").toFile();
+            file.deleteOnExit();
+            Files.write(file.toPath(), "Sargon\nBabylon\nSaron\n".getBytes());
+
+            String[] regexes = {"Sargon", "S(a|r)*on", "S.*on|Bab", "a*"};
+            for(String regex : regexes) {
+                for(SearchEngine.Strategy strategy : new SearchEngine.Strategy[]{null, SearchEngine.Strategy.DFA, SearchEngine.Strategy.NAIVE}) {
+                    SearchEngine first = strategy == null ? new SearchEngine(regex, file.getPath()) : new SearchEngine(regex, file.getPath(), strategy);
+                    long hits = PatternCache.getShared().getHits();
+                    SearchEngine second = strategy == null ? new SearchEngine(regex, file.getPath()) : new SearchEngine(regex, file.getPath(), strategy);
+                    assertTrue(PatternCache.getShared().getHits() > hits, regex);
+                    assertEquals(first.searchLines().size(), second.searchLines().size(), regex);
+                }
+            }
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the cache from concurrent threads
+     */
+    @Test
+    void testConcurrent() {
+        try {
+            long budget = createPattern("0").getMemorySize() * 8;
+            PatternCache cache = new PatternCache(budget);
+            List<Thread> threads = new ArrayList<>();
+            for(int t = 0 ; t < 4 ; t++) {
+                Thread thread = new Thread(() -> {
+                    for(int i = 0 ; i < 10000 ; i++) {
+                        String key = String.valueOf(i % 16);
+                        if(cache.get(key) == null) cache.put(key, createPattern(key));
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            for(Thread thread : threads) thread.join();
+
+            assertEquals(40000, cache.getHits() + cache.getMisses());
+            assertTrue(cache.getSize() <= 8);
+            assertTrue(cache.getUsedMemory() <= budget);
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Create a small compiled pattern for a literal regex
+     *
+     * @param regex The literal regex
+     * @return The compiled pattern
+     */
+    private static CompiledPattern createPattern(String regex) {
+        return new CompiledPattern(regex, new KMPStrategy(regex), null);
+    }
+
+}
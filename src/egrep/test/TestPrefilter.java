@@ -0,0 +1,81 @@
+package egrep.test;
+
+import egrep.main.automaton.Automaton;
+import egrep.main.automaton.Prefilter;
+import egrep.main.parser.RegExParser;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("A test suite for the byte automaton prefilter")
+public class TestPrefilter {
+
+    /**
+     * Check the test suite availability
+     */
+    @Test
+    void available() {
+        assertTrue(true);
+    }
+
+    /**
+     * Test the candidate bytes of some regex
+     */
+    @Test
+    void testCandidates() {
+        try {
+            assertArrayEquals(new byte[]{'S'}, getPrefilter("S(a|r)*on").getCandidates());
+            assertArrayEquals(new byte[]{'B', 'U'}, getPrefilter("(Ba|Ur)(b|c)*").getCandidates());
+            assertArrayEquals(new byte[]{(byte) 0xE4}, getPrefilter("中文").getCandidates());
+
+            // Every input matches
+            assertNull(getPrefilter("a*"));
+
+            // The candidates are too frequent
+            assertNull(getPrefilter("(e|t| )x"));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the jump to the next candidate
+     */
+    @Test
+    void testNext() {
+        byte[] input = "the king of Babylon and Ur".getBytes(StandardCharsets.UTF_8);
+
+        Prefilter single = new Prefilter(new byte[]{'B'});
+        assertEquals(12, single.next(input, 0, input.length));
+        assertEquals(12, single.next(input, 12, input.length));
+        assertEquals(input.length, single.next(input, 13, input.length));
+        assertEquals(10, single.next(input, 0, 10));
+
+        Prefilter pair = new Prefilter(new byte[]{'B', 'U'});
+        assertEquals(24, pair.next(input, 13, input.length));
+
+        Prefilter table = new Prefilter(new byte[]{'B', 'U', 'k'});
+        assertEquals(4, table.next(input, 0, input.length));
+        assertEquals(24, table.next(input, 13, input.length));
+
+        assertEquals(input.length, new Prefilter(new byte[0]).next(input, 0, input.length));
+    }
+
+    /**
+     * Get the prefilter of the unanchored automaton of a regex
+     *
+     * @param regex The regex
+     * @return The prefilter
+     * @throws Exception If the regex is not correct
+     */
+    private static Prefilter getPrefilter(String regex) throws Exception {
+        Automaton automaton = new Automaton(new RegExParser(regex).parse(), true, true);
+        automaton.minimize();
+        return automaton.getUtf8Prefilter();
+    }
+
+}
@@ -0,0 +1,148 @@
+package egrep.test;
+
+import egrep.main.automaton.Automaton;
+import egrep.main.parser.RegExParser;
+import egrep.main.parser.RequiredLiterals;
+import egrep.main.search_engine.DFAStrategy;
+import egrep.main.search_engine.SearchEngine;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("A test suite for the required literals analysis")
+public class TestRequiredLiterals {
+
+    /**
+     * Check the test suite availability
+     */
+    @Test
+    void available() {
+        assertTrue(true);
+    }
+
+    /**
+     * Test the required literals of some regex
+     */
+    @Test
+    void testAnalyze() {
+        try {
+            assertAnalysis("Error.*timeout", Arrays.asList("timeout"), 12);
+            assertAnalysis("(GET|POST) /api", Arrays.asList("GET /api", "POST /api"), 8);
+            assertAnalysis("S(a|r)*on", Arrays.asList("on"), 3);
+            assertAnalysis("Sargon", Arrays.asList("Sargon"), 6);
+            assertAnalysis("(Baby|Nabo)(l|n)", Arrays.asList("Babyl", "Babyn", "Nabol", "Nabon"), 5);
+            assertAnalysis("(Ba.ylon|Ur)", Arrays.asList("Ur", "ylon"), 2);
+            assertAnalysis("中文.*😀", Arrays.asList("中文"), 4);
+
+            // Without required literal
+            assertAnalysis("a*", null, 0);
+            assertAnalysis("(a|b*)c*", null, 0);
+            assertAnalysis("(a|b|c|d|e|f|g|h|i|j|k|l|m|n|o|p|q|r)", null, 1);
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test that every match of random regex contains a required literal and is long enough
+     */
+    @Test
+    void testRandom() {
+        Random random = new Random(42);
+        String[] symbols = {"a", "b", "c", "é", "."};
+        String[] inputSymbols = {"a", "b", "c", "é", "d"};
+
+        try {
+            DFAStrategy strategy = new DFAStrategy();
+
+            for(int test = 0 ; test < 300 ; test++) {
+                String regex = TestUtils.randomRegex(random, symbols, 4);
+                RequiredLiterals required = RequiredLiterals.analyze(new RegExParser(regex).parse());
+                Automaton anchored = new Automaton(new RegExParser(regex).parse(), true, false);
+                Automaton automaton = new Automaton(new RegExParser(regex).parse(), true, true);
+
+                for(int i = 0 ; i < 30 ; i++) {
+                    StringBuilder input = new StringBuilder();
+                    int length = random.nextInt(8);
+                    for(int j = 0 ; j < length ; j++) input.append(inputSymbols[random.nextInt(inputSymbols.length)]);
+                    if(!strategy.isMatching(automaton, input.toString())) continue;
+
+                    // A matching input contains a literal
+                    if(required.getLiterals() != null) {
+                        boolean found = false;
+                        for(String literal : required.getLiterals()) found |= input.toString().contains(literal);
+                        assertTrue(found, regex + " on " + input);
+                    }
+
+                    // An exact match is long enough
+                    if(matchesExactly(anchored, input.toString())) assertTrue(input.length() >= required.getMinLength(), regex + " on " + input);
+                }
+            }
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test that the filtered search finds the same lines as the DFA
+     */
+    @Test
+    void testSearchEngine() {
+        try {
+            File file = Files.createTempFile("egrep", ".txt").toFile();
+            file.deleteOnExit();
+            Files.write(file.toPath(), "Sargon of Akkad\nBabylon\nthe king of Babylon\nAssyria\nabababababababababababababab Babylon\n".getBytes());
+
+            String[] regexes = {
+                    "(a|b)*a(a|b)(a|b)(a|b)(a|b)(a|b)(a|b)(a|b)(a|b)(a|b)(a|b)(a|b)(a|b)(a|b)(a|b)(.*)(Babylon|Assyria)",
+                    "(a|b)*a(a|b)(a|b)(a|b)(a|b)(a|b)(a|b)(a|b)(a|b)(a|b)(a|b)(a|b)(a|b)(a|b)(a|b).*Babylon",
+                    "(a|e|i|o|u) of (Babylon|Akkad)"
+            };
+            for(String regex : regexes) {
+                int expected = new SearchEngine(regex, file.getPath(), SearchEngine.Strategy.LAZY_DFA).searchLines().size();
+                assertEquals(expected, new SearchEngine(regex, file.getPath()).searchLines().size(), regex);
+            }
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Assert the result of the analysis of a regex
+     *
+     * @param regex The regex
+     * @param literals The expected literals
+     * @param minLength The expected minimal length
+     * @throws Exception If the regex is not correct
+     */
+    private static void assertAnalysis(String regex, List<String> literals, int minLength) throws Exception {
+        RequiredLiterals required = RequiredLiterals.analyze(new RegExParser(regex).parse());
+        assertEquals(literals, required.getLiterals(), regex);
+        assertEquals(minLength, required.getMinLength(), regex);
+    }
+
+    /**
+     * Get if an anchored automaton accepts an input
+     *
+     * @param automaton The anchored automaton
+     * @param input The input
+     * @return True if the whole input is accepted
+     * @throws Exception If the automaton is not deterministic
+     */
+    private static boolean matchesExactly(Automaton automaton, String input) throws Exception {
+        automaton.reset();
+        for(int i = 0 ; i < input.length() ; i++) automaton.input(input.charAt(i));
+        return automaton.isInFinalState();
+    }
+
+}
@@ -0,0 +1,152 @@
+package egrep.test;
+
+import egrep.main.search_engine.SearchEngine;
+import egrep.main.utils.Pair;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("A test suite for the search engine")
+public class TestSearchEngine {
+
+    /**
+     * Check the test suite availability
+     */
+    @Test
+    void available() {
+        assertTrue(true);
+    }
+
+    /**
+     * Test that the search of a file split in chunks between many threads finds the lines of the single thread search,
+     * with the same numbers and in the file order
+     */
+    @Test
+    void testParallel() {
+        Random random = new Random(42);
+        String[] words = {"Sargon", "Babylon", "Ur", "a", "b", "é", "😀", " "};
+        String[] regexes = {"Sargon", "S(a|r)*on", "Ur", "a.b", "(Ur|😀)"};
+        File file = null;
+
+        try {
+            file = File.createTempFile("egrep", ".txt");
+
+            for(int test = 0 ; test < 20 ; test++) {
+                // Create lines ending with CRLF or LF, the last one without line break
+                StringBuilder content = new StringBuilder();
+                int lineNumber = random.nextInt(200);
+                for(int i = 0 ; i < lineNumber ; i++) {
+                    int length = random.nextInt(12);
+                    for(int j = 0 ; j < length ; j++) content.append(words[random.nextInt(words.length)]);
+                    content.append(random.nextBoolean() ? "\r\n" : "\n");
+                }
+
+                // The last line is sometimes longer than many chunks, so these chunks have no line break
+                int lastLength = random.nextInt(3) == 0 ? 2000 : random.nextInt(12);
+                for(int j = 0 ; j < lastLength ; j++) content.append(words[random.nextInt(words.length)]);
+                Files.write(file.toPath(), content.toString().getBytes(StandardCharsets.UTF_8));
+
+                for(String regex : regexes) {
+                    List<Pair<Integer, String>> expected = search(regex, file, 1);
+                    List<Pair<Integer, String>> found = search(regex, file, 4);
+                    assertEquals(toStrings(expected), toStrings(found), regex + " in test " + test);
+
+                    // The literal is checked against the lines of the string
+                    if(regex.equals("Sargon")) assertEquals(toStrings(findLiteral(content.toString(), regex)), toStrings(found));
+                }
+            }
+
+        } catch(Exception e) {
+            fail(e);
+        } finally {
+            if(file != null) file.delete();
+        }
+    }
+
+    /**
+     * Test the worst case of a long literal with a dot : every byte of a line of the anchor character is an anchor
+     * occurrence, so the search must not verify the whole literal at each of them
+     */
+    @Test
+    void testLongDottedLiteral() {
+        File file = null;
+
+        try {
+            file = File.createTempFile("egrep", ".txt");
+
+            // A line of almost matching blocks, and a matching line
+            StringBuilder half = new StringBuilder();
+            for(int i = 0 ; i < 2000 ; i++) half.append('a');
+            String regex = half + "." + half;
+            StringBuilder content = new StringBuilder();
+            for(int i = 0 ; i < 2000 ; i++) content.append(half).append(half, 2, half.length()).append("bb");
+            content.append('\n').append(half).append('b').append(half).append('\n');
+            Files.write(file.toPath(), content.toString().getBytes(StandardCharsets.UTF_8));
+
+            File input = file;
+            List<Pair<Integer, String>> found = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> search(regex, input, 1));
+            assertEquals(1, found.size());
+            assertEquals(2, found.get(0).getKey());
+
+        } catch(Exception e) {
+            fail(e);
+        } finally {
+            if(file != null) file.delete();
+        }
+    }
+
+    /**
+     * Search a regex in a file, all the files being split between the threads
+     *
+     * @param regex The regex
+     * @param file The input file
+     * @param threadNumber The number of threads
+     * @return The pair (number, line) of the matched lines
+     * @throws Exception If the search fails
+     */
+    private static List<Pair<Integer, String>> search(String regex, File file, int threadNumber) throws Exception {
+        SearchEngine engine = new SearchEngine(regex, file.getPath());
+        engine.setThreadNumber(threadNumber);
+        engine.setParallelFileSize(1);
+        return engine.searchLines();
+    }
+
+    /**
+     * Find the lines of a string holding a literal
+     *
+     * @param content The string
+     * @param literal The literal
+     * @return The pair (number, line) of the lines holding the literal, without their carriage return
+     */
+    private static List<Pair<Integer, String>> findLiteral(String content, String literal) {
+        List<Pair<Integer, String>> res = new ArrayList<>();
+        String[] lines = content.split("\n", -1);
+        for(int i = 0 ; i < lines.length ; i++) {
+            String line = lines[i].endsWith("\r") ? lines[i].substring(0, lines[i].length() - 1) : lines[i];
+            if(line.contains(literal)) res.add(new Pair<>(i + 1, line));
+        }
+        return res;
+    }
+
+    /**
+     * Convert the matched lines to strings, to compare them
+     *
+     * @param lines The pair (number, line) of the matched lines
+     * @return The lines as "number : line"
+     */
+    private static List<String> toStrings(List<Pair<Integer, String>> lines) {
+        List<String> res = new ArrayList<>();
+        for(Pair<Integer, String> line : lines) res.add(line.getKey() + " : " + line.getValue());
+        return res;
+    }
+
+}
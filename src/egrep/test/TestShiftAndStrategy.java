@@ -0,0 +1,460 @@
+package egrep.test;
+
+import egrep.main.parser.RegExParser;
+import egrep.main.search_engine.JavaNativeStrategy;
+import egrep.main.search_engine.ShiftAndStrategy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static egrep.main.search_engine.ShiftAndStrategy.WORD_SIZE;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("A test suite for the Shift-And search strategy")
+public class TestShiftAndStrategy {
+
+    /**
+     * Check the test suite availability
+     */
+    @Test
+    void available() {
+        assertTrue(true);
+    }
+
+    /**
+     * Test for the aho ullman (a|bc*) example match
+     */
+    @Test
+    void testAhoUllman() {
+        try {
+
+            // Create the strategy
+            ShiftAndStrategy strategy = new ShiftAndStrategy(RegExParser.exampleAhoUllman());
+
+            assertTrue(strategy.isMatching(null, "ac"));
+            assertTrue(strategy.isMatching(null, "bc"));
+            assertTrue(strategy.isMatching(null, "a"));
+            assertTrue(strategy.isMatching(null, "b"));
+            assertTrue(strategy.isMatching(null, "ab"));
+            assertTrue(strategy.isMatching(null, "accccc"));
+            assertTrue(strategy.isMatching(null, "bccccc"));
+
+            assertFalse(strategy.isMatching(null, ""));
+            assertFalse(strategy.isMatching(null, "c"));
+            assertFalse(strategy.isMatching(null, "Coucou"));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the marching with the concatenation
+     */
+    @Test
+    void testConcat() {
+        // Define the regex and the parser
+        String regex = "coucou";
+        RegExParser parser = new RegExParser(regex);
+
+        try {
+
+            ShiftAndStrategy strategy = new ShiftAndStrategy(parser.parse());
+
+            assertTrue(strategy.isMatching(null, "coucou"));
+            assertTrue(strategy.isMatching(null, "coucouaaa"));
+            assertTrue(strategy.isMatching(null, "aaacoucou"));
+            assertTrue(strategy.isMatching(null, "This is a coucou"));
+
+            assertFalse(strategy.isMatching(null, ""));
+            assertFalse(strategy.isMatching(null, "Coucou"));
+            assertFalse(strategy.isMatching(null, "coUcou"));
+            assertFalse(strategy.isMatching(null, "cou cou"));
+            assertFalse(strategy.isMatching(null, "Rien à voir"));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the matching with the dot
+     */
+    @Test
+    void testDot() {
+        // Define the regex and the parser
+        String regex = ".";
+        RegExParser parser = new RegExParser(regex);
+
+        try {
+
+            ShiftAndStrategy strategy = new ShiftAndStrategy(parser.parse());
+
+            assertTrue(strategy.isMatching(null, "a"));
+            assertTrue(strategy.isMatching(null, "test"));
+            assertTrue(strategy.isMatching(null, " "));
+            assertTrue(strategy.isMatching(null, "."));
+
+            assertFalse(strategy.isMatching(null, ""));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the matching with the star
+     */
+    @Test
+    void testStar() {
+        // Define the regex and the parser
+        String regex = "a*";
+        RegExParser parser = new RegExParser(regex);
+
+        try {
+
+            ShiftAndStrategy strategy = new ShiftAndStrategy(parser.parse());
+
+            assertTrue(strategy.isMatching(null, ""));
+            assertTrue(strategy.isMatching(null, "a"));
+            assertTrue(strategy.isMatching(null, "aaaaaa"));
+            assertTrue(strategy.isMatching(null, "Rien à voir"));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the marching with the altern
+     */
+    @Test
+    void testAltern() {
+        // Define the regex and the parser
+        String regex = "a|b";
+        RegExParser parser = new RegExParser(regex);
+
+        try {
+
+            ShiftAndStrategy strategy = new ShiftAndStrategy(parser.parse());
+
+            assertTrue(strategy.isMatching(null, "a"));
+            assertTrue(strategy.isMatching(null, "b"));
+            assertTrue(strategy.isMatching(null, "ab"));
+            assertTrue(strategy.isMatching(null, "This is a test"));
+            assertTrue(strategy.isMatching(null, "This is b test"));
+
+            assertFalse(strategy.isMatching(null, ""));
+            assertFalse(strategy.isMatching(null, "Nope"));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the matching with the parenthesis
+     */
+    @Test
+    void testParen() {
+        // Define the regex and the parser
+        String regex = "(ab)|(ac)";
+        RegExParser parser = new RegExParser(regex);
+
+        try {
+
+            ShiftAndStrategy strategy = new ShiftAndStrategy(parser.parse());
+
+            assertTrue(strategy.isMatching(null, "ab"));
+            assertTrue(strategy.isMatching(null, "ac"));
+            assertTrue(strategy.isMatching(null, "abcbbc"));
+            assertTrue(strategy.isMatching(null, "accurate"));
+            assertTrue(strategy.isMatching(null, "ability"));
+
+            assertFalse(strategy.isMatching(null, ""));
+            assertFalse(strategy.isMatching(null, "Nope"));
+            assertFalse(strategy.isMatching(null, "bcause"));
+            assertFalse(strategy.isMatching(null, "axe"));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the matching with all the operators
+     */
+    @Test
+    void testAll() {
+        // Define the regex and the parser
+        String regex = "(coucou!(!)*)|(ab.d)";
+        RegExParser parser = new RegExParser(regex);
+
+        try {
+
+            ShiftAndStrategy strategy = new ShiftAndStrategy(parser.parse());
+
+            assertTrue(strategy.isMatching(null, "coucou!"));
+            assertTrue(strategy.isMatching(null, "coucou!!!!!!"));
+            assertTrue(strategy.isMatching(null, "coucou!coucou"));
+            assertTrue(strategy.isMatching(null, "coucou! comment ça va"));
+            assertTrue(strategy.isMatching(null, "comment ça va coucou!!"));
+            assertTrue(strategy.isMatching(null, "abcd"));
+            assertTrue(strategy.isMatching(null, "abxd"));
+
+            assertFalse(strategy.isMatching(null, ""));
+            assertFalse(strategy.isMatching(null, "coucou"));
+            assertFalse(strategy.isMatching(null, "Rien à voir"));
+            assertFalse(strategy.isMatching(null, "abce"));
+            assertFalse(strategy.isMatching(null, "abd"));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the matching when a character and the dot are possible at the same position
+     */
+    @Test
+    void testDotAndChar() {
+        // Define the regex and the parser
+        String regex = "(ab)|(.c)";
+        RegExParser parser = new RegExParser(regex);
+
+        try {
+
+            ShiftAndStrategy strategy = new ShiftAndStrategy(parser.parse());
+
+            assertTrue(strategy.isMatching(null, "ab"));
+            assertTrue(strategy.isMatching(null, "ac"));
+            assertTrue(strategy.isMatching(null, "xc"));
+
+            assertFalse(strategy.isMatching(null, "a"));
+            assertFalse(strategy.isMatching(null, "ax"));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the matching when a position is followed by the next one only in some branches
+     */
+    @Test
+    void testNotLinear() {
+        // Define the regex and the parser
+        String regex = "x(ab|c)d";
+        RegExParser parser = new RegExParser(regex);
+
+        try {
+
+            ShiftAndStrategy strategy = new ShiftAndStrategy(parser.parse());
+
+            assertTrue(strategy.isMatching(null, "xabd"));
+            assertTrue(strategy.isMatching(null, "xcd"));
+
+            assertFalse(strategy.isMatching(null, "xabcd"));
+            assertFalse(strategy.isMatching(null, "xad"));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the matching with a state on multiple words
+     */
+    @Test
+    void testMultiWord() {
+        // Define the regex and the parser : 75 positions
+        StringBuilder regex = new StringBuilder();
+        for(int i = 0 ; i < 25 ; i++) regex.append("(ab)*c");
+        RegExParser parser = new RegExParser(regex.toString());
+
+        try {
+
+            ShiftAndStrategy strategy = new ShiftAndStrategy(parser.parse());
+            assertEquals(75, strategy.getPositionNumber());
+            assertEquals(2, strategy.getWordNumber());
+
+            StringBuilder input = new StringBuilder("xx");
+            for(int i = 0 ; i < 25 ; i++) input.append(i % 3 == 0 ? "ababc" : "c");
+            assertTrue(strategy.isMatching(null, input.toString()));
+            assertFalse(strategy.isMatching(null, input.substring(0, input.length() - 1)));
+            assertFalse(strategy.isMatching(null, input.toString().replace("ababc", "abac")));
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the matching on random regex against the Java native strategy
+     */
+    @Test
+    void testRandom() {
+        Random random = new Random(42);
+        String[] symbols = {"a", "b", "c", "."};
+
+        try {
+
+            for(int test = 0 ; test < 300 ; test++) {
+                String regex = TestUtils.randomRegex(random, symbols, 4);
+                ShiftAndStrategy strategy = new ShiftAndStrategy(new RegExParser(regex).parse());
+                JavaNativeStrategy oracle = new JavaNativeStrategy(regex);
+
+                for(int i = 0 ; i < 20 ; i++) {
+                    StringBuilder input = new StringBuilder();
+                    int length = random.nextInt(12);
+                    for(int j = 0 ; j < length ; j++) input.append("abcd".charAt(random.nextInt(4)));
+                    assertEquals(oracle.isMatching(null, input.toString()), strategy.isMatching(null, input.toString()), regex + " on " + input);
+                }
+            }
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the matching on random regex with wide characters against the Java native strategy
+     */
+    @Test
+    void testRandomUnicode() {
+        Random random = new Random(42);
+        String[] symbols = {"a", "\u00e9", "\u4e2d", "\u0100", "."};
+        String inputSymbols = "a\u00e9\u4e2d\u0100\u6587";
+
+        try {
+
+            for(int test = 0 ; test < 300 ; test++) {
+                String regex = TestUtils.randomRegex(random, symbols, 4);
+                ShiftAndStrategy strategy = new ShiftAndStrategy(new RegExParser(regex).parse());
+                JavaNativeStrategy oracle = new JavaNativeStrategy(regex);
+
+                for(int i = 0 ; i < 20 ; i++) {
+                    StringBuilder input = new StringBuilder();
+                    int length = random.nextInt(12);
+                    for(int j = 0 ; j < length ; j++) input.append(inputSymbols.charAt(random.nextInt(inputSymbols.length())));
+                    assertEquals(oracle.isMatching(null, input.toString()), strategy.isMatching(null, input.toString()), regex + " on " + input);
+                }
+            }
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the matching over the UTF-8 bytes against the matching over the characters
+     */
+    @Test
+    void testRandomBytes() {
+        Random random = new Random(42);
+        String[] symbols = {"a", "b", "."};
+        String[] inputSymbols = {"a", "b", "\u00e9", "\u4e2d", "\ud83d\ude00"};
+
+        try {
+
+            for(int test = 0 ; test < 300 ; test++) {
+                String regex = TestUtils.randomRegex(random, symbols, 4);
+                ShiftAndStrategy strategy = new ShiftAndStrategy(new RegExParser(regex).parse());
+
+                for(int i = 0 ; i < 20 ; i++) {
+                    StringBuilder input = new StringBuilder();
+                    int length = random.nextInt(10);
+                    for(int j = 0 ; j < length ; j++) input.append(inputSymbols[random.nextInt(inputSymbols.length)]);
+                    byte[] bytes = input.toString().getBytes(StandardCharsets.UTF_8);
+                    assertEquals(strategy.isMatching(null, input.toString()), strategy.isMatching(null, bytes, 0, bytes.length), regex + " on " + input);
+                }
+            }
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the matching over malformed UTF-8 bytes against the matching over the decoded string,
+     * where each malformed sequence is one replacement character
+     */
+    @Test
+    void testMalformedBytes() {
+        Random random = new Random(42);
+        String[] symbols = {"a", "b", "."};
+        byte[][] inputSymbols = {
+                {'a'}, {'b'}, {(byte) 0xC3, (byte) 0xA9}, {(byte) 0xF0, (byte) 0x9F, (byte) 0x98, (byte) 0x80},
+                {(byte) 0x80}, {(byte) 0xBF}, {(byte) 0xE4}, {(byte) 0xE4, (byte) 0xB8}, {(byte) 0xF0, (byte) 0x9F, (byte) 0x98},
+                {(byte) 0xC0}, {(byte) 0xF5}, {(byte) 0xFF}
+        };
+
+        try {
+            // A stray continuation byte is a character
+            ShiftAndStrategy dots = new ShiftAndStrategy(new RegExParser("a.b").parse());
+            byte[] stray = {'a', (byte) 0x80, 'b'};
+            assertTrue(dots.isMatching(null, stray, 0, stray.length));
+            assertTrue(dots.isMatching(null, new String(stray, StandardCharsets.UTF_8)));
+
+            for(int test = 0 ; test < 300 ; test++) {
+                String regex = TestUtils.randomRegex(random, symbols, 4);
+                ShiftAndStrategy strategy = new ShiftAndStrategy(new RegExParser(regex).parse());
+
+                for(int i = 0 ; i < 20 ; i++) {
+                    ByteArrayOutputStream input = new ByteArrayOutputStream();
+                    int length = random.nextInt(10);
+                    for(int j = 0 ; j < length ; j++) input.write(inputSymbols[random.nextInt(inputSymbols.length)]);
+                    byte[] bytes = input.toByteArray();
+                    String decoded = new String(bytes, StandardCharsets.UTF_8);
+                    assertEquals(strategy.isMatching(null, decoded), strategy.isMatching(null, bytes, 0, bytes.length), regex + " on " + decoded);
+                }
+            }
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the matching over the decoded UTF-8 bytes, with wide characters and multi word states,
+     * against the matching over the decoded string
+     */
+    @Test
+    void testRandomDecodedBytes() {
+        Random random = new Random(42);
+        String[] symbols = {"a", "\u00e9", "\u4e2d", "\ud83d\ude00", "."};
+        byte[][] inputSymbols = {
+                {'a'}, {(byte) 0xC3, (byte) 0xA9}, {(byte) 0xE4, (byte) 0xB8, (byte) 0xAD}, {(byte) 0xE6, (byte) 0x96, (byte) 0x87},
+                {(byte) 0xF0, (byte) 0x9F, (byte) 0x98, (byte) 0x80}, {(byte) 0xF0, (byte) 0x9F, (byte) 0x98, (byte) 0x81},
+                {(byte) 0x80}, {(byte) 0xE4}, {(byte) 0xE4, (byte) 0xB8}, {(byte) 0xF0, (byte) 0x9F, (byte) 0x98}, {(byte) 0xC0}
+        };
+        StringBuilder suffix = new StringBuilder();
+        for(int i = 0 ; i < WORD_SIZE ; i++) suffix.append("a*");
+
+        try {
+
+            for(int test = 0 ; test < 300 ; test++) {
+                // Every other regex has a state on two words
+                String regex = TestUtils.randomRegex(random, symbols, 4);
+                if(test % 2 == 1) regex = "(" + regex + ")" + suffix;
+                ShiftAndStrategy strategy = new ShiftAndStrategy(new RegExParser(regex).parse());
+
+                for(int i = 0 ; i < 20 ; i++) {
+                    ByteArrayOutputStream input = new ByteArrayOutputStream();
+                    int length = random.nextInt(10);
+                    for(int j = 0 ; j < length ; j++) input.write(inputSymbols[random.nextInt(inputSymbols.length)]);
+                    byte[] bytes = input.toByteArray();
+                    String decoded = new String(bytes, StandardCharsets.UTF_8);
+                    assertEquals(strategy.isMatching(null, decoded), strategy.isMatching(null, bytes, 0, bytes.length), regex + " on " + decoded);
+                }
+            }
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+}
@@ -0,0 +1,130 @@
+package egrep.test;
+
+import egrep.main.automaton.Automaton;
+import egrep.main.automaton.LazyAutomaton;
+import egrep.main.parser.RegExParser;
+import egrep.main.search_engine.DFAStrategy;
+import egrep.main.search_engine.KMPStrategy;
+import egrep.main.search_engine.LazyDFAStrategy;
+import egrep.main.search_engine.NaiveStrategy;
+import egrep.main.search_engine.ShiftAndStrategy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("A test suite comparing the regex strategies")
+public class TestStrategies {
+
+    /**
+     * Check the test suite availability
+     */
+    @Test
+    void available() {
+        assertTrue(true);
+    }
+
+    /**
+     * Test that a dot reads one UTF-16 character in every strategy, so a supplementary code point is two dots
+     */
+    @Test
+    void testSupplementaryDots() {
+        try {
+            assertEquals(0, countMatchingStrategies("a.b", "a😀b"));
+            assertEquals(5, countMatchingStrategies("a..b", "a😀b"));
+            assertEquals(5, countMatchingStrategies("a.", "😀a😀"));
+            assertEquals(5, countMatchingStrategies(".a", "😀a"));
+            assertEquals(5, countMatchingStrategies("..a..", "😀a😀"));
+            assertEquals(0, countMatchingStrategies("...a", "😀a"));
+            assertEquals(5, countMatchingStrategies("...", "中😀"));
+            assertEquals(0, countMatchingStrategies("....", "中😀"));
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test random strings with dots, the only regex the KMP strategy reads, against every strategy
+     * over inputs with supplementary code points
+     */
+    @Test
+    void testRandomSupplementary() {
+        Random random = new Random(42);
+        String[] symbols = {"a", "b", "中", "😀", ".", "."};
+        String[] inputSymbols = {"a", "b", "中", "😀", "😁"};
+
+        try {
+            for(int test = 0 ; test < 300 ; test++) {
+                StringBuilder regex = new StringBuilder();
+                int regexLength = 1 + random.nextInt(5);
+                for(int i = 0 ; i < regexLength ; i++) regex.append(symbols[random.nextInt(symbols.length)]);
+
+                for(int i = 0 ; i < 20 ; i++) {
+                    StringBuilder input = new StringBuilder();
+                    int length = random.nextInt(8);
+                    for(int j = 0 ; j < length ; j++) input.append(inputSymbols[random.nextInt(inputSymbols.length)]);
+
+                    int count = countMatchingStrategies(regex.toString(), input.toString());
+                    assertTrue(count == 0 || count == 5, regex + " on " + input + " : " + count + " strategies");
+                }
+            }
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Count the strategies matching an input, each one over the string and over the UTF-8 bytes
+     *
+     * @param regex The regex
+     * @param input The input string
+     * @return The number of strategies matching both the string and the bytes, from 0 to 5
+     * @throws Exception If a strategy fails or if a strategy does not give the same result on the string and the bytes
+     */
+    private static int countMatchingStrategies(String regex, String input) throws Exception {
+        byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+        int res = 0;
+
+        // The compiled DFA
+        Automaton automaton = new Automaton(new RegExParser(regex).parse(), true, true);
+        automaton.minimize();
+        res += countMatching(new DFAStrategy().isMatching(automaton, input), new DFAStrategy().isMatching(automaton, bytes, 0, bytes.length), regex, input);
+
+        // The lazy DFA
+        LazyDFAStrategy lazy = new LazyDFAStrategy(new LazyAutomaton(new RegExParser(regex).parse(), true));
+        res += countMatching(lazy.isMatching(null, input), lazy.isMatching(null, bytes, 0, bytes.length), regex, input);
+
+        // The naive search
+        Automaton naiveAutomaton = new Automaton(new RegExParser(regex).parse());
+        NaiveStrategy naive = new NaiveStrategy();
+        res += countMatching(naive.isMatching(naiveAutomaton, input), naive.isMatching(naiveAutomaton, bytes, 0, bytes.length), regex, input);
+
+        // The Shift-And search
+        ShiftAndStrategy shiftAnd = new ShiftAndStrategy(new RegExParser(regex).parse());
+        res += countMatching(shiftAnd.isMatching(null, input), shiftAnd.isMatching(null, bytes, 0, bytes.length), regex, input);
+
+        // The KMP search
+        KMPStrategy kmp = new KMPStrategy(regex);
+        res += countMatching(kmp.isMatching(null, input), kmp.isMatching(null, bytes, 0, bytes.length), regex, input);
+
+        return res;
+    }
+
+    /**
+     * Check that a strategy gives the same result on the string and the bytes
+     *
+     * @param stringResult The result on the string
+     * @param bytesResult The result on the bytes
+     * @param regex The regex, for the error message
+     * @param input The input, for the error message
+     * @return 1 if the strategy matches, 0 otherwise
+     */
+    private static int countMatching(boolean stringResult, boolean bytesResult, String regex, String input) {
+        assertEquals(stringResult, bytesResult, regex + " on " + input);
+        return stringResult ? 1 : 0;
+    }
+
+}
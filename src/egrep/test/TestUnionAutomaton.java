@@ -0,0 +1,137 @@
+package egrep.test;
+
+import egrep.main.automaton.Automaton;
+import egrep.main.automaton.CompiledAutomaton;
+import egrep.main.automaton.UnionAutomaton;
+import egrep.main.exceptions.AutomatonException;
+import egrep.main.parser.RegExParser;
+import egrep.main.search_engine.DFAStrategy;
+import egrep.main.search_engine.MultiSearchEngine;
+import egrep.main.utils.Pair;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("A test suite for the union automata")
+public class TestUnionAutomaton {
+
+    /**
+     * Check the test suite availability
+     */
+    @Test
+    void available() {
+        assertTrue(true);
+    }
+
+    /**
+     * Test the union of random regex against each regex DFA
+     */
+    @Test
+    void testRandom() {
+        Random random = new Random(42);
+        String[] symbols = {"a", "b", "é", "中", "."};
+        String[] inputSymbols = {"a", "b", "é", "中", "Ā"};
+
+        try {
+            DFAStrategy strategy = new DFAStrategy();
+
+            for(int test = 0 ; test < 50 ; test++) {
+                // Create the DFA of each regex
+                int patternNumber = 1 + random.nextInt(5);
+                Automaton[] automata = new Automaton[patternNumber];
+                CompiledAutomaton[] components = new CompiledAutomaton[patternNumber];
+                int[] patternIds = new int[patternNumber];
+                for(int i = 0 ; i < patternNumber ; i++) {
+                    automata[i] = new Automaton(new RegExParser(TestUtils.randomRegex(random, symbols, 3)).parse(), true, true);
+                    components[i] = automata[i].compileUtf8();
+                    patternIds[i] = 10 + i;
+                }
+                UnionAutomaton union = new UnionAutomaton(components, patternIds, Integer.MAX_VALUE);
+
+                // Compare the matched patterns
+                for(int i = 0 ; i < 20 ; i++) {
+                    StringBuilder input = new StringBuilder();
+                    int length = random.nextInt(8);
+                    for(int j = 0 ; j < length ; j++) input.append(inputSymbols[random.nextInt(inputSymbols.length)]);
+                    List<Integer> expected = new ArrayList<>();
+                    for(int p = 0 ; p < patternNumber ; p++) {
+                        if(strategy.isMatching(automata[p], input.toString())) expected.add(patternIds[p]);
+                    }
+                    byte[] bytes = input.toString().getBytes(StandardCharsets.UTF_8);
+                    int[] found = union.findPatterns(bytes, 0, bytes.length);
+                    assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), found, input.toString());
+                }
+            }
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the union state limit
+     */
+    @Test
+    void testStateLimit() {
+        try {
+            CompiledAutomaton[] components = {
+                    new Automaton(new RegExParser("a(a|b)(a|b)(a|b)").parse(), true, true).compileUtf8(),
+                    new Automaton(new RegExParser("b(a|b)(a|b)(a|b)").parse(), true, true).compileUtf8()
+            };
+            assertThrows(AutomatonException.class, () -> new UnionAutomaton(components, new int[]{0, 1}, 4));
+            assertTrue(new UnionAutomaton(components, new int[]{0, 1}, Integer.MAX_VALUE).getStateNumber() > 4);
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Test the multi regex search engine against the search of each regex
+     */
+    @Test
+    void testMultiSearchEngine() {
+        try {
+            File file = Files.createTempFile("egrep", ".txt").toFile();
+            file.deleteOnExit();
+            Files.write(file.toPath(), "Sargon\nBabylon\nSaron\n中文\nNabonidus\n".getBytes(StandardCharsets.UTF_8));
+
+            List<String> regexes = Arrays.asList("S(a|r)*on", "Bab", "中", "on", "zz", "(a|b|c|d|e|f|g)*a(a|b|c|d|e|f|g)(a|b|c|d|e|f|g)(a|b|c|d|e|f|g)(a|b|c|d|e|f|g)(a|b|c|d|e|f|g)(a|b|c|d|e|f|g)(a|b|c|d|e|f|g)");
+            MultiSearchEngine engine = new MultiSearchEngine(regexes, file.getPath());
+            List<List<Pair<Integer, String>>> results = engine.searchLines();
+
+            assertEquals(Arrays.asList(3), lineNumbers(results.get(0)));
+            assertEquals(Arrays.asList(2), lineNumbers(results.get(1)));
+            assertEquals(Arrays.asList(4), lineNumbers(results.get(2)));
+            assertEquals(Arrays.asList(1, 2, 3, 5), lineNumbers(results.get(3)));
+            assertEquals(Arrays.asList(), lineNumbers(results.get(4)));
+            assertEquals(Arrays.asList(), lineNumbers(results.get(5)));
+            assertEquals("Babylon", results.get(1).get(0).getValue());
+
+        } catch(Exception e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Get the line numbers of a result
+     *
+     * @param result The matched lines
+     * @return The line numbers
+     */
+    private static List<Integer> lineNumbers(List<Pair<Integer, String>> result) {
+        List<Integer> res = new ArrayList<>();
+        for(Pair<Integer, String> line : result) res.add(line.getKey());
+        return res;
+    }
+
+}
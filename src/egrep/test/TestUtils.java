@@ -0,0 +1,35 @@
+package egrep.test;
+
+import java.util.Random;
+
+/**
+ * This class holds the helpers shared by the test suites
+ *
+ * @author Emilie SIAU
+ * @author Hugo GUERRIER
+ */
+public class TestUtils {
+
+    /**
+     * Create a random regex with concatenations, alternations and stars
+     *
+     * @param random The random generator
+     * @param symbols The symbols for the leaves
+     * @param depth The maximal depth
+     * @return The random regex
+     */
+    public static String randomRegex(Random random, String[] symbols, int depth) {
+        int choice = depth == 0 ? 0 : random.nextInt(4);
+        switch (choice) {
+            case 1:
+                return randomRegex(random, symbols, depth - 1) + randomRegex(random, symbols, depth - 1);
+            case 2:
+                return "(" + randomRegex(random, symbols, depth - 1) + "|" + randomRegex(random, symbols, depth - 1) + ")";
+            case 3:
+                return "(" + randomRegex(random, symbols, depth - 1) + ")*";
+            default:
+                return symbols[random.nextInt(symbols.length)];
+        }
+    }
+
+}
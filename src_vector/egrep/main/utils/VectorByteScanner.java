@@ -0,0 +1,168 @@
+package egrep.main.utils;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * This class is the byte scanner using the Vector API, it compares a full vector of bytes (32 or 64 bytes
+ * following the CPU) at a time and finishes the buffer with the scalar version.
+ * The big byte sets are classified 16 bytes at a time with two nibble tables, as a 16 lanes lookup is a single shuffle
+ * It needs Java 17 or later and the jdk.incubator.vector module, else the ByteScanner class falls back to the scalar version
+ *
+ * @author Emilie SIAU
+ * @author Hugo GUERRIER
+ */
+public class VectorByteScanner extends ByteScanner {
+
+    // ----- Macros -----
+
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+    private static final int LENGTH = SPECIES.length();
+    private static final int MAX_SET_SIZE = 4;
+
+    // --- The nibble classification
+    private static final VectorSpecies<Byte> NIBBLE_SPECIES = ByteVector.SPECIES_128;
+    private static final int NIBBLE_LENGTH = NIBBLE_SPECIES.length();
+    private static final int BUCKET_NUMBER = 8;
+
+    // ----- Attributes -----
+
+    private volatile NibbleTables lastTables; // The tables of the last big set, a prefilter always gives the same set
+
+    // ----- Getters -----
+
+    @Override
+    public boolean isVectorized() {
+        return true;
+    }
+
+    // ----- Override methods -----
+
+    @Override
+    public int indexOf(byte[] input, int from, int end, byte b) {
+        int i = from;
+        for( ; i <= end - LENGTH ; i += LENGTH) {
+            VectorMask<Byte> mask = ByteVector.fromArray(SPECIES, input, i).eq(b);
+            if(mask.anyTrue()) return i + mask.firstTrue();
+        }
+        return super.indexOf(input, i, end, b);
+    }
+
+    @Override
+    public int indexOfEither(byte[] input, int from, int end, byte b0, byte b1) {
+        int i = from;
+        for( ; i <= end - LENGTH ; i += LENGTH) {
+            ByteVector vector = ByteVector.fromArray(SPECIES, input, i);
+            VectorMask<Byte> mask = vector.eq(b0).or(vector.eq(b1));
+            if(mask.anyTrue()) return i + mask.firstTrue();
+        }
+        return super.indexOfEither(input, i, end, b0, b1);
+    }
+
+    @Override
+    public int indexOfAny(byte[] input, int from, int end, byte[] bytes, boolean[] table) {
+        // The big sets are classified with the nibble tables
+        if(bytes.length == 0) return super.indexOfAny(input, from, end, bytes, table);
+        if(bytes.length > MAX_SET_SIZE) return indexOfBigSet(input, from, end, bytes, table);
+
+        // Compare with 4 bytes, the smaller sets repeat their first byte
+        byte b0 = bytes[0];
+        byte b1 = bytes.length > 1 ? bytes[1] : b0;
+        byte b2 = bytes.length > 2 ? bytes[2] : b0;
+        byte b3 = bytes.length > 3 ? bytes[3] : b0;
+        int i = from;
+        for( ; i <= end - LENGTH ; i += LENGTH) {
+            ByteVector vector = ByteVector.fromArray(SPECIES, input, i);
+            VectorMask<Byte> mask = vector.eq(b0).or(vector.eq(b1)).or(vector.eq(b2)).or(vector.eq(b3));
+            if(mask.anyTrue()) return i + mask.firstTrue();
+        }
+        return super.indexOfAny(input, i, end, bytes, table);
+    }
+
+    @Override
+    public int indexOfPair(byte[] input, int from, int end, byte first, byte last, int distance) {
+        int i = from;
+        for( ; i <= end - distance - LENGTH ; i += LENGTH) {
+            VectorMask<Byte> firstMask = ByteVector.fromArray(SPECIES, input, i).eq(first);
+            VectorMask<Byte> lastMask = ByteVector.fromArray(SPECIES, input, i + distance).eq(last);
+            VectorMask<Byte> mask = firstMask.and(lastMask);
+            if(mask.anyTrue()) return i + mask.firstTrue();
+        }
+        return super.indexOfPair(input, i, end, first, last, distance);
+    }
+
+    // ----- Internal methods -----
+
+    /**
+     * Get the position of the first byte of a big set. Each byte is looked up in a table by its low nibble and in
+     * another by its high nibble, and is a candidate if both give a common bucket bit. The candidates are checked
+     * with the set table, because a bucket holds many high nibbles when the set has more than 8 of them
+     *
+     * @param input The input buffer
+     * @param from The position to start from
+     * @param end The end of the input in the buffer (excluded)
+     * @param bytes The bytes of the set
+     * @param table The set as a table indexed by the byte values
+     * @return The position of a byte of the set, or the end if there is none
+     */
+    private int indexOfBigSet(byte[] input, int from, int end, byte[] bytes, boolean[] table) {
+        // Get the nibble tables of the set
+        NibbleTables tables = lastTables;
+        if(tables == null || tables.bytes != bytes) {
+            tables = new NibbleTables(bytes);
+            lastTables = tables;
+        }
+        ByteVector lowTable = tables.lowTable;
+        ByteVector highTable = tables.highTable;
+
+        // Classify the bytes
+        int i = from;
+        for( ; i <= end - NIBBLE_LENGTH ; i += NIBBLE_LENGTH) {
+            ByteVector vector = ByteVector.fromArray(NIBBLE_SPECIES, input, i);
+            ByteVector lowBuckets = vector.and((byte) 0x0F).selectFrom(lowTable);
+            ByteVector highBuckets = vector.lanewise(VectorOperators.LSHR, 4).selectFrom(highTable);
+            VectorMask<Byte> mask = lowBuckets.and(highBuckets).compare(VectorOperators.NE, (byte) 0);
+            if(!mask.anyTrue()) continue;
+
+            // Check the candidates
+            for(long candidates = mask.toLong() ; candidates != 0 ; candidates &= candidates - 1) {
+                int pos = i + Long.numberOfTrailingZeros(candidates);
+                if(table[input[pos] & 0xFF]) return pos;
+            }
+        }
+        return super.indexOfAny(input, i, end, bytes, table);
+    }
+
+    // ----- Internal classes -----
+
+    /**
+     * This class holds the nibble tables of a byte set : each distinct high nibble gets a bucket bit,
+     * set in the high table for the nibble and in the low table for the low nibbles of its bytes
+     */
+    private static class NibbleTables {
+
+        final byte[] bytes;
+        final ByteVector lowTable;
+        final ByteVector highTable;
+
+        NibbleTables(byte[] bytes) {
+            this.bytes = bytes;
+            byte[] low = new byte[NIBBLE_LENGTH];
+            byte[] high = new byte[NIBBLE_LENGTH];
+            int[] bucketOf = new int[NIBBLE_LENGTH];
+            int bucketNumber = 0;
+            for(byte b : bytes) {
+                int highNibble = (b & 0xFF) >>> 4;
+                if(high[highNibble] == 0) bucketOf[highNibble] = bucketNumber++ % BUCKET_NUMBER;
+                high[highNibble] |= (byte) (1 << bucketOf[highNibble]);
+                low[b & 0x0F] |= (byte) (1 << bucketOf[highNibble]);
+            }
+            lowTable = ByteVector.fromArray(NIBBLE_SPECIES, low, 0);
+            highTable = ByteVector.fromArray(NIBBLE_SPECIES, high, 0);
+        }
+
+    }
+
+}